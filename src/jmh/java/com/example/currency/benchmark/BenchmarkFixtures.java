@@ -0,0 +1,83 @@
+package com.example.currency.benchmark;
+
+import com.example.currency.cache.BoundedCache;
+import com.example.currency.cache.DataVersions;
+import com.example.currency.models.CurrencyRate;
+import com.example.currency.repository.CurrencyRateRepository;
+import com.example.currency.repository.RateHistoryJdbcRepository;
+import com.example.currency.service.CurrencyConversionService;
+import com.example.currency.service.RateHistoryService;
+import com.example.currency.snapshot.RateSnapshot;
+import com.example.currency.snapshot.RateSnapshotHolder;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Общие данные для бенчмарков: синтетические курсы и сервис конвертации без Spring-контекста и базы данных.
+ */
+final class BenchmarkFixtures {
+    private BenchmarkFixtures() {
+    }
+
+    static List<CurrencyRate> rates(int count) {
+        List<CurrencyRate> rates = new ArrayList<>(count);
+        LocalDate date = LocalDate.of(2024, 1, 1);
+        for (int i = 0; i < count; i++) {
+            CurrencyRate rate = new CurrencyRate();
+            rate.setId(400L + i);
+            rate.setAbbreviation(String.format("C%02d", i % 100));
+            rate.setRate(BigDecimal.valueOf(1_000_000L + i * 7_919L, 6));
+            rate.setDate(date);
+            rates.add(rate);
+        }
+        return rates;
+    }
+
+    static CurrencyConversionService conversionService(List<CurrencyRate> rates) {
+        CurrencyRateRepository repository = rateRepository(rates);
+        return new CurrencyConversionService(repository,
+                new BoundedCache<>("currencyRate", 1000, Duration.ofMinutes(10)),
+                new RateSnapshotHolder(repository), historyService(rates), null, new DataVersions(), event -> { },
+                null, 1000);
+    }
+
+    // История на любую дату отвечает теми же курсами; важна стоимость пути через кэш снимков на даты.
+    static RateHistoryService historyService(List<CurrencyRate> rates) {
+        RateHistoryJdbcRepository jdbcRepository = new RateHistoryJdbcRepository(null) {
+            @Override
+            public List<CurrencyRate> findAsOf(LocalDate from, LocalDate date) {
+                return rates;
+            }
+        };
+        return new RateHistoryService(null, jdbcRepository, null,
+                new BoundedCache<>("historicalRates", 1000, 32L << 20, Duration.ofHours(1), RateSnapshot::estimatedBytes), 31);
+    }
+
+    // Репозиторий-заглушка отвечает только на findAll(), которого достаточно для построения снимка курсов.
+    static CurrencyRateRepository rateRepository(List<CurrencyRate> rates) {
+        return (CurrencyRateRepository) Proxy.newProxyInstance(CurrencyRateRepository.class.getClassLoader(),
+                new Class<?>[]{CurrencyRateRepository.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "findAll":
+                            if (args == null || args.length == 0) {
+                                return rates;
+                            }
+                            break;
+                        case "toString":
+                            return "StubCurrencyRateRepository";
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        default:
+                            break;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.currency.benchmark;
+
+import com.example.currency.cache.BoundedCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность {@link BoundedCache} при конкурентном доступе: чтение попаданий,
+ * загрузка через get(key, loader) с вытеснением и смешанная нагрузка читателей и писателя.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BoundedCacheBenchmark {
+    @Param({"1000"})
+    private int maxSize;
+
+    private BoundedCache<Integer, Integer> cache;
+
+    @Setup
+    public void setUp() {
+        cache = new BoundedCache<>("benchmark", maxSize, Duration.ofMinutes(10));
+        for (int i = 0; i < maxSize; i++) {
+            cache.put(i, i);
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Integer getHit() {
+        return cache.getIfPresent(ThreadLocalRandom.current().nextInt(maxSize * 9 / 10));
+    }
+
+    // Половина ключей вне кэша: нагрузка на загрузку и пакетное вытеснение.
+    @Benchmark
+    @Threads(4)
+    public Integer getOrLoad() {
+        return cache.get(ThreadLocalRandom.current().nextInt(maxSize * 2), key -> key);
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(3)
+    public Integer reader() {
+        return cache.getIfPresent(ThreadLocalRandom.current().nextInt(maxSize));
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(1)
+    public void writer() {
+        int key = ThreadLocalRandom.current().nextInt(maxSize);
+        cache.put(key, key);
+    }
+}
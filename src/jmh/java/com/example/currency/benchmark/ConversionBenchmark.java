@@ -0,0 +1,99 @@
+package com.example.currency.benchmark;
+
+import com.example.currency.models.CurrencyRate;
+import com.example.currency.service.CurrencyConversionService;
+import com.example.currency.snapshot.RateSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость конвертации: эталонная арифметика BigDecimal, fixed-point вычисление снимка и полный путь сервиса
+ * по ID, по коду валюты и по курсам на прошлую дату (снимок даты уже в кэше).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConversionBenchmark {
+    // small: произведение суммы на курс укладывается в 18 цифр и BigDecimal сам считает в long;
+    // large: произведение длиннее, и BigDecimal переходит на BigInteger.
+    @Param({"small", "large"})
+    private String operands;
+
+    private CurrencyConversionService service;
+    private RateSnapshot snapshot;
+    private int fromIndex;
+    private int toIndex;
+    private Integer fromId;
+    private Integer toId;
+    private String fromCode;
+    private String toCode;
+    private BigDecimal fromRate;
+    private BigDecimal toRate;
+    private BigDecimal amount;
+    private final LocalDate date = LocalDate.of(2024, 1, 31);
+
+    @Setup
+    public void setUp() {
+        List<CurrencyRate> rates = BenchmarkFixtures.rates(200);
+        if ("large".equals(operands)) {
+            rates.get(17).setRate(new BigDecimal("0.0000752931"));
+            rates.get(142).setRate(new BigDecimal("3.27654321"));
+        }
+        service = BenchmarkFixtures.conversionService(rates);
+        CurrencyRate from = rates.get(17);
+        CurrencyRate to = rates.get(142);
+        fromId = from.getId().intValue();
+        toId = to.getId().intValue();
+        fromCode = from.getAbbreviation().toLowerCase();
+        toCode = to.getAbbreviation();
+        fromRate = from.getRate();
+        toRate = to.getRate();
+        amount = "large".equals(operands) ? new BigDecimal("987654321.1234") : new BigDecimal("1234.56");
+        snapshot = service.getRateSnapshot();
+        fromIndex = snapshot.indexOf(fromId);
+        toIndex = snapshot.indexOf(toId);
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimal() {
+        return amount.multiply(toRate).divide(fromRate, 4, RoundingMode.HALF_UP);
+    }
+
+    @Benchmark
+    public BigDecimal fixedPoint() {
+        return snapshot.convert(fromIndex, toIndex, amount, 4);
+    }
+
+    @Benchmark
+    public BigDecimal convertCurrency() {
+        return service.convertCurrency(fromId, toId, amount);
+    }
+
+    @Benchmark
+    public BigDecimal convertAtDate() {
+        return service.convertCurrency(fromId, toId, amount, date);
+    }
+
+    @Benchmark
+    public BigDecimal convertByCode() {
+        return service.convertByCode(fromCode, toCode, amount).getResult();
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.currency.benchmark;
+
+import com.example.currency.logging.LoggingAspect;
+import com.example.currency.models.CurrencyRate;
+import com.example.currency.service.CurrencyConversionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Накладные расходы {@link LoggingAspect}: один и тот же вызов сервиса напрямую и через AOP-прокси.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoggingAspectBenchmark {
+    private CurrencyConversionService direct;
+    private CurrencyConversionService proxied;
+    private Integer fromId;
+    private Integer toId;
+    private BigDecimal amount;
+
+    @Setup
+    public void setUp() {
+        List<CurrencyRate> rates = BenchmarkFixtures.rates(200);
+        direct = BenchmarkFixtures.conversionService(rates);
+        AspectJProxyFactory factory = new AspectJProxyFactory(direct);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new LoggingAspect(new SimpleMeterRegistry()));
+        proxied = factory.getProxy();
+        fromId = rates.get(17).getId().intValue();
+        toId = rates.get(142).getId().intValue();
+        amount = new BigDecimal("1234.56");
+        direct.getRateSnapshot();
+    }
+
+    @Benchmark
+    public BigDecimal direct() {
+        return direct.convertCurrency(fromId, toId, amount);
+    }
+
+    @Benchmark
+    public BigDecimal withAspect() {
+        return proxied.convertCurrency(fromId, toId, amount);
+    }
+}
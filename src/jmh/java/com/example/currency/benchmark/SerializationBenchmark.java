@@ -0,0 +1,49 @@
+package com.example.currency.benchmark;
+
+import com.example.currency.models.CurrencyRate;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сериализация списков курсов в JSON тем же ObjectMapper, что настраивает Spring Boot.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+    @Param({"10", "200", "5000"})
+    private int size;
+
+    private ObjectWriter writer;
+    private List<CurrencyRate> rates;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = mapper.writerFor(mapper.getTypeFactory().constructCollectionType(List.class, CurrencyRate.class));
+        rates = BenchmarkFixtures.rates(size);
+    }
+
+    @Benchmark
+    public byte[] writeRates() throws Exception {
+        return writer.writeValueAsBytes(rates);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.currency.benchmark;
+
+import com.example.currency.models.CurrencyRate;
+import com.example.currency.web.Cbor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.type.CollectionType;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Кодирование и разбор списков курсов в JSON и CBOR (фиксированная точка, даты номером дня).
+ * Размер тела каждого формата выводится в результатах как вспомогательный счётчик payloadBytes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WireFormatBenchmark {
+    @Param({"200", "5000"})
+    private int size;
+
+    @Param({"json", "cbor"})
+    private String format;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private List<CurrencyRate> rates;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws Exception {
+        ObjectMapper mapper = format.equals("cbor")
+                ? Cbor.objectMapper(Jackson2ObjectMapperBuilder.json())
+                : Jackson2ObjectMapperBuilder.json().build();
+        CollectionType type = mapper.getTypeFactory().constructCollectionType(List.class, CurrencyRate.class);
+        writer = mapper.writerFor(type);
+        reader = mapper.readerFor(type);
+        rates = BenchmarkFixtures.rates(size);
+        payload = writer.writeValueAsBytes(rates);
+    }
+
+    @Benchmark
+    public byte[] encode(PayloadSize payloadSize) throws Exception {
+        byte[] body = writer.writeValueAsBytes(rates);
+        payloadSize.payloadBytes = body.length;
+        return body;
+    }
+
+    @Benchmark
+    public List<CurrencyRate> decode(PayloadSize payloadSize) throws Exception {
+        payloadSize.payloadBytes = payload.length;
+        return reader.readValue(payload);
+    }
+
+    /**
+     * Размер тела в байтах. JMH обнуляет счётчик перед каждой итерацией, поэтому он присваивается в самом
+     * замере, а не накапливается; EVENTS-счётчик выводится как есть, без деления на время.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PayloadSize {
+        public long payloadBytes;
+    }
+}
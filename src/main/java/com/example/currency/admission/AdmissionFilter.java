@@ -0,0 +1,256 @@
+package com.example.currency.admission;
+
+import com.example.currency.exception.ErrorResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Допуск запросов к API. У каждого клиента своя корзина токенов: по заголовку X-API-Key, если ключ есть
+ * в списке {@code admission.api-keys}, иначе по IP. Неизвестный ключ не даёт отдельной корзины, иначе клиент
+ * обходил бы лимит, меняя заголовок в каждом запросе; число корзин ограничено, сверх него новые клиенты
+ * делят одну общую корзину, а полные корзины удаляются фоновой задачей;
+ * у каждого класса маршрутов — общий лимит одновременных запросов. Сверх лимитов запрос не ждёт
+ * в очереди, а сразу получает 429 или 503 с Retry-After.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class AdmissionFilter extends OncePerRequestFilter {
+    public static final String API_KEY_HEADER = "X-API-Key";
+
+    public enum RouteClass {
+        CONVERT, CRUD, UPSTREAM
+    }
+
+    public enum Reason {
+        RATE_LIMIT, CONCURRENCY
+    }
+
+    private static final UrlPathHelper PATH_HELPER = new UrlPathHelper();
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final double clientRate;
+    private final int clientBurst;
+    private final int maxTrackedClients;
+    private final Set<String> apiKeys;
+    private final Map<RouteClass, ConcurrencyLimit> limits = new EnumMap<>(RouteClass.class);
+    private final Map<RouteClass, Map<Reason, LongAdder>> rejections = new EnumMap<>(RouteClass.class);
+    private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final TokenBucket overflowBucket;
+    private final LongAdder overflowRequests = new LongAdder();
+    private final ScheduledExecutorService sweeper;
+
+    @Autowired
+    public AdmissionFilter(ObjectMapper objectMapper,
+                           @Value("${admission.enabled:true}") boolean enabled,
+                           @Value("${admission.client.rate:100}") double clientRate,
+                           @Value("${admission.client.burst:200}") int clientBurst,
+                           @Value("${admission.client.max-tracked:100000}") int maxTrackedClients,
+                           @Value("${admission.client.sweep-interval:30s}") Duration sweepInterval,
+                           @Value("${admission.concurrency.convert:64}") int convertLimit,
+                           @Value("${admission.concurrency.crud:128}") int crudLimit,
+                           @Value("${admission.concurrency.upstream:16}") int upstreamLimit,
+                           @Value("${admission.api-keys:}") List<String> apiKeys) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.clientRate = clientRate;
+        this.clientBurst = clientBurst;
+        this.maxTrackedClients = maxTrackedClients;
+        this.overflowBucket = new TokenBucket(clientRate, clientBurst, System.nanoTime());
+        this.apiKeys = apiKeys.stream()
+                .map(String::trim)
+                .filter(key -> !key.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+        limits.put(RouteClass.CONVERT, new ConcurrencyLimit(convertLimit));
+        limits.put(RouteClass.CRUD, new ConcurrencyLimit(crudLimit));
+        limits.put(RouteClass.UPSTREAM, new ConcurrencyLimit(upstreamLimit));
+        for (RouteClass route : RouteClass.values()) {
+            Map<Reason, LongAdder> counters = new EnumMap<>(Reason.class);
+            for (Reason reason : Reason.values()) {
+                counters.put(reason, new LongAdder());
+            }
+            rejections.put(route, counters);
+        }
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "admission-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = sweepInterval.toMillis();
+        sweeper.scheduleWithFixedDelay(() -> sweepIdle(System.nanoTime()), interval, interval,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        sweeper.shutdownNow();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || classify(PATH_HELPER.getPathWithinApplication(request)) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RouteClass route = classify(PATH_HELPER.getPathWithinApplication(request));
+        long now = System.nanoTime();
+        long waitNanos = bucket(clientKey(request), now).tryAcquire(now);
+        if (waitNanos > 0) {
+            rejections.get(route).get(Reason.RATE_LIMIT).increment();
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, waitNanos,
+                    new ErrorResponse("Слишком много запросов", "Превышен лимит запросов клиента"));
+            return;
+        }
+        ConcurrencyLimit limit = limits.get(route);
+        if (!limit.tryAcquire()) {
+            rejections.get(route).get(Reason.CONCURRENCY).increment();
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, TimeUnit.SECONDS.toNanos(1),
+                    new ErrorResponse("Сервис перегружен", "Превышен лимит одновременных запросов"));
+            return;
+        }
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                // Асинхронный ответ (например, вызов НБРБ) держит слот до завершения, а не до выхода из фильтра.
+                request.getAsyncContext().addListener(new ReleaseOnComplete(limit));
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                limit.release();
+            }
+        }
+    }
+
+    // null — маршрут не ограничивается (документация, actuator, долгоживущий поток SSE).
+    static RouteClass classify(String path) {
+        if (!path.startsWith("/api/") || path.equals("/api/currency/rates/stream")) {
+            return null;
+        }
+        if (path.startsWith("/api/nbrb/") || path.equals("/api/currency/rates/sync")) {
+            return RouteClass.UPSTREAM;
+        }
+        if (path.startsWith("/api/currency/rates/convert")) {
+            return RouteClass.CONVERT;
+        }
+        return RouteClass.CRUD;
+    }
+
+    String clientKey(HttpServletRequest request) {
+        String apiKey = request.getHeader(API_KEY_HEADER);
+        if (apiKey != null && apiKeys.contains(apiKey.trim())) {
+            return "key:" + apiKey.trim();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    // При полной таблице новый клиент не вытесняет известных: он получает общую корзину до ближайшей очистки.
+    private TokenBucket bucket(String clientKey, long now) {
+        TokenBucket bucket = buckets.get(clientKey);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxTrackedClients) {
+            overflowRequests.increment();
+            return overflowBucket;
+        }
+        return buckets.computeIfAbsent(clientKey, k -> new TokenBucket(clientRate, clientBurst, now));
+    }
+
+    // Полные корзины ничего не помнят, поэтому их удаление не меняет решений.
+    void sweepIdle(long now) {
+        buckets.values().removeIf(bucket -> bucket.isIdle(now));
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, long waitNanos, ErrorResponse body)
+            throws IOException {
+        long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+
+    public long getRejectedCount(RouteClass route, Reason reason) {
+        return rejections.get(route).get(reason).sum();
+    }
+
+    public int getInFlight(RouteClass route) {
+        return limits.get(route).getInFlight();
+    }
+
+    public int getTrackedClients() {
+        return buckets.size();
+    }
+
+    public long getOverflowRequests() {
+        return overflowRequests.sum();
+    }
+
+    private static final class ReleaseOnComplete implements AsyncListener {
+        private final ConcurrencyLimit limit;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        ReleaseOnComplete(ConcurrencyLimit limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                limit.release();
+            }
+        }
+    }
+}
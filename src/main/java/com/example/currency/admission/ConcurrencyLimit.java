@@ -0,0 +1,35 @@
+package com.example.currency.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ограничение числа одновременно выполняемых запросов без очереди: сверх лимита запрос сразу отклоняется.
+ */
+final class ConcurrencyLimit {
+    private final int limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    ConcurrencyLimit(int limit) {
+        this.limit = Math.max(1, limit);
+    }
+
+    boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    void release() {
+        inFlight.decrementAndGet();
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+}
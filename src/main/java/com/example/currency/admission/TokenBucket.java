@@ -0,0 +1,43 @@
+package com.example.currency.admission;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Корзина токенов в форме GCRA: всё состояние — теоретическое время прихода следующего запроса,
+ * которое сдвигается одной CAS-операцией. {@code rate} запросов в секунду, всплеск до {@code burst}.
+ */
+final class TokenBucket {
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong theoreticalArrival;
+
+    TokenBucket(double rate, int burst, long now) {
+        this.intervalNanos = Math.max(1L, (long) (1_000_000_000L / rate));
+        this.burstNanos = intervalNanos * Math.max(1, burst);
+        this.theoreticalArrival = new AtomicLong(now);
+    }
+
+    /**
+     * 0, если запрос допущен, иначе сколько наносекунд подождать до следующего токена.
+     */
+    long tryAcquire(long now) {
+        while (true) {
+            long current = theoreticalArrival.get();
+            long next = Math.max(current, now) + intervalNanos;
+            long allowAt = next - burstNanos;
+            if (now - allowAt < 0) {
+                return allowAt - now;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Корзина снова полна: её можно забыть, новая для того же клиента ведёт себя так же.
+     */
+    boolean isIdle(long now) {
+        return theoreticalArrival.get() - now <= 0;
+    }
+}
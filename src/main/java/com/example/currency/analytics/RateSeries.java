@@ -0,0 +1,74 @@
+package com.example.currency.analytics;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Курсы одной валюты по дням, сгруппированные в месячные корзины. Корзина хранит дневные значения
+ * и их сводку {@link RunningStats}; при записи дня сводка пересчитывается по не более чем 31 значению.
+ * Статистика периода объединяет сводки полностью покрытых месяцев и дни неполных месяцев на краях.
+ */
+final class RateSeries {
+    private final TreeMap<Integer, MonthBucket> months = new TreeMap<>();
+
+    /**
+     * Записывает курс дня; повторная запись той же даты заменяет значение, как upsert в истории.
+     */
+    synchronized void set(LocalDate date, double rate) {
+        months.computeIfAbsent(monthKey(date), key -> new MonthBucket()).set(date.getDayOfMonth() - 1, rate);
+    }
+
+    synchronized Result stats(LocalDate from, LocalDate to) {
+        int fromMonth = monthKey(from);
+        int toMonth = monthKey(to);
+        RunningStats stats = new RunningStats();
+        int buckets = 0;
+        for (Map.Entry<Integer, MonthBucket> entry : months.subMap(fromMonth, true, toMonth, true).entrySet()) {
+            int month = entry.getKey();
+            MonthBucket bucket = entry.getValue();
+            int firstDay = month == fromMonth ? from.getDayOfMonth() - 1 : 0;
+            int lastDay = month == toMonth ? to.getDayOfMonth() - 1 : MonthBucket.DAYS - 1;
+            if (firstDay == 0 && (lastDay == MonthBucket.DAYS - 1 || lastDay == to.lengthOfMonth() - 1)) {
+                stats.merge(bucket.summary);
+                buckets++;
+            } else {
+                buckets += bucket.addDays(firstDay, lastDay, stats);
+            }
+        }
+        return new Result(stats, buckets);
+    }
+
+    private static int monthKey(LocalDate date) {
+        return date.getYear() * 12 + date.getMonthValue() - 1;
+    }
+
+    record Result(RunningStats stats, int buckets) {
+    }
+
+    private static final class MonthBucket {
+        static final int DAYS = 31;
+        private final double[] rates = new double[DAYS];
+        private int present;
+        private RunningStats summary = new RunningStats();
+
+        void set(int day, double rate) {
+            rates[day] = rate;
+            present |= 1 << day;
+            RunningStats rebuilt = new RunningStats();
+            addDays(0, DAYS - 1, rebuilt);
+            summary = rebuilt;
+        }
+
+        int addDays(int firstDay, int lastDay, RunningStats stats) {
+            int added = 0;
+            for (int day = firstDay; day <= lastDay; day++) {
+                if ((present & (1 << day)) != 0) {
+                    stats.add(rates[day]);
+                    added++;
+                }
+            }
+            return added;
+        }
+    }
+}
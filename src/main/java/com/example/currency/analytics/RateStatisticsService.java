@@ -0,0 +1,152 @@
+package com.example.currency.analytics;
+
+import com.example.currency.dto.RateStatistics;
+import com.example.currency.events.RateChangeEvent;
+import com.example.currency.exception.ApiException;
+import com.example.currency.models.CurrencyRate;
+import com.example.currency.repository.RateHistoryJdbcRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Статистика курсов по периодам из сводок в памяти. После старта история курсов читается один раз
+ * в фоновом потоке, дальше сводки обновляются по событиям {@link RateChangeEvent}, которые публикуются
+ * после записи курсов, массовой загрузки и синхронизации с НБРБ. Запрос за любой период читает
+ * O(число месяцев + 62) сводок, а не строки истории. Неудачная загрузка повторяется с растущей паузой;
+ * до успешной запрос статистики отвечает 503.
+ */
+@Service
+public class RateStatisticsService {
+    private static final Logger logger = LoggerFactory.getLogger(RateStatisticsService.class);
+    private final RateHistoryJdbcRepository rateHistoryJdbcRepository;
+    private final long retryInitialMillis;
+    private final long retryMaxMillis;
+    private final Map<String, RateSeries> series = new ConcurrentHashMap<>();
+    // Изменения, пришедшие во время начальной загрузки: применяются после неё, чтобы загрузка не затёрла
+    // их значениями, прочитанными до фиксации. null, когда загрузка не идёт.
+    private List<CurrencyRate> pending = new ArrayList<>();
+    private volatile boolean ready;
+
+    @Autowired
+    public RateStatisticsService(RateHistoryJdbcRepository rateHistoryJdbcRepository,
+                                 @Value("${stats.load.retry-initial:1s}") Duration retryInitial,
+                                 @Value("${stats.load.retry-max:1m}") Duration retryMax) {
+        this.rateHistoryJdbcRepository = rateHistoryJdbcRepository;
+        this.retryInitialMillis = Math.max(1, retryInitial.toMillis());
+        this.retryMaxMillis = Math.max(retryInitialMillis, retryMax.toMillis());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread loader = new Thread(this::loadWithRetry, "rate-stats-load");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    void loadWithRetry() {
+        long delay = retryInitialMillis;
+        while (!load()) {
+            logger.warn("Повторная загрузка истории курсов для статистики через {} мс", delay);
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            delay = Math.min(delay * 2, retryMaxMillis);
+        }
+    }
+
+    // Изменения, накопленные до неудачной попытки, остаются в pending и применяются после следующей.
+    boolean load() {
+        long start = System.nanoTime();
+        int[] rows = new int[1];
+        try {
+            rateHistoryJdbcRepository.forEach(row -> {
+                if (row.getRate() != null) {
+                    seriesOf(row.getAbbreviation()).set(row.getDate(), row.getRate().doubleValue());
+                    rows[0]++;
+                }
+            });
+        } catch (RuntimeException e) {
+            logger.error("Не удалось загрузить историю курсов для статистики: {}", e.getMessage(), e);
+            series.clear();
+            return false;
+        }
+        synchronized (this) {
+            apply(pending);
+            pending = null;
+            ready = true;
+        }
+        logger.info("Сводки статистики курсов построены: {} валют, {} строк истории за {} мс", series.size(),
+                rows[0], (System.nanoTime() - start) / 1_000_000);
+        return true;
+    }
+
+    @EventListener
+    public void onRateChange(RateChangeEvent event) {
+        if (event.getType() == RateChangeEvent.Type.DELETED) {
+            // Удаляется текущий курс, история остаётся.
+            return;
+        }
+        if (!ready) {
+            synchronized (this) {
+                if (!ready) {
+                    if (pending != null) {
+                        pending.addAll(event.getRates());
+                    }
+                    return;
+                }
+            }
+        }
+        apply(event.getRates());
+    }
+
+    public RateStatistics getStatistics(String abbreviation, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new ApiException("Дата начала периода позже даты окончания", HttpStatus.BAD_REQUEST);
+        }
+        if (!ready) {
+            throw new ApiException("Статистика курсов ещё не построена", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        RateSeries rates = series.get(abbreviation.toUpperCase(Locale.ROOT));
+        if (rates == null) {
+            return new RateStatistics(abbreviation, from, to, 0, null, null, null, null, 0);
+        }
+        RateSeries.Result result = rates.stats(from, to);
+        RunningStats stats = result.stats();
+        if (stats.count() == 0) {
+            return new RateStatistics(abbreviation, from, to, 0, null, null, null, null, result.buckets());
+        }
+        return new RateStatistics(abbreviation, from, to, stats.count(), stats.min(), stats.max(), stats.mean(),
+                stats.stdDev(), result.buckets());
+    }
+
+    private void apply(List<CurrencyRate> rates) {
+        for (CurrencyRate rate : rates) {
+            BigDecimal value = rate.getRate();
+            if (rate.getAbbreviation() != null && rate.getDate() != null && value != null) {
+                seriesOf(rate.getAbbreviation()).set(rate.getDate(), value.doubleValue());
+            }
+        }
+    }
+
+    private RateSeries seriesOf(String abbreviation) {
+        return series.computeIfAbsent(abbreviation.toUpperCase(Locale.ROOT), key -> new RateSeries());
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.currency.analytics;
+
+/**
+ * Потоковые min, max, среднее и дисперсия по алгоритму Уэлфорда. Два накопителя объединяются формулой
+ * Чана без повторного прохода по значениям, поэтому статистика периода собирается из готовых сводок.
+ */
+final class RunningStats {
+    private long count;
+    private double mean;
+    private double m2;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    void add(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    void merge(RunningStats other) {
+        if (other.count == 0) {
+            return;
+        }
+        if (count == 0) {
+            count = other.count;
+            mean = other.mean;
+            m2 = other.m2;
+            min = other.min;
+            max = other.max;
+            return;
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        m2 += other.m2 + delta * delta * count * other.count / total;
+        count = total;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    long count() {
+        return count;
+    }
+
+    double mean() {
+        return mean;
+    }
+
+    double min() {
+        return min;
+    }
+
+    double max() {
+        return max;
+    }
+
+    /**
+     * Выборочное стандартное отклонение; для одного значения — 0.
+     */
+    double stdDev() {
+        return count > 1 ? Math.sqrt(m2 / (count - 1)) : 0;
+    }
+}
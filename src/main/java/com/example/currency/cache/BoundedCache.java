@@ -0,0 +1,284 @@
+package com.example.currency.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Потокобезопасный кэш с ограничением размера, TTL и вытеснением давно не используемых записей.
+ * Загрузка через {@link #get(Object, Function)} выполняется одним потоком на ключ,
+ * остальные конкурентные запросы того же ключа ждут её результата. Запись и инвалидация увеличивают
+ * поколение ключа; загрузка, во время которой поколение сменилось, возвращает значение, но не кэширует его,
+ * чтобы прочитанные до записи данные не перекрыли свежие.
+ * Помимо числа записей кэш может ограничивать суммарный вес значений (например, оценку занимаемой памяти);
+ * без весовой функции каждая запись весит 1.
+ */
+public class BoundedCache<K, V> {
+    private static final Logger logger = LoggerFactory.getLogger(BoundedCache.class);
+    private static final long NEVER = Long.MAX_VALUE;
+    // Поколения хранятся по полосам хэша ключа: память не растёт с числом ключей, а совпадение полосы
+    // лишь изредка оставляет загруженное значение некэшированным.
+    private static final int GENERATION_STRIPES = 64;
+    private static final long ANY_GENERATION = -1;
+
+    private final String name;
+    private final int maxSize;
+    private final long maxWeight;
+    private final ToLongFunction<? super V> weigher;
+    private final long ttlNanos;
+    private final ConcurrentHashMap<K, Entry<V>> entries;
+    private final ConcurrentHashMap<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final AtomicLong weight = new AtomicLong();
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public BoundedCache(String name, int maxSize, Duration ttl) {
+        this(name, maxSize, maxSize, ttl, value -> 1);
+    }
+
+    public BoundedCache(String name, int maxSize, long maxWeight, Duration ttl, ToLongFunction<? super V> weigher) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache max size must be positive: " + maxSize);
+        }
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("Cache max weight must be positive: " + maxWeight);
+        }
+        this.name = name;
+        this.maxSize = maxSize;
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new ConcurrentHashMap<>(Math.min(maxSize, 1024));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public V getIfPresent(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        long now = System.nanoTime();
+        if (entry.isExpired(now)) {
+            if (remove(key, entry)) {
+                expirations.increment();
+            }
+            misses.increment();
+            return null;
+        }
+        entry.lastAccess = now;
+        hits.increment();
+        return entry.value;
+    }
+
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        V cached = getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        CompletableFuture<V> own = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = loading.putIfAbsent(key, own);
+        if (inFlight != null) {
+            return await(inFlight);
+        }
+        try {
+            long generation = generations.get(stripe(key));
+            V value = peek(key);
+            if (value == null) {
+                value = loader.apply(key);
+                loads.increment();
+                if (value != null) {
+                    install(key, value, generation);
+                }
+            }
+            own.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            loadFailures.increment();
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, own);
+        }
+    }
+
+    /**
+     * Значение тяжелее всего допустимого веса не кэшируется: прежняя запись по ключу удаляется.
+     */
+    public void put(K key, V value) {
+        generations.incrementAndGet(stripe(key));
+        if (!install(key, value, ANY_GENERATION)) {
+            invalidate(key);
+        }
+    }
+
+    public void invalidate(K key) {
+        generations.incrementAndGet(stripe(key));
+        Entry<V> removed = entries.remove(key);
+        if (removed != null) {
+            weight.addAndGet(-removed.weight);
+        }
+    }
+
+    public void invalidateAll() {
+        for (int i = 0; i < GENERATION_STRIPES; i++) {
+            generations.incrementAndGet(i);
+        }
+        for (K key : entries.keySet()) {
+            Entry<V> removed = entries.remove(key);
+            if (removed != null) {
+                weight.addAndGet(-removed.weight);
+            }
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long weight() {
+        return weight.get();
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(name, entries.size(), maxSize, weight.get(), maxWeight, hits.sum(), misses.sum(),
+                loads.sum(), loadFailures.sum(), evictions.sum(), expirations.sum());
+    }
+
+    // Поколение сверяется под блокировкой ключа: запись, увеличившая его раньше, уже не будет перекрыта,
+    // а начавшаяся позже сама заменит или удалит вставленное значение.
+    private boolean install(K key, V value, long expectedGeneration) {
+        long entryWeight = weigher.applyAsLong(value);
+        if (entryWeight > maxWeight) {
+            return false;
+        }
+        long now = System.nanoTime();
+        Entry<V> entry = new Entry<>(value, now, ttlNanos > 0 ? now + ttlNanos : NEVER, entryWeight);
+        long[] delta = new long[1];
+        entries.compute(key, (k, previous) -> {
+            if (expectedGeneration != ANY_GENERATION && generations.get(stripe(k)) != expectedGeneration) {
+                return previous;
+            }
+            delta[0] = previous != null ? entryWeight - previous.weight : entryWeight;
+            return entry;
+        });
+        long total = weight.addAndGet(delta[0]);
+        if (entries.size() > maxSize || total > maxWeight) {
+            evict();
+        }
+        return true;
+    }
+
+    private static int stripe(Object key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & (GENERATION_STRIPES - 1);
+    }
+
+    private boolean remove(K key, Entry<V> entry) {
+        if (entries.remove(key, entry)) {
+            weight.addAndGet(-entry.weight);
+            return true;
+        }
+        return false;
+    }
+
+    private V peek(K key) {
+        Entry<V> entry = entries.get(key);
+        return entry != null && !entry.isExpired(System.nanoTime()) ? entry.value : null;
+    }
+
+    private V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // Вытесняем пачкой до 90% ёмкости и веса, чтобы сортировка по времени доступа амортизировалась на много вставок.
+    private void evict() {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long now = System.nanoTime();
+            List<Candidate<K, V>> candidates = new ArrayList<>(entries.size());
+            for (Map.Entry<K, Entry<V>> e : entries.entrySet()) {
+                Entry<V> entry = e.getValue();
+                if (entry.isExpired(now)) {
+                    if (remove(e.getKey(), entry)) {
+                        expirations.increment();
+                    }
+                } else {
+                    candidates.add(new Candidate<>(e.getKey(), entry, entry.lastAccess));
+                }
+            }
+            int targetSize = maxSize - maxSize / 10;
+            long targetWeight = maxWeight - maxWeight / 10;
+            if (entries.size() <= targetSize && weight.get() <= targetWeight) {
+                return;
+            }
+            candidates.sort(Comparator.comparingLong(Candidate::lastAccess));
+            int removed = 0;
+            for (int i = 0; i < candidates.size()
+                    && (entries.size() > targetSize || weight.get() > targetWeight); i++) {
+                Candidate<K, V> c = candidates.get(i);
+                if (remove(c.key(), c.entry())) {
+                    removed++;
+                }
+            }
+            evictions.add(removed);
+            logger.debug("Cache {}: evicted {} entries", name, removed);
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private record Candidate<K, V>(K key, Entry<V> entry, long lastAccess) {
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+        private final long weight;
+        private volatile long lastAccess;
+
+        private Entry(V value, long now, long expiresAt, long weight) {
+            this.value = value;
+            this.weight = weight;
+            this.lastAccess = now;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return expiresAt != NEVER && now - expiresAt >= 0;
+        }
+    }
+}
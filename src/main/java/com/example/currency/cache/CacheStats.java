@@ -0,0 +1,38 @@
+package com.example.currency.cache;
+
+import lombok.Getter;
+
+@Getter
+public class CacheStats {
+    private final String name;
+    private final int size;
+    private final int maxSize;
+    private final long weight;
+    private final long maxWeight;
+    private final long hits;
+    private final long misses;
+    private final long loads;
+    private final long loadFailures;
+    private final long evictions;
+    private final long expirations;
+
+    public CacheStats(String name, int size, int maxSize, long weight, long maxWeight, long hits, long misses,
+                      long loads, long loadFailures, long evictions, long expirations) {
+        this.name = name;
+        this.size = size;
+        this.maxSize = maxSize;
+        this.weight = weight;
+        this.maxWeight = maxWeight;
+        this.hits = hits;
+        this.misses = misses;
+        this.loads = loads;
+        this.loadFailures = loadFailures;
+        this.evictions = evictions;
+        this.expirations = expirations;
+    }
+
+    public double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.currency.cache;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Версия набора данных: счётчик изменений и время последнего изменения, увеличиваемые при каждой записи.
+ * Метка читается одним атомарным значением, чтобы ETag и Last-Modified всегда соответствовали друг другу.
+ */
+public final class DataVersion {
+    private final String name;
+    private final String bootId;
+    private final AtomicReference<Stamp> current;
+
+    DataVersion(String name, String bootId, Instant startedAt) {
+        this.name = name;
+        this.bootId = bootId;
+        this.current = new AtomicReference<>(new Stamp(0, truncate(startedAt)));
+    }
+
+    public Stamp current() {
+        return current.get();
+    }
+
+    public void bump() {
+        long now = truncate(Instant.now());
+        current.updateAndGet(stamp -> new Stamp(stamp.version() + 1, Math.max(now, stamp.lastModified())));
+    }
+
+    /**
+     * Сильный ETag для текущей версии. Идентификатор запуска не даёт старым ETag совпасть
+     * с обнулившимся после перезапуска счётчиком; variant различает представления одного URL.
+     */
+    public String etag(Stamp stamp, String variant) {
+        return "\"" + name + "-" + bootId + "-" + stamp.version() + (variant.isEmpty() ? "" : "-" + variant) + "\"";
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // Last-Modified передаётся с точностью до секунды.
+    private static long truncate(Instant instant) {
+        return instant.truncatedTo(ChronoUnit.SECONDS).toEpochMilli();
+    }
+
+    public record Stamp(long version, long lastModified) {
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.currency.cache;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Версии курсов и справочника валют. Сервисы увеличивают их после каждой записи,
+ * контроллеры строят по ним ETag и Last-Modified для условных запросов.
+ */
+@Component
+public class DataVersions {
+    private final DataVersion rates;
+    private final DataVersion currencies;
+
+    public DataVersions() {
+        Instant startedAt = Instant.now();
+        String bootId = Long.toString(startedAt.toEpochMilli(), 36);
+        this.rates = new DataVersion("rates", bootId, startedAt);
+        this.currencies = new DataVersion("currencies", bootId, startedAt);
+    }
+
+    public DataVersion rates() {
+        return rates;
+    }
+
+    public DataVersion currencies() {
+        return currencies;
+    }
+}
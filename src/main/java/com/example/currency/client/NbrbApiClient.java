@@ -5,15 +5,19 @@ import com.example.currency.models.CurrencyInfo;
 import com.example.currency.models.CurrencyRate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
@@ -21,19 +25,27 @@ import java.util.Objects;
 @Component
 public class NbrbApiClient {
     private static final Logger logger = LoggerFactory.getLogger(NbrbApiClient.class);
-    private static final String API_BASE_URL = "https://api.nbrb.by/exrates/";
     private final RestTemplate restTemplate;
+    private final String apiBaseUrl;
 
-    public NbrbApiClient(RestTemplateBuilder restTemplateBuilder) {
-        this.restTemplate = restTemplateBuilder.build();
+    public NbrbApiClient(RestTemplateBuilder restTemplateBuilder,
+                         HttpClient nbrbHttpClient,
+                         @Value("${nbrb.api.base-url:https://api.nbrb.by/exrates/}") String apiBaseUrl,
+                         @Value("${nbrb.api.read-timeout:5s}") Duration readTimeout) {
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(nbrbHttpClient);
+        requestFactory.setReadTimeout(readTimeout);
+        this.restTemplate = restTemplateBuilder.requestFactory(() -> requestFactory).build();
+        this.apiBaseUrl = apiBaseUrl.endsWith("/") ? apiBaseUrl : apiBaseUrl + "/";
     }
 
     public List<CurrencyInfo> getAllCurrencies() {
-        String url = API_BASE_URL + "currencies";
+        String url = apiBaseUrl + "currencies";
         try {
             logger.info("Fetching all currencies from API: {}", url);
-            ResponseEntity<CurrencyInfo[]> response = restTemplate.getForEntity(url, CurrencyInfo[].class);
-            List<CurrencyInfo> currencies = Arrays.asList(Objects.requireNonNull(response.getBody()));
+            ResponseEntity<NbrbCurrency[]> response = restTemplate.getForEntity(url, NbrbCurrency[].class);
+            List<CurrencyInfo> currencies = Arrays.stream(Objects.requireNonNull(response.getBody()))
+                    .map(NbrbCurrency::toCurrencyInfo)
+                    .toList();
             logger.info("Successfully fetched {} currencies", currencies.size());
             return currencies;
         } catch (HttpClientErrorException e) {
@@ -49,10 +61,10 @@ public class NbrbApiClient {
     }
 
     public CurrencyRate getCurrencyRate(Integer curId) {
-        String url = API_BASE_URL + "rates/" + curId;
+        String url = apiBaseUrl + "rates/" + curId;
         try {
             logger.info("Fetching currency rate for ID: {} from API: {}", curId, url);
-            CurrencyRate rate = restTemplate.getForObject(url, CurrencyRate.class);
+            CurrencyRate rate = Objects.requireNonNull(restTemplate.getForObject(url, NbrbRate.class)).toCurrencyRate();
             logger.info("Successfully fetched rate for currency ID: {}", curId);
             return rate;
         } catch (HttpClientErrorException e) {
@@ -66,4 +78,25 @@ public class NbrbApiClient {
             throw new ApiException("Unexpected error fetching rate for currency ID " + curId + ": " + e.getMessage(), e, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
+
+    public List<NbrbRate> getAllRates() {
+        String url = apiBaseUrl + "rates?periodicity=0";
+        try {
+            logger.info("Fetching daily rates from API: {}", url);
+            ResponseEntity<NbrbRate[]> response = restTemplate.getForEntity(url, NbrbRate[].class);
+            List<NbrbRate> rates = Arrays.asList(Objects.requireNonNull(response.getBody()));
+            logger.info("Successfully fetched {} daily rates", rates.size());
+            return rates;
+        } catch (HttpClientErrorException e) {
+            logger.error("Client error fetching daily rates from API: {}", e.getMessage());
+            throw new ApiException("Failed to fetch daily rates: " + e.getMessage(), e, HttpStatus.BAD_REQUEST);
+        } catch (HttpServerErrorException e) {
+            logger.error("Server error fetching daily rates from API: {}", e.getMessage());
+            throw new ApiException("API server error: " + e.getMessage(), e, HttpStatus.INTERNAL_SERVER_ERROR);
+        } catch (RestClientException e) {
+            logger.error("Unexpected error fetching daily rates from API: {}", e.getMessage());
+            throw new ApiException("Unexpected error fetching daily rates: " + e.getMessage(), e,
+                    HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,163 @@
+package com.example.currency.client;
+
+import com.example.currency.exception.ApiException;
+import com.example.currency.models.CurrencyRate;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Неблокирующий клиент НБРБ. Одновременные запросы курса одной валюты объединяются в один вызов API.
+ */
+@Component
+public class NbrbAsyncClient {
+    private static final Logger logger = LoggerFactory.getLogger(NbrbAsyncClient.class);
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final String apiBaseUrl;
+    private final Duration readTimeout;
+    private final int maxConcurrency;
+    private final ConcurrentHashMap<Integer, CompletableFuture<CurrencyRate>> inFlight = new ConcurrentHashMap<>();
+
+    public NbrbAsyncClient(HttpClient nbrbHttpClient,
+                           ObjectMapper objectMapper,
+                           @Value("${nbrb.api.base-url:https://api.nbrb.by/exrates/}") String apiBaseUrl,
+                           @Value("${nbrb.api.read-timeout:5s}") Duration readTimeout,
+                           @Value("${nbrb.api.max-concurrency:8}") int maxConcurrency) {
+        this.httpClient = nbrbHttpClient;
+        this.objectMapper = objectMapper;
+        this.apiBaseUrl = apiBaseUrl.endsWith("/") ? apiBaseUrl : apiBaseUrl + "/";
+        this.readTimeout = readTimeout;
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+    }
+
+    public CompletableFuture<CurrencyRate> getCurrencyRateAsync(Integer curId) {
+        CompletableFuture<CurrencyRate> existing = inFlight.get(curId);
+        if (existing != null) {
+            return existing.copy();
+        }
+        CompletableFuture<CurrencyRate> created = new CompletableFuture<>();
+        existing = inFlight.putIfAbsent(curId, created);
+        if (existing != null) {
+            return existing.copy();
+        }
+        fetchRate(curId).whenComplete((rate, error) -> {
+            inFlight.remove(curId, created);
+            if (error != null) {
+                created.completeExceptionally(unwrap(error));
+            } else {
+                created.complete(rate);
+            }
+        });
+        return created.copy();
+    }
+
+    /**
+     * Загружает курсы нескольких валют, держа в полёте не более {@code nbrb.api.max-concurrency} запросов.
+     * Результат упорядочен так же, как переданные ID.
+     */
+    public CompletableFuture<Map<Integer, CurrencyRate>> getCurrencyRatesAsync(Collection<Integer> curIds) {
+        List<Integer> ids = new ArrayList<>(new LinkedHashSet<>(curIds));
+        Map<Integer, CurrencyRate> fetched = new ConcurrentHashMap<>();
+        AtomicInteger next = new AtomicInteger();
+        int workers = Math.min(maxConcurrency, ids.size());
+        CompletableFuture<?>[] lanes = new CompletableFuture<?>[workers];
+        for (int i = 0; i < workers; i++) {
+            lanes[i] = fetchNext(ids, next, fetched);
+        }
+        return CompletableFuture.allOf(lanes).thenApply(ignored -> {
+            Map<Integer, CurrencyRate> ordered = new LinkedHashMap<>();
+            for (Integer id : ids) {
+                ordered.put(id, fetched.get(id));
+            }
+            return ordered;
+        });
+    }
+
+    private CompletableFuture<Void> fetchNext(List<Integer> ids, AtomicInteger next,
+                                              Map<Integer, CurrencyRate> fetched) {
+        int index = next.getAndIncrement();
+        if (index >= ids.size()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        Integer curId = ids.get(index);
+        return getCurrencyRateAsync(curId).thenCompose(rate -> {
+            if (rate != null) {
+                fetched.put(curId, rate);
+            }
+            return fetchNext(ids, next, fetched);
+        });
+    }
+
+    private CompletableFuture<CurrencyRate> fetchRate(Integer curId) {
+        String url = apiBaseUrl + "rates/" + curId;
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(readTimeout)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+        logger.debug("Fetching currency rate for ID: {} from API: {}", curId, url);
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(response -> toCurrencyRate(curId, response))
+                .exceptionally(error -> {
+                    throw translate(curId, unwrap(error));
+                });
+    }
+
+    private CurrencyRate toCurrencyRate(Integer curId, HttpResponse<byte[]> response) {
+        int status = response.statusCode();
+        if (status >= 400 && status < 500) {
+            throw new ApiException("Failed to fetch rate for currency ID " + curId + ": HTTP " + status,
+                    HttpStatus.BAD_REQUEST);
+        }
+        if (status >= 500) {
+            throw new ApiException("API server error for currency ID " + curId + ": HTTP " + status,
+                    HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+        try {
+            return objectMapper.readValue(response.body(), NbrbRate.class).toCurrencyRate();
+        } catch (IOException e) {
+            throw new ApiException("Malformed rate response for currency ID " + curId + ": " + e.getMessage(), e,
+                    HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    private static ApiException translate(Integer curId, Throwable error) {
+        if (error instanceof ApiException apiException) {
+            return apiException;
+        }
+        if (error instanceof HttpTimeoutException) {
+            logger.error("Timeout fetching rate for currency ID {}: {}", curId, error.getMessage());
+            return new ApiException("Timeout fetching rate for currency ID " + curId, error,
+                    HttpStatus.GATEWAY_TIMEOUT);
+        }
+        logger.error("Unexpected error fetching rate for currency ID {}: {}", curId, error.getMessage());
+        return new ApiException("Unexpected error fetching rate for currency ID " + curId + ": " + error.getMessage(),
+                error, HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+}
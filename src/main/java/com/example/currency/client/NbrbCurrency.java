@@ -0,0 +1,25 @@
+package com.example.currency.client;
+
+import com.example.currency.models.CurrencyInfo;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+/**
+ * Валюта в формате ответа НБРБ ({@code /exrates/currencies}).
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class NbrbCurrency {
+    @JsonProperty("Cur_ID")
+    private Integer curId;
+    @JsonProperty("Cur_Abbreviation")
+    private String abbreviation;
+
+    public CurrencyInfo toCurrencyInfo() {
+        CurrencyInfo info = new CurrencyInfo();
+        info.setId(curId);
+        info.setAbbreviation(abbreviation);
+        return info;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.currency.client;
+
+import com.example.currency.models.CurrencyRate;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.time.LocalDateTime;
+
+/**
+ * Курс в формате ответа НБРБ ({@code /exrates/rates}). Официальный курс указан за {@code Cur_Scale} единиц валюты.
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class NbrbRate {
+    @JsonProperty("Cur_ID")
+    private Integer curId;
+    @JsonProperty("Date")
+    private LocalDateTime date;
+    @JsonProperty("Cur_Abbreviation")
+    private String abbreviation;
+    @JsonProperty("Cur_Scale")
+    private Integer scale;
+    @JsonProperty("Cur_Name")
+    private String name;
+    @JsonProperty("Cur_OfficialRate")
+    private BigDecimal officialRate;
+
+    public CurrencyRate toCurrencyRate() {
+        CurrencyRate rate = new CurrencyRate();
+        rate.setId(curId.longValue());
+        rate.setAbbreviation(abbreviation);
+        rate.setDate(date != null ? date.toLocalDate() : null);
+        rate.setRate(perUnitRate());
+        return rate;
+    }
+
+    private BigDecimal perUnitRate() {
+        if (officialRate == null || scale == null || scale <= 1) {
+            return officialRate;
+        }
+        return officialRate.divide(BigDecimal.valueOf(scale), MathContext.DECIMAL64).stripTrailingZeros();
+    }
+}
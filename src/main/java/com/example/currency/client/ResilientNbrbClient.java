@@ -0,0 +1,179 @@
+package com.example.currency.client;
+
+import com.example.currency.exception.ApiException;
+import com.example.currency.models.CurrencyInfo;
+import com.example.currency.models.CurrencyRate;
+import com.example.currency.resilience.CircuitBreaker;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Устойчивый доступ к НБРБ: отдаёт последнее удачное значение сразу, обновляя устаревшее в фоне
+ * (stale-while-revalidate), и закрывает upstream предохранителем при серии ошибок или медленных ответов.
+ * Запоминаются только удачные ответы и не больше {@code nbrb.resilience.max-entries} курсов: ID приходят
+ * от клиентов, поэтому без ограничения таблица росла бы с каждым новым ID.
+ */
+@Component
+public class ResilientNbrbClient {
+    private static final Logger logger = LoggerFactory.getLogger(ResilientNbrbClient.class);
+    private static final String ALL_CURRENCIES_KEY = "all";
+
+    private final NbrbApiClient nbrbApiClient;
+    private final NbrbAsyncClient nbrbAsyncClient;
+    private final CircuitBreaker circuitBreaker;
+    private final long freshNanos;
+    private final long maxStaleNanos;
+    private final int maxEntries;
+    private final ExecutorService refreshExecutor = Executors.newFixedThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "nbrb-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ConcurrentHashMap<String, StaleValue<List<CurrencyInfo>>> currencies = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, StaleValue<CurrencyRate>> rates = new ConcurrentHashMap<>();
+    private final LongAdder staleServed = new LongAdder();
+    private final AtomicLong lastStaleAgeMillis = new AtomicLong();
+
+    public ResilientNbrbClient(NbrbApiClient nbrbApiClient,
+                               NbrbAsyncClient nbrbAsyncClient,
+                               @Value("${nbrb.resilience.fresh-ttl:1m}") Duration freshTtl,
+                               @Value("${nbrb.resilience.max-stale:24h}") Duration maxStale,
+                               @Value("${nbrb.resilience.failure-threshold:5}") int failureThreshold,
+                               @Value("${nbrb.resilience.slow-call-threshold:2s}") Duration slowCallThreshold,
+                               @Value("${nbrb.resilience.open-duration:30s}") Duration openDuration,
+                               @Value("${nbrb.resilience.max-entries:1000}") int maxEntries) {
+        this.nbrbApiClient = nbrbApiClient;
+        this.nbrbAsyncClient = nbrbAsyncClient;
+        this.freshNanos = freshTtl.toNanos();
+        this.maxStaleNanos = maxStale.toNanos();
+        this.maxEntries = maxEntries;
+        this.circuitBreaker = new CircuitBreaker("nbrb", failureThreshold, slowCallThreshold, openDuration);
+    }
+
+    public CompletableFuture<List<CurrencyInfo>> getAllCurrencies() {
+        return read(currencies, ALL_CURRENCIES_KEY,
+                () -> CompletableFuture.supplyAsync(nbrbApiClient::getAllCurrencies, refreshExecutor));
+    }
+
+    public CompletableFuture<CurrencyRate> getCurrencyRate(Integer curId) {
+        return read(rates, curId, () -> nbrbAsyncClient.getCurrencyRateAsync(curId));
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public long getStaleServedCount() {
+        return staleServed.sum();
+    }
+
+    public long getLastStaleAgeMillis() {
+        return lastStaleAgeMillis.get();
+    }
+
+    public int getCachedEntryCount() {
+        return currencies.size() + rates.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    private <K, T> CompletableFuture<T> read(ConcurrentHashMap<K, StaleValue<T>> store, K key,
+                                             Supplier<CompletableFuture<T>> loader) {
+        StaleValue<T> cached = store.get(key);
+        if (cached != null) {
+            long age = System.nanoTime() - cached.fetchedAt;
+            if (age < freshNanos) {
+                return CompletableFuture.completedFuture(cached.value);
+            }
+            if (age < maxStaleNanos) {
+                staleServed.increment();
+                lastStaleAgeMillis.set(age / 1_000_000);
+                if (cached.refreshing.compareAndSet(false, true)) {
+                    call(loader).whenComplete((value, error) -> {
+                        if (error == null) {
+                            remember(store, key, value);
+                        } else {
+                            cached.refreshing.set(false);
+                            logger.warn("Background refresh of {} failed: {}", key, unwrap(error).getMessage());
+                        }
+                    });
+                }
+                return CompletableFuture.completedFuture(cached.value);
+            }
+            // Слишком старое значение бесполезно и как запасное: освобождаем место.
+            store.remove(key, cached);
+        }
+        return call(loader).thenApply(value -> {
+            remember(store, key, value);
+            return value;
+        });
+    }
+
+    // Новый ключ при заполненной таблице не запоминается: значение отдаётся вызывающему, но без запасной копии.
+    private <K, T> void remember(ConcurrentHashMap<K, StaleValue<T>> store, K key, T value) {
+        if (value == null || (store.size() >= maxEntries && !store.containsKey(key))) {
+            return;
+        }
+        store.put(key, new StaleValue<>(value));
+    }
+
+    private <T> CompletableFuture<T> call(Supplier<CompletableFuture<T>> loader) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            return CompletableFuture.failedFuture(new ApiException(
+                    "NBRB API is temporarily unavailable", HttpStatus.SERVICE_UNAVAILABLE));
+        }
+        long start = System.nanoTime();
+        CompletableFuture<T> result;
+        try {
+            result = loader.get();
+        } catch (RuntimeException e) {
+            circuitBreaker.onFailure();
+            return CompletableFuture.failedFuture(e);
+        }
+        return result.whenComplete((value, error) -> {
+            if (error == null || isClientError(unwrap(error))) {
+                circuitBreaker.onSuccess(System.nanoTime() - start);
+            } else {
+                circuitBreaker.onFailure();
+            }
+        });
+    }
+
+    private static boolean isClientError(Throwable error) {
+        return error instanceof ApiException apiException && apiException.getStatus().is4xxClientError();
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private static final class StaleValue<T> {
+        private final T value;
+        private final long fetchedAt = System.nanoTime();
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        private StaleValue(T value) {
+            this.value = value;
+        }
+    }
+}
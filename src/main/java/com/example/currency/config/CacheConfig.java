@@ -0,0 +1,55 @@
+package com.example.currency.config;
+
+import com.example.currency.cache.BoundedCache;
+import com.example.currency.models.CurrencyInfo;
+import com.example.currency.models.CurrencyRate;
+import com.example.currency.snapshot.RateSnapshot;
+import com.example.currency.web.SerializedBody;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+@Configuration
+public class CacheConfig {
+
+    @Bean
+    public BoundedCache<Integer, CurrencyInfo> currencyInfoCache(
+            @Value("${cache.currency-info.max-size:1000}") int maxSize,
+            @Value("${cache.currency-info.ttl:10m}") Duration ttl) {
+        return new BoundedCache<>("currency-info", maxSize, ttl);
+    }
+
+    @Bean
+    public BoundedCache<String, List<CurrencyInfo>> currencyListCache(
+            @Value("${cache.currency-list.ttl:10m}") Duration ttl) {
+        return new BoundedCache<>("currency-list", 1, ttl);
+    }
+
+    @Bean
+    public BoundedCache<Long, CurrencyRate> currencyRateCache(
+            @Value("${cache.currency-rate.max-size:5000}") int maxSize,
+            @Value("${cache.currency-rate.ttl:5m}") Duration ttl) {
+        return new BoundedCache<>("currency-rate", maxSize, ttl);
+    }
+
+    @Bean
+    public BoundedCache<LocalDate, RateSnapshot> historicalRateCache(
+            @Value("${cache.historical-rates.max-size:1000}") int maxSize,
+            @Value("${cache.historical-rates.max-memory:32MB}") DataSize maxMemory,
+            @Value("${cache.historical-rates.ttl:1h}") Duration ttl) {
+        return new BoundedCache<>("historical-rates", maxSize, maxMemory.toBytes(), ttl, RateSnapshot::estimatedBytes);
+    }
+
+    @Bean
+    public BoundedCache<String, SerializedBody> serializedBodyCache(
+            @Value("${cache.response-body.max-size:10000}") int maxSize,
+            @Value("${cache.response-body.max-memory:64MB}") DataSize maxMemory,
+            @Value("${cache.response-body.ttl:10m}") Duration ttl) {
+        return new BoundedCache<>("response-body", maxSize, maxMemory.toBytes(), ttl, SerializedBody::estimatedBytes);
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.currency.config;
+
+import com.example.currency.datasource.ReadWriteRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Разделение чтения и записи: при {@code datasource.routing.enabled=true} вместо одного пула создаются
+ * пул основной базы из {@code spring.datasource.*} и по пулу на каждый адрес {@code datasource.replica.urls}.
+ * Без реплик все соединения идут на основную базу. Метрики пулов публикуются как {@code hikaricp.*}
+ * с тегом {@code pool}: {@code primary}, {@code replica-0}, {@code replica-1}...
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.routing.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource(
+            DataSourceProperties properties,
+            MeterRegistry meterRegistry,
+            @Value("${datasource.replica.urls:}") List<String> replicaUrls,
+            @Value("${datasource.replica.username:${spring.datasource.username:}}") String replicaUsername,
+            @Value("${datasource.replica.password:${spring.datasource.password:}}") String replicaPassword,
+            @Value("${datasource.primary.pool-size:10}") int primaryPoolSize,
+            @Value("${datasource.replica.pool-size:10}") int replicaPoolSize,
+            @Value("${datasource.routing.sticky-window:2s}") Duration stickyWindow) {
+        MicrometerMetricsTrackerFactory metrics = new MicrometerMetricsTrackerFactory(meterRegistry);
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName(ReadWriteRoutingDataSource.PRIMARY);
+        primary.setMaximumPoolSize(primaryPoolSize);
+        primary.setMetricsTrackerFactory(metrics);
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String url : replicaUrls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + replicas.size());
+            replica.setJdbcUrl(url.trim());
+            replica.setUsername(replicaUsername);
+            replica.setPassword(replicaPassword);
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setMaximumPoolSize(replicaPoolSize);
+            replica.setReadOnly(true);
+            replica.setMetricsTrackerFactory(metrics);
+            replicas.put(replica.getPoolName(), replica);
+        }
+        return new ReadWriteRoutingDataSource(primary, replicas, stickyWindow);
+    }
+
+    /**
+     * Источник для JPA и JdbcTemplate: соединение берётся из пула только при первом запросе к базе,
+     * когда уже известно, read-only ли транзакция.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Bean
+    public MeterBinder dataSourceRoutingMetrics(ReadWriteRoutingDataSource routingDataSource) {
+        return registry -> {
+            FunctionCounter.builder("datasource.routes", routingDataSource,
+                            ReadWriteRoutingDataSource::getPrimaryRouteCount)
+                    .tag("route", "primary").register(registry);
+            FunctionCounter.builder("datasource.routes", routingDataSource,
+                            ReadWriteRoutingDataSource::getReplicaRouteCount)
+                    .tag("route", "replica").register(registry);
+            FunctionCounter.builder("datasource.sticky.reads", routingDataSource,
+                            ReadWriteRoutingDataSource::getStickyReadCount)
+                    .description("Read-only транзакции, отправленные на основную базу из-за недавней записи")
+                    .register(registry);
+            FunctionCounter.builder("datasource.replica.fallbacks", routingDataSource,
+                            ReadWriteRoutingDataSource::getReplicaFallbackCount)
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.currency.config;
+
+import com.example.currency.admission.AdmissionFilter;
+import com.example.currency.cache.BoundedCache;
+import com.example.currency.client.ResilientNbrbClient;
+import com.example.currency.events.RateStreamBroadcaster;
+import com.example.currency.resilience.CircuitBreaker;
+import com.example.currency.snapshot.RateSnapshotHolder;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.Locale;
+
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder cacheMetrics(List<BoundedCache<?, ?>> caches) {
+        return registry -> {
+            for (BoundedCache<?, ?> cache : caches) {
+                String name = cache.getName();
+                Gauge.builder("cache.size", cache, BoundedCache::size).tag("cache", name).register(registry);
+                Gauge.builder("cache.weight", cache, BoundedCache::weight).tag("cache", name).register(registry);
+                FunctionCounter.builder("cache.gets", cache, c -> c.stats().getHits())
+                        .tag("cache", name).tag("result", "hit").register(registry);
+                FunctionCounter.builder("cache.gets", cache, c -> c.stats().getMisses())
+                        .tag("cache", name).tag("result", "miss").register(registry);
+                FunctionCounter.builder("cache.evictions", cache, c -> c.stats().getEvictions())
+                        .tag("cache", name).register(registry);
+                FunctionCounter.builder("cache.loads", cache, c -> c.stats().getLoads())
+                        .tag("cache", name).register(registry);
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder nbrbClientMetrics(ResilientNbrbClient nbrbClient) {
+        return registry -> {
+            CircuitBreaker breaker = nbrbClient.getCircuitBreaker();
+            Gauge.builder("nbrb.circuit.state", breaker, b -> b.getState().ordinal())
+                    .description("Состояние предохранителя: 0 - замкнут, 1 - разомкнут, 2 - полуоткрыт")
+                    .register(registry);
+            FunctionCounter.builder("nbrb.circuit.rejected", breaker, CircuitBreaker::getRejectedCount)
+                    .register(registry);
+            FunctionCounter.builder("nbrb.circuit.failures", breaker, CircuitBreaker::getFailureCount)
+                    .register(registry);
+            FunctionCounter.builder("nbrb.circuit.slow.calls", breaker, CircuitBreaker::getSlowCallCount)
+                    .register(registry);
+            FunctionCounter.builder("nbrb.stale.served", nbrbClient, ResilientNbrbClient::getStaleServedCount)
+                    .register(registry);
+            Gauge.builder("nbrb.stale.age", nbrbClient, ResilientNbrbClient::getLastStaleAgeMillis)
+                    .baseUnit("milliseconds")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder rateSnapshotMetrics(RateSnapshotHolder rateSnapshotHolder) {
+        return registry -> Gauge.builder("rates.snapshot.version", rateSnapshotHolder,
+                        holder -> holder.peek() != null ? holder.peek().getVersion() : 0)
+                .register(registry);
+    }
+
+    @Bean
+    public MeterBinder rateStreamMetrics(RateStreamBroadcaster broadcaster) {
+        return registry -> {
+            Gauge.builder("sse.subscribers", broadcaster, RateStreamBroadcaster::getSubscriberCount)
+                    .register(registry);
+            FunctionCounter.builder("sse.events.sent", broadcaster, RateStreamBroadcaster::getSentCount)
+                    .register(registry);
+            FunctionCounter.builder("sse.events.dropped", broadcaster, RateStreamBroadcaster::getDroppedCount)
+                    .description("Изменения, вытесненные из буфера медленного подписчика")
+                    .register(registry);
+            FunctionCounter.builder("sse.subscribers.evicted", broadcaster, RateStreamBroadcaster::getEvictedCount)
+                    .description("Подписчики, отключённые из-за зависшей записи")
+                    .register(registry);
+            Gauge.builder("sse.senders.stalled", broadcaster, RateStreamBroadcaster::getStalledSenders)
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder admissionMetrics(AdmissionFilter admissionFilter) {
+        return registry -> {
+            for (AdmissionFilter.RouteClass route : AdmissionFilter.RouteClass.values()) {
+                String routeTag = route.name().toLowerCase(Locale.ROOT);
+                Gauge.builder("admission.in.flight", admissionFilter, f -> f.getInFlight(route))
+                        .tag("route", routeTag).register(registry);
+                for (AdmissionFilter.Reason reason : AdmissionFilter.Reason.values()) {
+                    FunctionCounter.builder("admission.rejections", admissionFilter,
+                                    f -> f.getRejectedCount(route, reason))
+                            .tag("route", routeTag)
+                            .tag("reason", reason.name().toLowerCase(Locale.ROOT).replace('_', '-'))
+                            .register(registry);
+                }
+            }
+            Gauge.builder("admission.clients", admissionFilter, AdmissionFilter::getTrackedClients)
+                    .description("Клиенты с отслеживаемой корзиной токенов")
+                    .register(registry);
+            FunctionCounter.builder("admission.overflow", admissionFilter, AdmissionFilter::getOverflowRequests)
+                    .description("Запросы, учтённые в общей корзине из-за переполнения таблицы клиентов")
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.currency.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+@Configuration
+public class NbrbClientConfig {
+
+    /**
+     * Общий HTTP-клиент для обращений к НБРБ: держит keep-alive пул соединений и используется
+     * как синхронным {@code RestTemplate}, так и асинхронным клиентом.
+     */
+    @Bean
+    public HttpClient nbrbHttpClient(@Value("${nbrb.api.connect-timeout:2s}") Duration connectTimeout) {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.currency.config;
+
+import com.example.currency.web.Cbor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+@Configuration
+public class WireFormatConfig {
+
+    /**
+     * Заменяет стандартный CBOR-конвертер Spring: курсы пишутся фиксированной точкой, даты — номером дня.
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(Cbor.objectMapper(builder));
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.currency.controller;
+
+import com.example.currency.cache.BoundedCache;
+import com.example.currency.cache.CacheStats;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/cache")
+@Tag(name = "Кэш", description = "API для мониторинга кэша")
+public class CacheController {
+    private final List<BoundedCache<?, ?>> caches;
+
+    public CacheController(List<BoundedCache<?, ?>> caches) {
+        this.caches = caches;
+    }
+
+    @Operation(summary = "Получить статистику кэша",
+            description = "Возвращает размер, попадания, промахи и вытеснения по каждому региону кэша.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Статистика успешно получена")
+    })
+    @GetMapping("/stats")
+    public ResponseEntity<List<CacheStats>> getStats() {
+        return ResponseEntity.ok(caches.stream().map(BoundedCache::stats).toList());
+    }
+}
@@ -1,36 +1,102 @@
 package com.example.currency.controller;
 
+import com.example.currency.cache.DataVersions;
+import com.example.currency.dto.BulkReport;
+import com.example.currency.dto.KeysetPage;
+import com.example.currency.exception.ApiException;
 import com.example.currency.models.CurrencyInfo;
+import com.example.currency.service.BulkUpsertService;
 import com.example.currency.service.CurrencyService;
+import com.example.currency.web.ConditionalGet;
+import com.example.currency.web.Ndjson;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
-import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/currency/info")
 @Tag(name = "Информация о валютах", description = "API для управления информацией о валютах")
 public class CurrencyInfoController {
     private final CurrencyService currencyService;
+    private final ObjectMapper objectMapper;
+    private final DataVersions dataVersions;
+    private final ConditionalGet conditionalGet;
+    private final BulkUpsertService bulkUpsertService;
+    private final int maxBulkSize;
 
-    public CurrencyInfoController(CurrencyService currencyService) {
+    public CurrencyInfoController(CurrencyService currencyService, ObjectMapper objectMapper,
+                                  DataVersions dataVersions, ConditionalGet conditionalGet,
+                                  BulkUpsertService bulkUpsertService,
+                                  @Value("${bulk.max-array-size:100000}") int maxBulkSize) {
         this.currencyService = currencyService;
+        this.objectMapper = objectMapper;
+        this.dataVersions = dataVersions;
+        this.conditionalGet = conditionalGet;
+        this.bulkUpsertService = bulkUpsertService;
+        this.maxBulkSize = maxBulkSize;
     }
 
-    @Operation(summary = "Получить все валюты", description = "Извлекает все доступные валюты из кэша или API.")
+    @Operation(summary = "Получить все валюты",
+            description = "Извлекает все доступные валюты. Тело отдаётся готовыми байтами "
+                    + "JSON (gzip при Accept-Encoding: gzip) до следующего изменения "
+                    + "валют. Поддерживает условные запросы по ETag и Last-Modified.")
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "Валюты успешно получены"),
+            @ApiResponse(responseCode = "200", description = "Валюты успешно получены",
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = CurrencyInfo.class)))),
+            @ApiResponse(responseCode = "304", description = "Валюты не изменились"),
             @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера")
     })
     @GetMapping
-    public ResponseEntity<List<CurrencyInfo>> getAllCurrencies() {
-        return ResponseEntity.ok(currencyService.getAllCurrencies());
+    public ResponseEntity<byte[]> getAllCurrencies(WebRequest request) {
+        return conditionalGet.getSerialized(request, dataVersions.currencies(), "all",
+                currencyService::getAllCurrencies);
+    }
+
+    @Operation(summary = "Потоковая выгрузка всех валют",
+            description = "Построчно выдаёт все валюты в формате NDJSON, читая курсор базы данных.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Валюты выгружаются"),
+            @ApiResponse(responseCode = "304", description = "Валюты не изменились")
+    })
+    @GetMapping(produces = Ndjson.MEDIA_TYPE_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamCurrencies(WebRequest request) {
+        return conditionalGet.get(request, dataVersions.currencies(), Ndjson.MEDIA_TYPE,
+                () -> Ndjson.body(objectMapper, currencyService::streamCurrencies));
+    }
+
+    @Operation(summary = "Получить страницу валют",
+            description = "Постраничная выборка валют по ключу: передайте "
+                    + "nextCursor предыдущей страницы в параметре after.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Страница успешно получена"),
+            @ApiResponse(responseCode = "304", description = "Валюты не изменились"),
+            @ApiResponse(responseCode = "400", description = "Некорректный размер страницы")
+    })
+    @GetMapping("/page")
+    public ResponseEntity<KeysetPage<CurrencyInfo>> getCurrenciesPage(
+            @RequestParam(required = false) Integer after,
+            @RequestParam(defaultValue = "100") int limit,
+            WebRequest request) {
+        return conditionalGet.get(request, dataVersions.currencies(),
+                () -> currencyService.getCurrenciesPage(after, limit));
     }
 
     @Operation(summary = "Получить все валюты из базы данных", description = "Извлекает все валюты, хранящиеся в базе данных.")
@@ -45,15 +111,16 @@ public class CurrencyInfoController {
 
     @Operation(summary = "Получить валюту по ID", description = "Извлекает конкретную валюту по её ID.")
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "Валюта успешно получена"),
+            @ApiResponse(responseCode = "200", description = "Валюта успешно получена",
+                    content = @Content(schema = @Schema(implementation = CurrencyInfo.class))),
+            @ApiResponse(responseCode = "304", description = "Валюты не изменились"),
             @ApiResponse(responseCode = "404", description = "Валюта не найдена"),
             @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<CurrencyInfo> getCurrencyById(@PathVariable Integer id) {
-        Optional<CurrencyInfo> currency = currencyService.getCurrencyById(id);
-        return currency.map(ResponseEntity::ok)
-                .orElseGet(() -> ResponseEntity.notFound().build());
+    public ResponseEntity<byte[]> getCurrencyById(@PathVariable Integer id, WebRequest request) {
+        return conditionalGet.getOptionalSerialized(request, dataVersions.currencies(), "id:" + id,
+                () -> currencyService.getCurrencyById(id));
     }
 
     @Operation(summary = "Создать новую валюту", description = "Создаёт новую запись о валюте.")
@@ -68,6 +135,35 @@ public class CurrencyInfoController {
         return ResponseEntity.ok(created);
     }
 
+    @Operation(summary = "Массовая загрузка валют",
+            description = "Вставляет или обновляет валюты из JSON- или CBOR-массива по ID. "
+                    + "Строки пишутся чанками в отдельных транзакциях; некорректные строки "
+                    + "пропускаются и перечисляются в отчёте вместе со временем каждого чанка.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Загрузка выполнена"),
+            @ApiResponse(responseCode = "400", description = "Превышен размер массива")
+    })
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<BulkReport> bulkUpsertCurrencies(@RequestBody List<CurrencyInfo> currencies) {
+        if (currencies.size() > maxBulkSize) {
+            throw new ApiException("Размер массива превышает " + maxBulkSize + ", используйте NDJSON",
+                    HttpStatus.BAD_REQUEST);
+        }
+        return ResponseEntity.ok(bulkUpsertService.upsertCurrencies(currencies.iterator()));
+    }
+
+    @Operation(summary = "Потоковая массовая загрузка валют",
+            description = "Принимает NDJSON-поток валют без ограничения размера и пишет их чанками по мере чтения.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Загрузка выполнена")
+    })
+    @PostMapping(value = "/bulk", consumes = Ndjson.MEDIA_TYPE_VALUE)
+    public ResponseEntity<BulkReport> bulkUpsertCurrenciesStream(InputStream body) throws IOException {
+        try (MappingIterator<CurrencyInfo> currencies = Ndjson.reader(objectMapper, body, CurrencyInfo.class)) {
+            return ResponseEntity.ok(bulkUpsertService.upsertCurrencies(currencies));
+        }
+    }
+
     @Operation(summary = "Обновить валюту", description = "Обновляет существующую валюту по её ID.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Валюта успешно обновлена"),
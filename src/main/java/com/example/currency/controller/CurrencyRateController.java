@@ -1,34 +1,91 @@
 package com.example.currency.controller;
 
+import com.example.currency.analytics.RateStatisticsService;
+import com.example.currency.cache.DataVersions;
+import com.example.currency.dto.BulkReport;
+import com.example.currency.dto.ConversionRequest;
+import com.example.currency.dto.ConversionResult;
+import com.example.currency.dto.KeysetPage;
+import com.example.currency.dto.RateStatistics;
+import com.example.currency.dto.SyncReport;
 import com.example.currency.exception.ApiException;
 import com.example.currency.models.CurrencyRate;
+import com.example.currency.models.RateHistory;
+import com.example.currency.service.BulkUpsertService;
 import com.example.currency.service.CurrencyConversionService;
+import com.example.currency.service.RateHistoryService;
+import com.example.currency.service.RateSyncService;
+import com.example.currency.snapshot.RateSnapshot;
+import com.example.currency.web.ConditionalGet;
+import com.example.currency.web.Ndjson;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/currency/rates")
 @Tag(name = "Курсы валют", description = "API для управления курсами валют и конвертацией")
 public class CurrencyRateController {
     private final CurrencyConversionService conversionService;
+    private final RateSyncService rateSyncService;
+    private final RateHistoryService rateHistoryService;
+    private final RateStatisticsService rateStatisticsService;
+    private final BulkUpsertService bulkUpsertService;
+    private final ObjectMapper objectMapper;
+    private final DataVersions dataVersions;
+    private final ConditionalGet conditionalGet;
+    private final int maxBatchSize;
+    private final int maxBulkSize;
 
-    public CurrencyRateController(CurrencyConversionService conversionService) {
+    public CurrencyRateController(CurrencyConversionService conversionService,
+                                  RateSyncService rateSyncService,
+                                  RateHistoryService rateHistoryService,
+                                  RateStatisticsService rateStatisticsService,
+                                  BulkUpsertService bulkUpsertService,
+                                  ObjectMapper objectMapper,
+                                  DataVersions dataVersions,
+                                  ConditionalGet conditionalGet,
+                                  @Value("${conversion.batch.max-size:100000}") int maxBatchSize,
+                                  @Value("${bulk.max-array-size:100000}") int maxBulkSize) {
         this.conversionService = conversionService;
+        this.rateSyncService = rateSyncService;
+        this.rateHistoryService = rateHistoryService;
+        this.rateStatisticsService = rateStatisticsService;
+        this.bulkUpsertService = bulkUpsertService;
+        this.objectMapper = objectMapper;
+        this.dataVersions = dataVersions;
+        this.conditionalGet = conditionalGet;
+        this.maxBatchSize = maxBatchSize;
+        this.maxBulkSize = maxBulkSize;
     }
 
-    @Operation(summary = "Конвертировать валюту", description = "Конвертирует сумму из одной валюты в другую.")
+    @Operation(summary = "Конвертировать валюту",
+            description = "Конвертирует сумму из одной валюты в другую. "
+                    + "С параметром date используются курсы на эту дату.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Сумма успешно конвертирована"),
             @ApiResponse(responseCode = "400", description = "Некорректные входные параметры"),
@@ -38,40 +95,182 @@ public class CurrencyRateController {
     public ResponseEntity<?> convert(
             @RequestParam Integer from,
             @RequestParam Integer to,
-            @RequestParam BigDecimal amount) {
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+            @RequestParam BigDecimal amount,
+            @RequestParam(required = false) LocalDate date) {
+        if (amount.signum() <= 0) {
             throw new ApiException("Сумма должна быть больше нуля", HttpStatus.BAD_REQUEST);
         }
-        BigDecimal result = conversionService.convertCurrency(from, to, amount);
+        BigDecimal result = conversionService.convertCurrency(from, to, amount, date);
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("amount", amount);
+        body.put("from", from);
+        body.put("to", to);
+        if (date != null) {
+            body.put("date", date);
+        }
+        body.put("result", result);
+        return ResponseEntity.ok(body);
+    }
+
+    @Operation(summary = "Конвертировать валюту по коду",
+            description = "Конвертирует сумму между валютами, заданными кодами ISO 4217 (например, "
+                    + "USD и EUR) без учёта регистра. Коды разрешаются по индексу в памяти, без "
+                    + "обращения к базе. С параметром date используются курсы на эту дату.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Сумма успешно конвертирована"),
+            @ApiResponse(responseCode = "400", description = "Некорректные входные параметры"),
+            @ApiResponse(responseCode = "404", description = "Валюта с указанным кодом не найдена")
+    })
+    @GetMapping("/convert/by-code")
+    public ResponseEntity<?> convertByCode(
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam BigDecimal amount,
+            @RequestParam(required = false) LocalDate date) {
+        ConversionResult conversion = conversionService.convertByCode(from, to, amount, date);
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("amount", amount);
+        body.put("from", from);
+        body.put("to", to);
+        body.put("fromId", conversion.getFrom());
+        body.put("toId", conversion.getTo());
+        if (date != null) {
+            body.put("date", date);
+        }
+        body.put("result", conversion.getResult());
+        return ResponseEntity.ok(body);
+    }
+
+    @Operation(summary = "Пакетная конвертация",
+            description = "Конвертирует массив сумм за один запрос. Результаты возвращаются в порядке запроса, ошибки "
+                    + "указываются для каждого элемента. Элемент с полем date конвертируется по курсам на эту дату.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Пакет обработан"),
+            @ApiResponse(responseCode = "400", description = "Превышен размер пакета")
+    })
+    @PostMapping(value = "/convert/batch",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<List<ConversionResult>> convertBatch(@RequestBody List<ConversionRequest> requests) {
+        if (requests.size() > maxBatchSize) {
+            throw new ApiException("Размер пакета превышает " + maxBatchSize, HttpStatus.BAD_REQUEST);
+        }
+        return ResponseEntity.ok(conversionService.convertBatch(requests));
+    }
+
+    @Operation(summary = "Потоковая пакетная конвертация",
+            description = "Принимает NDJSON-поток запросов и построчно "
+                    + "возвращает NDJSON-поток результатов в том же порядке.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Поток обработан")
+    })
+    @PostMapping(value = "/convert/batch", consumes = Ndjson.MEDIA_TYPE_VALUE, produces = Ndjson.MEDIA_TYPE_VALUE)
+    public void convertBatchStream(InputStream body, HttpServletResponse response) throws IOException {
+        RateSnapshot snapshot = conversionService.getRateSnapshot();
+        response.setContentType(Ndjson.MEDIA_TYPE_VALUE);
+        try (MappingIterator<ConversionRequest> requests = Ndjson.reader(objectMapper, body, ConversionRequest.class);
+             SequenceWriter results = Ndjson.writer(objectMapper, response.getOutputStream())) {
+            while (requests.hasNextValue()) {
+                results.write(conversionService.convert(snapshot, requests.nextValue()));
+            }
+        }
+    }
+
+    @Operation(summary = "Получить сведения о снимке курсов",
+            description = "Возвращает версию, время построения и размер снимка курсов, используемого для конвертации.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Сведения о снимке успешно получены")
+    })
+    @GetMapping("/snapshot")
+    public ResponseEntity<?> getSnapshotInfo() {
+        RateSnapshot snapshot = conversionService.getRateSnapshot();
         return ResponseEntity.ok(Map.of(
-                "amount", amount,
-                "from", from,
-                "to", to,
-                "result", result
+                "version", snapshot.getVersion(),
+                "builtAt", snapshot.getBuiltAt(),
+                "size", snapshot.size()
         ));
     }
 
-    @Operation(summary = "Получить все курсы", description = "Извлекает все доступные курсы валют.")
+    @Operation(summary = "Синхронизировать курсы с НБРБ",
+            description = "Загружает все дневные курсы НБРБ одним запросом и записывает только изменившиеся строки.")
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "Курсы успешно получены"),
+            @ApiResponse(responseCode = "200", description = "Синхронизация выполнена"),
+            @ApiResponse(responseCode = "502", description = "Ошибка синхронизации")
+    })
+    @PostMapping("/sync")
+    public ResponseEntity<SyncReport> syncRates() {
+        SyncReport report = rateSyncService.sync();
+        return ResponseEntity.status(report.isSuccessful() ? HttpStatus.OK : HttpStatus.BAD_GATEWAY).body(report);
+    }
+
+    @Operation(summary = "Получить результат последней синхронизации",
+            description = "Возвращает статистику последней синхронизации курсов с НБРБ.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Отчёт успешно получен"),
+            @ApiResponse(responseCode = "404", description = "Синхронизация ещё не выполнялась")
+    })
+    @GetMapping("/sync")
+    public ResponseEntity<SyncReport> getLastSyncReport() {
+        return rateSyncService.getLastReport()
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @Operation(summary = "Получить все курсы",
+            description = "Извлекает все доступные курсы валют. Тело отдаётся готовыми "
+                    + "байтами JSON (gzip при Accept-Encoding: gzip) до следующего изменения "
+                    + "курсов. Поддерживает условные запросы по ETag и Last-Modified.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Курсы успешно получены",
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = CurrencyRate.class)))),
+            @ApiResponse(responseCode = "304", description = "Курсы не изменились"),
             @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера")
     })
     @GetMapping
-    public ResponseEntity<List<CurrencyRate>> getAllRates() {
-        return ResponseEntity.ok(conversionService.getAllRates());
+    public ResponseEntity<byte[]> getAllRates(WebRequest request) {
+        return conditionalGet.getSerialized(request, dataVersions.rates(), "all", conversionService::getAllRates);
+    }
+
+    @Operation(summary = "Потоковая выгрузка всех курсов",
+            description = "Построчно выдаёт все курсы в формате NDJSON, читая "
+                    + "курсор базы данных; память не зависит от размера таблицы.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Курсы выгружаются"),
+            @ApiResponse(responseCode = "304", description = "Курсы не изменились")
+    })
+    @GetMapping(produces = Ndjson.MEDIA_TYPE_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamRates(WebRequest request) {
+        return conditionalGet.get(request, dataVersions.rates(), Ndjson.MEDIA_TYPE,
+                () -> Ndjson.body(objectMapper, conversionService::streamRates));
+    }
+
+    @Operation(summary = "Получить страницу курсов",
+            description = "Постраничная выборка курсов по ключу: передайте "
+                    + "nextCursor предыдущей страницы в параметре after.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Страница успешно получена"),
+            @ApiResponse(responseCode = "304", description = "Курсы не изменились"),
+            @ApiResponse(responseCode = "400", description = "Некорректный размер страницы")
+    })
+    @GetMapping("/page")
+    public ResponseEntity<KeysetPage<CurrencyRate>> getRatesPage(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "100") int limit,
+            WebRequest request) {
+        return conditionalGet.get(request, dataVersions.rates(), () -> conversionService.getRatesPage(after, limit));
     }
 
     @Operation(summary = "Получить курс по ID", description = "Извлекает конкретный курс валюты по его ID.")
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "Курс успешно получен"),
+            @ApiResponse(responseCode = "200", description = "Курс успешно получен",
+                    content = @Content(schema = @Schema(implementation = CurrencyRate.class))),
+            @ApiResponse(responseCode = "304", description = "Курсы не изменились"),
             @ApiResponse(responseCode = "404", description = "Курс не найден"),
             @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<CurrencyRate> getRateById(@PathVariable Long id) {
-        Optional<CurrencyRate> rate = conversionService.getRateById(id);
-        return rate.map(ResponseEntity::ok)
-                .orElseGet(() -> ResponseEntity.notFound().build());
+    public ResponseEntity<byte[]> getRateById(@PathVariable Long id, WebRequest request) {
+        return conditionalGet.getOptionalSerialized(request, dataVersions.rates(), "id:" + id,
+                () -> conversionService.getRateById(id));
     }
 
     @Operation(summary = "Создать новый курс", description = "Создаёт новую запись о курсе валюты.")
@@ -86,6 +285,35 @@ public class CurrencyRateController {
         return ResponseEntity.ok(created);
     }
 
+    @Operation(summary = "Массовая загрузка курсов",
+            description = "Вставляет или обновляет курсы из JSON- или CBOR-массива по ID. "
+                    + "Строки пишутся чанками в отдельных транзакциях; некорректные строки "
+                    + "пропускаются и перечисляются в отчёте вместе со временем каждого чанка.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Загрузка выполнена"),
+            @ApiResponse(responseCode = "400", description = "Превышен размер массива")
+    })
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<BulkReport> bulkUpsertRates(@RequestBody List<CurrencyRate> rates) {
+        if (rates.size() > maxBulkSize) {
+            throw new ApiException("Размер массива превышает " + maxBulkSize + ", используйте NDJSON",
+                    HttpStatus.BAD_REQUEST);
+        }
+        return ResponseEntity.ok(bulkUpsertService.upsertRates(rates.iterator()));
+    }
+
+    @Operation(summary = "Потоковая массовая загрузка курсов",
+            description = "Принимает NDJSON-поток курсов без ограничения размера и пишет их чанками по мере чтения.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Загрузка выполнена")
+    })
+    @PostMapping(value = "/bulk", consumes = Ndjson.MEDIA_TYPE_VALUE)
+    public ResponseEntity<BulkReport> bulkUpsertRatesStream(InputStream body) throws IOException {
+        try (MappingIterator<CurrencyRate> rates = Ndjson.reader(objectMapper, body, CurrencyRate.class)) {
+            return ResponseEntity.ok(bulkUpsertService.upsertRates(rates));
+        }
+    }
+
     @Operation(summary = "Обновить курс", description = "Обновляет существующий курс валюты по его ID.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Курс успешно обновлён"),
@@ -124,4 +352,53 @@ public class CurrencyRateController {
         List<CurrencyRate> rates = conversionService.getRatesByAbbreviationAndDate(abbreviation, date);
         return ResponseEntity.ok(rates);
     }
+
+    @Operation(summary = "Получить историю курса",
+            description = "Возвращает курсы валюты за период по индексу (abbreviation, date).")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "История успешно получена"),
+            @ApiResponse(responseCode = "400", description = "Некорректный период")
+    })
+    @GetMapping(value = "/history", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<RateHistory>> getRateHistory(
+            @RequestParam String abbreviation,
+            @RequestParam LocalDate from,
+            @RequestParam LocalDate to) {
+        return ResponseEntity.ok(rateHistoryService.getHistory(abbreviation, from, to));
+    }
+
+    @Operation(summary = "Потоковая выгрузка истории курса",
+            description = "Построчно выдаёт историю курса за период в формате NDJSON, читая курсор базы данных.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "История выгружается"),
+            @ApiResponse(responseCode = "400", description = "Некорректный период")
+    })
+    @GetMapping(value = "/history", produces = Ndjson.MEDIA_TYPE_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamRateHistory(
+            @RequestParam String abbreviation,
+            @RequestParam LocalDate from,
+            @RequestParam LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new ApiException("Дата начала периода позже даты окончания", HttpStatus.BAD_REQUEST);
+        }
+        StreamingResponseBody body = Ndjson.<RateHistory>body(objectMapper,
+                rows -> rateHistoryService.streamHistory(abbreviation, from, to, rows));
+        return ResponseEntity.ok().contentType(Ndjson.MEDIA_TYPE).body(body);
+    }
+
+    @Operation(summary = "Получить статистику курса",
+            description = "Возвращает минимум, максимум, среднее и стандартное отклонение курса валюты за "
+                    + "произвольный период. Считается по дневным и месячным сводкам в памяти, а не по строкам истории.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Статистика успешно получена"),
+            @ApiResponse(responseCode = "400", description = "Некорректный период"),
+            @ApiResponse(responseCode = "503", description = "Сводки ещё строятся после запуска")
+    })
+    @GetMapping("/stats")
+    public ResponseEntity<RateStatistics> getRateStatistics(
+            @RequestParam String abbreviation,
+            @RequestParam LocalDate from,
+            @RequestParam LocalDate to) {
+        return ResponseEntity.ok(rateStatisticsService.getStatistics(abbreviation, from, to));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,75 @@
+package com.example.currency.controller;
+
+import com.example.currency.client.ResilientNbrbClient;
+import com.example.currency.models.CurrencyInfo;
+import com.example.currency.models.CurrencyRate;
+import com.example.currency.resilience.CircuitBreaker;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@RequestMapping("/api/nbrb")
+@Tag(name = "НБРБ", description = "API для получения данных НБРБ через устойчивый клиент")
+public class NbrbController {
+    private final ResilientNbrbClient nbrbClient;
+
+    public NbrbController(ResilientNbrbClient nbrbClient) {
+        this.nbrbClient = nbrbClient;
+    }
+
+    @Operation(summary = "Получить валюты НБРБ",
+            description = "Возвращает список валют НБРБ; при недоступности API отдаёт последний удачный ответ.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Валюты успешно получены"),
+            @ApiResponse(responseCode = "503", description = "API НБРБ временно недоступно")
+    })
+    @GetMapping("/currencies")
+    public CompletableFuture<ResponseEntity<List<CurrencyInfo>>> getCurrencies() {
+        return nbrbClient.getAllCurrencies().thenApply(ResponseEntity::ok);
+    }
+
+    @Operation(summary = "Получить курс НБРБ", description = "Возвращает официальный курс валюты по её ID в НБРБ.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Курс успешно получен"),
+            @ApiResponse(responseCode = "400", description = "Валюта не найдена в НБРБ"),
+            @ApiResponse(responseCode = "503", description = "API НБРБ временно недоступно")
+    })
+    @GetMapping("/rates/{curId}")
+    public CompletableFuture<ResponseEntity<CurrencyRate>> getRate(@PathVariable Integer curId) {
+        return nbrbClient.getCurrencyRate(curId).thenApply(ResponseEntity::ok);
+    }
+
+    @Operation(summary = "Состояние клиента НБРБ",
+            description = "Возвращает состояние предохранителя и статистику выдачи устаревших данных.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Состояние успешно получено")
+    })
+    @GetMapping("/status")
+    public ResponseEntity<Map<String, Object>> getStatus() {
+        CircuitBreaker breaker = nbrbClient.getCircuitBreaker();
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("state", breaker.getState());
+        status.put("consecutiveFailures", breaker.getConsecutiveFailures());
+        status.put("successes", breaker.getSuccessCount());
+        status.put("failures", breaker.getFailureCount());
+        status.put("slowCalls", breaker.getSlowCallCount());
+        status.put("rejected", breaker.getRejectedCount());
+        status.put("opened", breaker.getOpenedCount());
+        status.put("staleServed", nbrbClient.getStaleServedCount());
+        status.put("lastStaleAgeMs", nbrbClient.getLastStaleAgeMillis());
+        status.put("cachedEntries", nbrbClient.getCachedEntryCount());
+        return ResponseEntity.ok(status);
+    }
+}
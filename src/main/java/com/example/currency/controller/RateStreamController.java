@@ -0,0 +1,39 @@
+package com.example.currency.controller;
+
+import com.example.currency.events.RateStreamBroadcaster;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/currency/rates")
+@Tag(name = "Курсы валют", description = "API для управления курсами валют и конвертацией")
+public class RateStreamController {
+    private final RateStreamBroadcaster broadcaster;
+
+    public RateStreamController(RateStreamBroadcaster broadcaster) {
+        this.broadcaster = broadcaster;
+    }
+
+    @Operation(summary = "Поток изменений курсов",
+            description = "Server-sent events: created, updated, deleted с курсом в данных, sync после синхронизации "
+                    + "и overflow, если клиент не успевал читать и часть изменений вытеснена (курсы нужно перечитать). "
+                    + "Параметр abbreviations ограничивает поток указанными валютами.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Подписка оформлена"),
+            @ApiResponse(responseCode = "503", description = "Превышено число подписчиков")
+    })
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamRateChanges(@RequestParam(required = false) List<String> abbreviations) {
+        return broadcaster.subscribe(abbreviations);
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.currency.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Направляет соединения read-only транзакций на реплики по кругу, а всё остальное — на основную базу.
+ * <p>
+ * Чтобы клиент видел свои изменения, несмотря на отставание реплик, после каждой пишущей транзакции
+ * все чтения узла в течение {@code stickyWindow} идут на основную базу. Окно общее для узла, а не для
+ * клиента: локальные кэши сбрасываются при записи и заново заполняются первым же чтением, и это чтение
+ * не должно вернуть с реплики устаревшие данные.
+ * <p>
+ * Решение принимается при первом обращении к соединению, поэтому источник нужно оборачивать в
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: к этому моменту признак
+ * read-only транзакции уже выставлен.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+    public static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+    private final List<String> replicaKeys;
+    private final long stickyNanos;
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile long lastWriteNanos;
+
+    private final LongAdder primaryRoutes = new LongAdder();
+    private final LongAdder replicaRoutes = new LongAdder();
+    private final LongAdder stickyReads = new LongAdder();
+    private final LongAdder replicaFallbacks = new LongAdder();
+
+    public ReadWriteRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Duration stickyWindow) {
+        this.primary = primary;
+        this.replicaKeys = List.copyOf(replicas.keySet());
+        this.stickyNanos = stickyWindow.toNanos();
+        this.lastWriteNanos = System.nanoTime() - stickyNanos;
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                markWrite();
+            }
+            primaryRoutes.increment();
+            return PRIMARY;
+        }
+        if (replicaKeys.isEmpty()) {
+            primaryRoutes.increment();
+            return PRIMARY;
+        }
+        if (System.nanoTime() - lastWriteNanos < stickyNanos) {
+            stickyReads.increment();
+            primaryRoutes.increment();
+            return PRIMARY;
+        }
+        replicaRoutes.increment();
+        return replicaKeys.get(Math.floorMod(next.getAndIncrement(), replicaKeys.size()));
+    }
+
+    /**
+     * Если реплика не отдала соединение (недоступна или пул исчерпан), чтение уходит на основную базу.
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        DataSource target = determineTargetDataSource();
+        if (target == primary) {
+            return target.getConnection();
+        }
+        try {
+            return target.getConnection();
+        } catch (SQLException e) {
+            replicaFallbacks.increment();
+            logger.warn("Replica connection failed, reading from primary: {}", e.getMessage());
+            return primary.getConnection();
+        }
+    }
+
+    // Окно отсчитывается от начала пишущей транзакции и ещё раз от её завершения, чтобы длинная
+    // транзакция не исчерпала его до фиксации.
+    private void markWrite() {
+        lastWriteNanos = System.nanoTime();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    lastWriteNanos = System.nanoTime();
+                }
+            });
+        }
+    }
+
+    /**
+     * Закрывает пулы основной базы и реплик при остановке контекста. Ошибка закрытия одного пула
+     * не мешает закрыть остальные.
+     */
+    @Override
+    public void close() {
+        getResolvedDataSources().forEach((key, target) -> {
+            if (target instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    logger.warn("Failed to close data source {}: {}", key, e.getMessage());
+                }
+            }
+        });
+    }
+
+    public List<String> getReplicaKeys() {
+        return replicaKeys;
+    }
+
+    public long getPrimaryRouteCount() {
+        return primaryRoutes.sum();
+    }
+
+    public long getReplicaRouteCount() {
+        return replicaRoutes.sum();
+    }
+
+    public long getStickyReadCount() {
+        return stickyReads.sum();
+    }
+
+    public long getReplicaFallbackCount() {
+        return replicaFallbacks.sum();
+    }
+}
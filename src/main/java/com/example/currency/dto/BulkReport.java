@@ -0,0 +1,52 @@
+package com.example.currency.dto;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Итог пакетной загрузки: сколько строк записано и отклонено, и время каждой транзакции-чанка.
+ * Отклонённые строки перечисляются не более чем {@link #MAX_ERRORS} раз, остальные только считаются.
+ */
+@Getter
+public class BulkReport {
+    public static final int MAX_ERRORS = 100;
+
+    private long durationMs;
+    private int written;
+    private int rejected;
+    private final List<Chunk> chunks = new ArrayList<>();
+    private final List<RowError> errors = new ArrayList<>();
+
+    public void addChunk(int rows, long durationMs) {
+        chunks.add(new Chunk(chunks.size(), rows, durationMs));
+        written += rows;
+    }
+
+    public void reject(int row, String error) {
+        rejected++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(new RowError(row, error));
+        }
+    }
+
+    public void finish(long durationMs) {
+        this.durationMs = durationMs;
+    }
+
+    public List<Chunk> getChunks() {
+        return Collections.unmodifiableList(chunks);
+    }
+
+    public List<RowError> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    public record Chunk(int index, int rows, long durationMs) {
+    }
+
+    public record RowError(int row, String error) {
+    }
+}
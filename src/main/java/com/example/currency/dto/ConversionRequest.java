@@ -0,0 +1,18 @@
+package com.example.currency.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConversionRequest {
+    private Integer from;
+    private Integer to;
+    private BigDecimal amount;
+    private LocalDate date;
+}
@@ -0,0 +1,35 @@
+package com.example.currency.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ConversionResult {
+    private Integer from;
+    private Integer to;
+    private BigDecimal amount;
+    private BigDecimal result;
+    private Integer status;
+    private String error;
+
+    public static ConversionResult success(Integer from, Integer to, BigDecimal amount, BigDecimal result) {
+        return new ConversionResult(from, to, amount, result, null, null);
+    }
+
+    public static ConversionResult failure(Integer from, Integer to, BigDecimal amount, int status, String error) {
+        return new ConversionResult(from, to, amount, null, status, error);
+    }
+
+    @JsonIgnore
+    public boolean isSuccessful() {
+        return error == null;
+    }
+}
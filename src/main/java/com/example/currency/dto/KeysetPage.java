@@ -0,0 +1,27 @@
+package com.example.currency.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Страница выборки по ключу: следующий запрос передаёт {@code nextCursor} в параметре {@code after}.
+ */
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class KeysetPage<T> {
+    private final List<T> items;
+    private final Long nextCursor;
+
+    public KeysetPage(List<T> items, Long nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public static <T> KeysetPage<T> of(List<T> items, int limit, Function<T, ? extends Number> key) {
+        Long nextCursor = items.size() < limit ? null : key.apply(items.get(items.size() - 1)).longValue();
+        return new KeysetPage<>(items, nextCursor);
+    }
+}
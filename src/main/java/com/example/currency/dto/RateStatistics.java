@@ -0,0 +1,26 @@
+package com.example.currency.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * Статистика курса валюты за период. Если курсов за период нет, count равен 0, а остальные показатели не выводятся.
+ * {@code buckets} — число прочитанных сводок (месячных и дневных), а не строк истории.
+ */
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RateStatistics {
+    private final String abbreviation;
+    private final LocalDate from;
+    private final LocalDate to;
+    private final long count;
+    private final Double min;
+    private final Double max;
+    private final Double mean;
+    private final Double stdDev;
+    private final int buckets;
+}
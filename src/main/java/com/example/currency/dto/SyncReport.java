@@ -0,0 +1,42 @@
+package com.example.currency.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+
+import java.time.Instant;
+
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SyncReport {
+    private final Instant startedAt;
+    private final long durationMs;
+    private final int fetched;
+    private final int inserted;
+    private final int updated;
+    private final String error;
+
+    private SyncReport(Instant startedAt, long durationMs, int fetched, int inserted, int updated, String error) {
+        this.startedAt = startedAt;
+        this.durationMs = durationMs;
+        this.fetched = fetched;
+        this.inserted = inserted;
+        this.updated = updated;
+        this.error = error;
+    }
+
+    public static SyncReport success(Instant startedAt, long durationMs, int fetched, int inserted, int updated) {
+        return new SyncReport(startedAt, durationMs, fetched, inserted, updated, null);
+    }
+
+    public static SyncReport failure(Instant startedAt, long durationMs, String error) {
+        return new SyncReport(startedAt, durationMs, 0, 0, 0, error);
+    }
+
+    public int getChanged() {
+        return inserted + updated;
+    }
+
+    public boolean isSuccessful() {
+        return error == null;
+    }
+}
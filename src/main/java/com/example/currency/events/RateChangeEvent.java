@@ -0,0 +1,32 @@
+package com.example.currency.events;
+
+import com.example.currency.models.CurrencyRate;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Изменение курсов, публикуемое через ApplicationEventPublisher после успешной записи.
+ * Для удаления курс содержит только ID и аббревиатуру.
+ */
+@Getter
+public class RateChangeEvent {
+    public enum Type {
+        CREATED, UPDATED, DELETED, SYNC_COMPLETED
+    }
+
+    private final Type type;
+    private final List<CurrencyRate> rates;
+    private final Instant occurredAt;
+
+    public RateChangeEvent(Type type, List<CurrencyRate> rates) {
+        this.type = type;
+        this.rates = List.copyOf(rates);
+        this.occurredAt = Instant.now();
+    }
+
+    public static RateChangeEvent of(Type type, CurrencyRate rate) {
+        return new RateChangeEvent(type, List.of(rate));
+    }
+}
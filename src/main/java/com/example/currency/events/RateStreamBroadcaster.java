@@ -0,0 +1,183 @@
+package com.example.currency.events;
+
+import com.example.currency.exception.ApiException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Рассылает {@link RateChangeEvent} подписчикам SSE. Соединения асинхронные, поэтому простаивающий
+ * подписчик не занимает поток; отправка выполняется небольшим пулом диспетчеров. Подписчик, запись которому
+ * висит дольше {@code sse.send-timeout}, отключается, а пул на время зависшей записи получает замену занятому
+ * потоку (не больше {@code sse.max-stalled-senders}), чтобы медленные клиенты не останавливали остальных.
+ */
+@Component
+public class RateStreamBroadcaster {
+    private static final Logger logger = LoggerFactory.getLogger(RateStreamBroadcaster.class);
+
+    private final Set<RateSubscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    private final AtomicInteger stalledSenders = new AtomicInteger();
+    private final ThreadPoolExecutor dispatcher;
+    private final ScheduledExecutorService heartbeat;
+    private final int dispatcherThreads;
+    private final int maxStalledSenders;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final long timeoutMillis;
+    private final long sendTimeoutNanos;
+
+    public RateStreamBroadcaster(@Value("${sse.dispatcher-threads:4}") int dispatcherThreads,
+                                 @Value("${sse.buffer-size:256}") int bufferSize,
+                                 @Value("${sse.max-subscribers:10000}") int maxSubscribers,
+                                 @Value("${sse.timeout:30m}") Duration timeout,
+                                 @Value("${sse.heartbeat-interval:15s}") Duration heartbeatInterval,
+                                 @Value("${sse.send-timeout:10s}") Duration sendTimeout,
+                                 @Value("${sse.max-stalled-senders:64}") int maxStalledSenders) {
+        this.dispatcherThreads = dispatcherThreads;
+        this.maxStalledSenders = maxStalledSenders;
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMillis = timeout.toMillis();
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.dispatcher = new ThreadPoolExecutor(dispatcherThreads, dispatcherThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "sse-dispatch-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sse-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = heartbeatInterval.toMillis();
+        heartbeat.scheduleAtFixedRate(this::sendHeartbeats, interval, interval, TimeUnit.MILLISECONDS);
+        long check = Math.max(100, sendTimeout.toMillis() / 2);
+        heartbeat.scheduleWithFixedDelay(this::evictStalled, check, check, TimeUnit.MILLISECONDS);
+    }
+
+    public SseEmitter subscribe(Collection<String> abbreviations) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new ApiException("Превышено число подписчиков на поток курсов", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        Set<String> filter = abbreviations == null ? Set.of() : abbreviations.stream()
+                .map(String::trim)
+                .filter(value -> !value.isEmpty())
+                .map(value -> value.toUpperCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        RateSubscriber subscriber = new RateSubscriber(emitter, filter, bufferSize, dispatcher, sent, dropped,
+                () -> resizeDispatcher(stalledSenders.decrementAndGet()));
+        Runnable unsubscribe = () -> {
+            subscriber.close();
+            remove(subscriber);
+        };
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(error -> unsubscribe.run());
+        subscribers.add(subscriber);
+        // Первый комментарий сразу отправляет заголовки ответа клиенту.
+        subscriber.heartbeat();
+        logger.debug("SSE subscriber added, filter={}, total={}", filter, subscriberCount.get());
+        return emitter;
+    }
+
+    @EventListener
+    public void onRateChange(RateChangeEvent event) {
+        for (RateSubscriber subscriber : subscribers) {
+            subscriber.offer(event);
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    public long getSentCount() {
+        return sent.sum();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public long getEvictedCount() {
+        return evicted.sum();
+    }
+
+    public int getStalledSenders() {
+        return stalledSenders.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        for (RateSubscriber subscriber : subscribers) {
+            subscriber.close();
+            subscriber.getEmitter().complete();
+        }
+        dispatcher.shutdownNow();
+    }
+
+    private void sendHeartbeats() {
+        for (RateSubscriber subscriber : subscribers) {
+            subscriber.heartbeat();
+        }
+    }
+
+    void evictStalled() {
+        long now = System.nanoTime();
+        for (RateSubscriber subscriber : subscribers) {
+            if (subscriber.evictIfStalled(now, sendTimeoutNanos)) {
+                remove(subscriber);
+                evicted.increment();
+                resizeDispatcher(stalledSenders.incrementAndGet());
+                logger.warn("SSE subscriber evicted: send blocked for more than {} ms",
+                        TimeUnit.NANOSECONDS.toMillis(sendTimeoutNanos));
+            }
+        }
+    }
+
+    private void remove(RateSubscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            subscriberCount.decrementAndGet();
+        }
+    }
+
+    // Поток с зависшей записью заменяется дополнительным, пока запись не вернётся (по тайм-ауту записи Tomcat).
+    private synchronized void resizeDispatcher(int stalled) {
+        int size = dispatcherThreads + Math.min(Math.max(stalled, 0), maxStalledSenders);
+        if (size > dispatcher.getMaximumPoolSize()) {
+            dispatcher.setMaximumPoolSize(size);
+            dispatcher.setCorePoolSize(size);
+        } else {
+            dispatcher.setCorePoolSize(size);
+            dispatcher.setMaximumPoolSize(size);
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.currency.events;
+
+import com.example.currency.models.CurrencyRate;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Подписчик SSE с ограниченным буфером. Изменения одного курса, ещё не отправленные клиенту, схлопываются
+ * в последнее состояние; при переполнении вытесняются самые старые, а клиент получает событие overflow
+ * и должен перечитать курсы. Отправкой занимается не более одной задачи диспетчера на подписчика,
+ * поэтому медленный клиент задерживает только себя. Запись, зависшая дольше тайм-аута, прерывает подписку
+ * (см. {@link #evictIfStalled}): сама блокирующая запись не прерывается, но после неё подписчик завершается.
+ */
+final class RateSubscriber {
+    private final SseEmitter emitter;
+    private final Set<String> abbreviations;
+    private final int capacity;
+    private final Executor dispatcher;
+    private final LongAdder sent;
+    private final LongAdder dropped;
+    private final Runnable onStallEnd;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    // Время начала текущей записи в эмиттер, 0 — запись не идёт.
+    private volatile long sendingSince;
+
+    // Защищены монитором подписчика.
+    private final LinkedHashMap<Long, Pending> pending = new LinkedHashMap<>();
+    private int pendingSyncs;
+    private long overflowed;
+    private boolean ping;
+    private boolean closed;
+    private boolean stalled;
+
+    RateSubscriber(SseEmitter emitter, Set<String> abbreviations, int capacity, Executor dispatcher,
+                   LongAdder sent, LongAdder dropped, Runnable onStallEnd) {
+        this.emitter = emitter;
+        this.abbreviations = abbreviations;
+        this.capacity = capacity;
+        this.dispatcher = dispatcher;
+        this.sent = sent;
+        this.dropped = dropped;
+        this.onStallEnd = onStallEnd;
+    }
+
+    SseEmitter getEmitter() {
+        return emitter;
+    }
+
+    void offer(RateChangeEvent event) {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            boolean sync = event.getType() == RateChangeEvent.Type.SYNC_COMPLETED;
+            String name = sync ? "updated" : event.getType().name().toLowerCase(Locale.ROOT);
+            for (CurrencyRate rate : event.getRates()) {
+                if (rate.getId() != null && matches(rate)) {
+                    enqueue(rate, name);
+                }
+            }
+            if (sync) {
+                pendingSyncs++;
+            } else if (pending.isEmpty()) {
+                return;
+            }
+        }
+        schedule();
+    }
+
+    void heartbeat() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            ping = true;
+        }
+        schedule();
+    }
+
+    void close() {
+        synchronized (this) {
+            closed = true;
+            pending.clear();
+        }
+    }
+
+    /**
+     * Закрывает подписчика, если текущая запись длится дольше {@code timeoutNanos}. Поток диспетчера
+     * остаётся занят до конца записи; когда она вернётся, эмиттер завершается ошибкой и вызывается onStallEnd.
+     */
+    boolean evictIfStalled(long now, long timeoutNanos) {
+        long since = sendingSince;
+        if (since == 0 || now - since < timeoutNanos) {
+            return false;
+        }
+        synchronized (this) {
+            // Повторная проверка под монитором: если запись уже закончилась, диспетчер не увидит флаг.
+            if (stalled || sendingSince != since) {
+                return false;
+            }
+            stalled = true;
+            closed = true;
+            pending.clear();
+        }
+        return true;
+    }
+
+    private boolean matches(CurrencyRate rate) {
+        return abbreviations.isEmpty()
+                || (rate.getAbbreviation() != null
+                    && abbreviations.contains(rate.getAbbreviation().toUpperCase(Locale.ROOT)));
+    }
+
+    private void enqueue(CurrencyRate rate, String name) {
+        // Повторное изменение курса переносит его в конец очереди с последним состоянием;
+        // ещё не отправленный created остаётся created.
+        Pending previous = pending.remove(rate.getId());
+        String merged = previous != null && "created".equals(previous.name()) && "updated".equals(name)
+                ? previous.name() : name;
+        pending.put(rate.getId(), new Pending(merged, rate));
+        if (pending.size() > capacity) {
+            Long eldest = pending.keySet().iterator().next();
+            pending.remove(eldest);
+            overflowed++;
+            dropped.increment();
+        }
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            dispatcher.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            while (true) {
+                List<Pending> batch;
+                int syncs;
+                long lost;
+                boolean heartbeat;
+                boolean timedOut = false;
+                synchronized (this) {
+                    if (closed || (pending.isEmpty() && pendingSyncs == 0 && !ping)) {
+                        scheduled.set(false);
+                        timedOut = stalled;
+                        stalled = false;
+                        batch = null;
+                        syncs = 0;
+                        lost = 0;
+                        heartbeat = false;
+                    } else {
+                        batch = new ArrayList<>(pending.values());
+                        pending.clear();
+                        syncs = pendingSyncs;
+                        lost = overflowed;
+                        heartbeat = ping;
+                        pendingSyncs = 0;
+                        overflowed = 0;
+                        ping = false;
+                    }
+                }
+                if (batch == null) {
+                    if (timedOut) {
+                        endStall(new IOException("SSE send blocked longer than the send timeout"));
+                    }
+                    return;
+                }
+                if (lost > 0) {
+                    send(SseEmitter.event().name("overflow").data(Map.of("dropped", lost), MediaType.APPLICATION_JSON));
+                }
+                for (Pending change : batch) {
+                    send(SseEmitter.event().name(change.name()).data(change.rate(), MediaType.APPLICATION_JSON));
+                }
+                if (syncs > 0) {
+                    send(SseEmitter.event().name("sync").data(Map.of("completed", syncs), MediaType.APPLICATION_JSON));
+                }
+                if (heartbeat && batch.isEmpty() && syncs == 0 && lost == 0) {
+                    write(SseEmitter.event().comment("ping"));
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Клиент отключился или эмиттер уже завершён: onError/onCompletion удалит подписчика.
+            boolean timedOut;
+            synchronized (this) {
+                closed = true;
+                pending.clear();
+                timedOut = stalled;
+                stalled = false;
+            }
+            scheduled.set(false);
+            if (timedOut) {
+                endStall(e);
+            } else {
+                emitter.completeWithError(e);
+            }
+        }
+    }
+
+    // Вызывается вне монитора подписчика: завершение эмиттера ждёт его собственную блокировку.
+    private void endStall(Throwable cause) {
+        onStallEnd.run();
+        emitter.completeWithError(cause);
+    }
+
+    private void send(SseEmitter.SseEventBuilder event) throws IOException {
+        write(event);
+        sent.increment();
+    }
+
+    private void write(SseEmitter.SseEventBuilder event) throws IOException {
+        sendingSince = System.nanoTime() | 1;
+        try {
+            emitter.send(event);
+        } finally {
+            sendingSince = 0;
+        }
+    }
+
+    private record Pending(String name, CurrencyRate rate) {
+    }
+}
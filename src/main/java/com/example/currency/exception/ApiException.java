@@ -2,16 +2,19 @@ package com.example.currency.exception;
 
 import org.springframework.http.HttpStatus;
 
+/**
+ * Ошибка с HTTP-статусом ответа. Ошибки клиента (4xx) ожидаемы и создаются без стека вызовов:
+ * место выброса для них ничего не говорит, а заполнение стека — основная цена исключения.
+ */
 public class ApiException extends RuntimeException {
     private final HttpStatus status;
 
     public ApiException(String message, HttpStatus status) {
-        super(message);
-        this.status = status;
+        this(message, null, status);
     }
 
     public ApiException(String message, Throwable cause, HttpStatus status) {
-        super(message, cause);
+        super(message, cause, true, !status.is4xxClientError());
         this.status = status;
     }
 
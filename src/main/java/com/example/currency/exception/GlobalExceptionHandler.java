@@ -1,40 +1,87 @@
 package com.example.currency.exception;
 
+import com.example.currency.logging.ErrorLogLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.validation.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
+/**
+ * Ответы об ошибках. Ошибки клиента пишутся в лог одной строкой на уровне WARN, серверные — на ERROR
+ * со стеком; повторы одной ошибки прореживаются до записи за интервал с числом пропущенных.
+ * Каждый ответ учитывается в счётчике {@code api.errors} по статусу.
+ */
 @RestControllerAdvice
 public class GlobalExceptionHandler {
     private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
+    private final MeterRegistry meterRegistry;
+    private final ErrorLogLimiter logLimiter;
+    private final ConcurrentHashMap<HttpStatus, Counter> errorCounters = new ConcurrentHashMap<>();
+
+    public GlobalExceptionHandler(MeterRegistry meterRegistry,
+                                  @Value("${logging.errors.interval:10s}") Duration logInterval) {
+        this.meterRegistry = meterRegistry;
+        this.logLimiter = new ErrorLogLimiter(logInterval);
+    }
+
     @ExceptionHandler(ApiException.class)
     public ResponseEntity<ErrorResponse> handleApiException(ApiException ex) {
-        logger.error("Ошибка API: {}", ex.getMessage(), ex);
+        log(ex.getStatus(), "Ошибка API", ex);
         ErrorResponse errorResponse = new ErrorResponse("Ошибка API", ex.getMessage());
-        return new ResponseEntity<>(errorResponse, ex.getStatus());
+        return respond(errorResponse, ex.getStatus());
     }
 
     @ExceptionHandler(ConstraintViolationException.class)
     public ResponseEntity<ErrorResponse> handleConstraintViolationException(ConstraintViolationException ex) {
-        logger.error("Ошибка валидации: {}", ex.getMessage(), ex);
+        log(HttpStatus.BAD_REQUEST, "Ошибка валидации", ex);
         String details = ex.getConstraintViolations().stream()
                 .map(cv -> cv.getPropertyPath() + ": " + cv.getMessage())
                 .collect(Collectors.joining("; "));
         ErrorResponse errorResponse = new ErrorResponse("Ошибка валидации", details);
-        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+        return respond(errorResponse, HttpStatus.BAD_REQUEST);
     }
 
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGenericException(Exception ex) {
-        logger.error("Непредвиденная ошибка: {}", ex.getMessage(), ex);
+        log(HttpStatus.INTERNAL_SERVER_ERROR, "Непредвиденная ошибка", ex);
         ErrorResponse errorResponse = new ErrorResponse("Внутренняя ошибка сервера", ex.getMessage());
-        return new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
+        return respond(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    private ResponseEntity<ErrorResponse> respond(ErrorResponse body, HttpStatus status) {
+        Counter counter = errorCounters.get(status);
+        if (counter == null) {
+            counter = errorCounters.computeIfAbsent(status, s -> Counter.builder("api.errors")
+                    .description("Ответы об ошибках по HTTP-статусу")
+                    .tag("status", Integer.toString(s.value()))
+                    .register(meterRegistry));
+        }
+        counter.increment();
+        return new ResponseEntity<>(body, status);
+    }
+
+    // Ключ прореживания — статус и класс исключения: текст сообщения содержит ID и суммы и повторяется редко.
+    private void log(HttpStatus status, String title, Exception ex) {
+        long suppressed = logLimiter.tryAcquire(status.value() + ":" + ex.getClass().getName());
+        if (suppressed == ErrorLogLimiter.SUPPRESSED) {
+            return;
+        }
+        if (status.is4xxClientError()) {
+            logger.warn("{} ({}): {} [пропущено похожих: {}]", title, status.value(), ex.getMessage(), suppressed);
+        } else {
+            logger.error("{} ({}): {} [пропущено похожих: {}]", title, status.value(), ex.getMessage(), suppressed,
+                    ex);
+        }
     }
-}
\ No newline at end of file
+}
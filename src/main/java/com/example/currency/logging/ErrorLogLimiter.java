@@ -0,0 +1,51 @@
+package com.example.currency.logging;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Прореживание повторяющихся записей об ошибках: по каждому ключу пишется не больше одной записи
+ * за интервал, а число пропущенных сообщается в следующей. Без блокировок на горячем пути.
+ */
+public class ErrorLogLimiter {
+    /** Запись по ключу в этом интервале уже была. */
+    public static final long SUPPRESSED = -1L;
+
+    private final long intervalNanos;
+    private final ConcurrentHashMap<String, Window> windows = new ConcurrentHashMap<>();
+
+    public ErrorLogLimiter(Duration interval) {
+        this.intervalNanos = interval.toNanos();
+    }
+
+    /**
+     * {@link #SUPPRESSED}, если запись нужно пропустить, иначе сколько записей по ключу было пропущено
+     * с прошлой.
+     */
+    public long tryAcquire(String key) {
+        if (intervalNanos <= 0) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        Window window = windows.get(key);
+        if (window == null) {
+            window = windows.computeIfAbsent(key, k -> new Window(now));
+        }
+        long next = window.nextAt.get();
+        if (now - next >= 0 && window.nextAt.compareAndSet(next, now + intervalNanos)) {
+            return window.suppressed.getAndSet(0);
+        }
+        window.suppressed.incrementAndGet();
+        return SUPPRESSED;
+    }
+
+    private static final class Window {
+        private final AtomicLong nextAt;
+        private final AtomicLong suppressed = new AtomicLong();
+
+        private Window(long now) {
+            this.nextAt = new AtomicLong(now);
+        }
+    }
+}
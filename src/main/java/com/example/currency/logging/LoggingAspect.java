@@ -1,30 +1,81 @@
 package com.example.currency.logging;
 
-import org.aspectj.lang.JoinPoint;
-import org.aspectj.lang.annotation.AfterThrowing;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
-import org.aspectj.lang.annotation.Before;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import java.lang.reflect.Method;
 import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 @Aspect
 @Component
 public class LoggingAspect {
     private static final Logger logger = LoggerFactory.getLogger(LoggingAspect.class);
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<Method, MethodMeters> meters = new ConcurrentHashMap<>();
 
-    @Before("execution(* com.example.currency.controller..*(..)) || execution(* com.example.currency.service..*(..))")
-    public void logMethodEntry(JoinPoint joinPoint) {
-        String methodName = joinPoint.getSignature().toShortString();
-        String args = Arrays.toString(joinPoint.getArgs());
-        logger.info("Entering method: {} with arguments: {}", methodName, args);
+    public LoggingAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
     }
 
-    @AfterThrowing(pointcut = "execution(* com.example.currency.controller..*(..)) || execution(* com.example.currency.service..*(..))", throwing = "ex")
-    public void logMethodException(JoinPoint joinPoint, Throwable ex) {
-        String methodName = joinPoint.getSignature().toShortString();
-        logger.error("Exception in method: {}: {}", methodName, ex.getMessage(), ex);
+    // Метры кэшируются по Method (getStaticPart() в Spring AOP возвращает объект конкретного вызова
+    // и ключом не годится), поэтому на горячем пути нет ни поиска по имени, ни аллокаций:
+    // только System.nanoTime() и запись в таймер. Аргументы логируются только на уровне DEBUG.
+    @Around("execution(* com.example.currency.controller..*(..)) || execution(* com.example.currency.service..*(..))")
+    public Object measureMethod(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        MethodMeters methodMeters = meters.get(method);
+        if (methodMeters == null) {
+            methodMeters = meters.computeIfAbsent(method, this::register);
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("Entering method: {} with arguments: {}",
+                    joinPoint.getSignature().toShortString(), Arrays.toString(joinPoint.getArgs()));
+        }
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable ex) {
+            methodMeters.errors.increment();
+            throw ex;
+        } finally {
+            methodMeters.timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
     }
-}
\ No newline at end of file
+
+    private MethodMeters register(Method method) {
+        String className = method.getDeclaringClass().getSimpleName();
+        String methodName = method.getName();
+        Timer timer = Timer.builder("app.method.duration")
+                .description("Время выполнения методов контроллеров и сервисов")
+                .tag("class", className)
+                .tag("method", methodName)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        Counter errors = Counter.builder("app.method.errors")
+                .description("Количество исключений, выброшенных методами контроллеров и сервисов")
+                .tag("class", className)
+                .tag("method", methodName)
+                .register(meterRegistry);
+        return new MethodMeters(timer, errors);
+    }
+
+    private static final class MethodMeters {
+        private final Timer timer;
+        private final Counter errors;
+
+        private MethodMeters(Timer timer, Counter errors) {
+            this.timer = timer;
+            this.errors = errors;
+        }
+    }
+}
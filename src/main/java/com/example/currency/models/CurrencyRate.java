@@ -1,16 +1,23 @@
 package com.example.currency.models;
 
+import com.example.currency.web.CborFixedPoint;
 import lombok.Data;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 
 import java.math.BigDecimal;
 
 @Entity
+@Table(indexes = @Index(name = "idx_currency_rate_abbreviation_date", columnList = "abbreviation, date"))
 @Data
 public class CurrencyRate {
     @Id
     private Long id;
+    @Column(precision = 19, scale = 6)
+    @CborFixedPoint
     private BigDecimal rate;
     private String abbreviation;
     private java.time.LocalDate date;
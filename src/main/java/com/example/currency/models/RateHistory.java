@@ -0,0 +1,37 @@
+package com.example.currency.models;
+
+import com.example.currency.web.CborFixedPoint;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "rate_history",
+        uniqueConstraints = @UniqueConstraint(name = "uk_rate_history_abbreviation_date",
+                columnNames = {"abbreviation", "date"}),
+        indexes = @Index(name = "idx_rate_history_date", columnList = "date"))
+@Data
+public class RateHistory {
+    public static final int MAX_ABBREVIATION_LENGTH = 16;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private Long currencyId;
+    @Column(nullable = false, length = MAX_ABBREVIATION_LENGTH)
+    private String abbreviation;
+    @Column(nullable = false)
+    private LocalDate date;
+    @Column(precision = 19, scale = 6)
+    @CborFixedPoint
+    private BigDecimal rate;
+}
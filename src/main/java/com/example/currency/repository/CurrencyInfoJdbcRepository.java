@@ -0,0 +1,47 @@
+package com.example.currency.repository;
+
+import com.example.currency.models.CurrencyInfo;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Пакетная запись валют через JDBC: строка по ID вставляется или обновляется одним запросом.
+ */
+@Repository
+public class CurrencyInfoJdbcRepository {
+    private static final String SELECT_ALL = "SELECT id, abbreviation FROM currency_info";
+    private static final String UPSERT = "INSERT INTO currency_info (abbreviation, id) VALUES (?, ?) "
+            + "ON DUPLICATE KEY UPDATE abbreviation = VALUES(abbreviation)";
+
+
+    private static final RowMapper<CurrencyInfo> ROW_MAPPER = (rs, rowNum) -> {
+        CurrencyInfo currency = new CurrencyInfo();
+        currency.setId(rs.getInt("id"));
+        currency.setAbbreviation(rs.getString("abbreviation"));
+        return currency;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CurrencyInfoJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<CurrencyInfo> findAll() {
+        return jdbcTemplate.query(SELECT_ALL, ROW_MAPPER);
+    }
+
+    public int batchUpsert(List<CurrencyInfo> currencies, int batchSize) {
+        if (currencies.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate(UPSERT, currencies, batchSize, (ps, currency) -> {
+            ps.setString(1, currency.getAbbreviation());
+            ps.setInt(2, currency.getId());
+        });
+        return currencies.size();
+    }
+}
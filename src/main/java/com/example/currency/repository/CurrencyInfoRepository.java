@@ -1,9 +1,27 @@
 package com.example.currency.repository;
 
 import com.example.currency.models.CurrencyInfo;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
 @Repository
 public interface CurrencyInfoRepository extends JpaRepository<CurrencyInfo, Integer> {
-}
\ No newline at end of file
+    List<CurrencyInfo> findByIdGreaterThanOrderByIdAsc(Integer after, Limit limit);
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("select c from CurrencyInfo c order by c.id")
+    Stream<CurrencyInfo> streamAll();
+}
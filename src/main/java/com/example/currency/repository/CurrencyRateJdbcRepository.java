@@ -0,0 +1,78 @@
+package com.example.currency.repository;
+
+import com.example.currency.models.CurrencyRate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Пакетная запись курсов через JDBC в обход {@code JpaRepository.save}, который делает select перед каждой записью.
+ */
+@Repository
+public class CurrencyRateJdbcRepository {
+    private static final String SELECT_ALL = "SELECT id, rate, abbreviation, date FROM currency_rate";
+    private static final String INSERT = "INSERT INTO currency_rate (rate, abbreviation, date, id) VALUES (?, ?, ?, ?)";
+    private static final String UPDATE = "UPDATE currency_rate SET rate = ?, abbreviation = ?, date = ? WHERE id = ?";
+    private static final String UPSERT = "INSERT INTO currency_rate (rate, abbreviation, date, id) VALUES (?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE rate = VALUES(rate), abbreviation = VALUES(abbreviation), date = VALUES(date)";
+
+    private static final RowMapper<CurrencyRate> ROW_MAPPER = (rs, rowNum) -> {
+        CurrencyRate rate = new CurrencyRate();
+        rate.setId(rs.getLong("id"));
+        rate.setRate(rs.getBigDecimal("rate"));
+        rate.setAbbreviation(rs.getString("abbreviation"));
+        Date date = rs.getDate("date");
+        rate.setDate(date != null ? date.toLocalDate() : null);
+        return rate;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CurrencyRateJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<CurrencyRate> findAll() {
+        return jdbcTemplate.query(SELECT_ALL, ROW_MAPPER);
+    }
+
+    public int batchInsert(List<CurrencyRate> rates, int batchSize) {
+        return write(INSERT, rates, batchSize);
+    }
+
+    public int batchUpdate(List<CurrencyRate> rates, int batchSize) {
+        return write(UPDATE, rates, batchSize);
+    }
+
+    /**
+     * Вставляет или обновляет курсы по ID одним запросом на строку, без предварительного select.
+     */
+    public int batchUpsert(List<CurrencyRate> rates, int batchSize) {
+        return write(UPSERT, rates, batchSize);
+    }
+
+    private int write(String sql, List<CurrencyRate> rates, int batchSize) {
+        if (rates.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate(sql, rates, batchSize, CurrencyRateJdbcRepository::bind);
+        return rates.size();
+    }
+
+    private static void bind(PreparedStatement ps, CurrencyRate rate) throws SQLException {
+        ps.setBigDecimal(1, rate.getRate());
+        ps.setString(2, rate.getAbbreviation());
+        if (rate.getDate() != null) {
+            ps.setDate(3, Date.valueOf(rate.getDate()));
+        } else {
+            ps.setNull(3, Types.DATE);
+        }
+        ps.setLong(4, rate.getId());
+    }
+}
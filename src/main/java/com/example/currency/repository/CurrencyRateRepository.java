@@ -1,11 +1,28 @@
 package com.example.currency.repository;
 
 import com.example.currency.models.CurrencyRate;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 public interface CurrencyRateRepository extends JpaRepository<CurrencyRate, Long> {
     List<CurrencyRate> findByAbbreviationAndDate(String abbreviation, LocalDate date);
-}
\ No newline at end of file
+
+    List<CurrencyRate> findByIdGreaterThanOrderByIdAsc(Long after, Limit limit);
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("select r from CurrencyRate r order by r.id")
+    Stream<CurrencyRate> streamAll();
+}
@@ -0,0 +1,102 @@
+package com.example.currency.repository;
+
+import com.example.currency.models.CurrencyRate;
+import com.example.currency.models.RateHistory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Пакетная запись истории курсов: строка по ключу (abbreviation, date) вставляется или обновляется одним запросом.
+ */
+@Repository
+public class RateHistoryJdbcRepository {
+    private static final String UPSERT = "INSERT INTO rate_history (currency_id, abbreviation, date, rate) "
+            + "VALUES (?, ?, ?, ?) ON DUPLICATE KEY UPDATE currency_id = VALUES(currency_id), rate = VALUES(rate)";
+    // Для каждой валюты — последний курс не позже даты в пределах окна; одна выборка по индексу даты.
+    private static final String SELECT_AS_OF = "SELECT h.currency_id, h.abbreviation, h.date, h.rate "
+            + "FROM rate_history h "
+            + "JOIN (SELECT abbreviation, MAX(date) AS latest FROM rate_history WHERE date BETWEEN ? AND ? "
+            + "GROUP BY abbreviation) l ON h.abbreviation = l.abbreviation AND h.date = l.latest";
+    private static final String SELECT_ALL = "SELECT abbreviation, date, rate FROM rate_history";
+    // Повторный запуск ничего не дублирует: строка по (abbreviation, date) лишь получает текущий курс.
+    private static final String BACKFILL = "INSERT INTO rate_history (currency_id, abbreviation, date, rate) "
+            + "SELECT id, abbreviation, date, rate FROM currency_rate "
+            + "WHERE abbreviation IS NOT NULL AND date IS NOT NULL AND CHAR_LENGTH(abbreviation) <= "
+            + RateHistory.MAX_ABBREVIATION_LENGTH + " "
+            + "ON DUPLICATE KEY UPDATE currency_id = VALUES(currency_id), rate = VALUES(rate)";
+    private static final int FETCH_SIZE = 1000;
+
+    private static final RowMapper<CurrencyRate> AS_OF_MAPPER = (rs, rowNum) -> {
+        CurrencyRate rate = new CurrencyRate();
+        long currencyId = rs.getLong("currency_id");
+        rate.setId(rs.wasNull() ? null : currencyId);
+        rate.setAbbreviation(rs.getString("abbreviation"));
+        rate.setDate(rs.getDate("date").toLocalDate());
+        rate.setRate(rs.getBigDecimal("rate"));
+        return rate;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RateHistoryJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Курсы, действовавшие на дату {@code date}: для каждой валюты строка с наибольшей датой
+     * из [{@code from}, {@code date}]. Read-only транзакция позволяет отправить выборку на реплику.
+     */
+    @Transactional(readOnly = true)
+    public List<CurrencyRate> findAsOf(LocalDate from, LocalDate date) {
+        return jdbcTemplate.query(SELECT_AS_OF, AS_OF_MAPPER, Date.valueOf(from), Date.valueOf(date));
+    }
+
+    /**
+     * Передаёт потребителю всю историю, читая курсор порциями по {@value #FETCH_SIZE} строк.
+     * У строк заполнены только аббревиатура, дата и курс.
+     */
+    public void forEach(Consumer<RateHistory> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_ALL);
+            statement.setFetchSize(FETCH_SIZE);
+            return statement;
+        }, rs -> {
+            RateHistory row = new RateHistory();
+            row.setAbbreviation(rs.getString("abbreviation"));
+            row.setDate(rs.getDate("date").toLocalDate());
+            row.setRate(rs.getBigDecimal("rate"));
+            consumer.accept(row);
+        });
+    }
+
+    /**
+     * Переносит в историю текущие курсы, у которых есть аббревиатура и дата, одним запросом INSERT ... SELECT.
+     */
+    public int backfillFromCurrentRates() {
+        return jdbcTemplate.update(BACKFILL);
+    }
+
+    public int batchUpsert(List<CurrencyRate> rates, int batchSize) {
+        List<CurrencyRate> dated = rates.stream()
+                .filter(rate -> rate.getAbbreviation() != null && rate.getDate() != null)
+                .toList();
+        if (dated.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate(UPSERT, dated, batchSize, (ps, rate) -> {
+            ps.setLong(1, rate.getId());
+            ps.setString(2, rate.getAbbreviation());
+            ps.setDate(3, Date.valueOf(rate.getDate()));
+            ps.setBigDecimal(4, rate.getRate());
+        });
+        return dated.size();
+    }
+}
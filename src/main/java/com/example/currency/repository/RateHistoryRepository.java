@@ -0,0 +1,24 @@
+package com.example.currency.repository;
+
+import com.example.currency.models.RateHistory;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+public interface RateHistoryRepository extends JpaRepository<RateHistory, Long> {
+    List<RateHistory> findByAbbreviationAndDateBetweenOrderByDateAsc(String abbreviation, LocalDate from, LocalDate to);
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    Stream<RateHistory> streamByAbbreviationAndDateBetweenOrderByDateAsc(String abbreviation, LocalDate from,
+                                                                         LocalDate to);
+}
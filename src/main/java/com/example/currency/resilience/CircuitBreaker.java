@@ -0,0 +1,129 @@
+package com.example.currency.resilience;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Предохранитель для вызовов внешнего сервиса. После {@code failureThreshold} подряд неудачных
+ * или медленных вызовов размыкается и сразу отклоняет запросы; по истечении {@code openDuration}
+ * пропускает один пробный вызов и по его результату замыкается или размыкается снова.
+ */
+public class CircuitBreaker {
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long slowCallNanos;
+    private final long openNanos;
+
+    private volatile State state = State.CLOSED;
+    private volatile int consecutiveFailures;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    private final LongAdder successes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder slowCalls = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder opened = new LongAdder();
+
+    public CircuitBreaker(String name, int failureThreshold, Duration slowCallThreshold, Duration openDuration) {
+        this.name = name;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.slowCallNanos = slowCallThreshold.toNanos();
+        this.openNanos = openDuration.toNanos();
+    }
+
+    public boolean tryAcquirePermission() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        synchronized (this) {
+            if (state == State.CLOSED) {
+                return true;
+            }
+            if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+                state = State.HALF_OPEN;
+                probeInFlight = false;
+                logger.info("Circuit breaker {} half-open, probing upstream", name);
+            }
+            if (state == State.HALF_OPEN && !probeInFlight) {
+                probeInFlight = true;
+                return true;
+            }
+            rejected.increment();
+            return false;
+        }
+    }
+
+    public void onSuccess(long durationNanos) {
+        if (durationNanos > slowCallNanos) {
+            slowCalls.increment();
+            onFailure();
+            return;
+        }
+        successes.increment();
+        if (state == State.CLOSED && consecutiveFailures == 0) {
+            return;
+        }
+        synchronized (this) {
+            consecutiveFailures = 0;
+            if (state == State.HALF_OPEN) {
+                state = State.CLOSED;
+                probeInFlight = false;
+                logger.info("Circuit breaker {} closed", name);
+            }
+        }
+    }
+
+    public synchronized void onFailure() {
+        failures.increment();
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+            probeInFlight = false;
+            opened.increment();
+            logger.warn("Circuit breaker {} opened after {} consecutive failures", name, consecutiveFailures);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    public long getSuccessCount() {
+        return successes.sum();
+    }
+
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    public long getSlowCallCount() {
+        return slowCalls.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public long getOpenedCount() {
+        return opened.sum();
+    }
+}
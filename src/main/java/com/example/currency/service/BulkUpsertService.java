@@ -0,0 +1,204 @@
+package com.example.currency.service;
+
+import com.example.currency.cache.BoundedCache;
+import com.example.currency.cache.DataVersions;
+import com.example.currency.dto.BulkReport;
+import com.example.currency.events.RateChangeEvent;
+import com.example.currency.models.CurrencyInfo;
+import com.example.currency.models.CurrencyRate;
+import com.example.currency.models.RateHistory;
+import com.example.currency.repository.CurrencyInfoJdbcRepository;
+import com.example.currency.repository.CurrencyRateJdbcRepository;
+import com.example.currency.snapshot.RateSnapshot;
+import com.example.currency.snapshot.RateSnapshotHolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Массовая загрузка курсов и валют. Строки читаются из итератора (массив JSON или поток NDJSON), проверяются
+ * и пишутся чанками: каждый чанк — отдельная транзакция с JDBC-пакетами upsert без select по каждой строке.
+ * Кэши, снимок курсов и версии данных обновляются один раз в конце, даже если загрузка прервалась.
+ * После каждого чанка публикуются события: новые курсы — CREATED, уже существовавшие — UPDATED.
+ */
+@Service
+public class BulkUpsertService {
+    private static final Logger logger = LoggerFactory.getLogger(BulkUpsertService.class);
+    private final CurrencyRateJdbcRepository rateJdbcRepository;
+    private final CurrencyInfoJdbcRepository currencyInfoJdbcRepository;
+    private final RateHistoryService rateHistoryService;
+    private final RateSnapshotHolder rateSnapshotHolder;
+    private final BoundedCache<Long, CurrencyRate> currencyRateCache;
+    private final BoundedCache<Integer, CurrencyInfo> currencyInfoCache;
+    private final BoundedCache<String, List<CurrencyInfo>> currencyListCache;
+    private final DataVersions dataVersions;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int batchSize;
+
+    @Autowired
+    public BulkUpsertService(CurrencyRateJdbcRepository rateJdbcRepository,
+                             CurrencyInfoJdbcRepository currencyInfoJdbcRepository,
+                             RateHistoryService rateHistoryService,
+                             RateSnapshotHolder rateSnapshotHolder,
+                             BoundedCache<Long, CurrencyRate> currencyRateCache,
+                             BoundedCache<Integer, CurrencyInfo> currencyInfoCache,
+                             BoundedCache<String, List<CurrencyInfo>> currencyListCache,
+                             DataVersions dataVersions,
+                             ApplicationEventPublisher eventPublisher,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${bulk.chunk-size:5000}") int chunkSize,
+                             @Value("${bulk.batch-size:500}") int batchSize) {
+        this.rateJdbcRepository = rateJdbcRepository;
+        this.currencyInfoJdbcRepository = currencyInfoJdbcRepository;
+        this.rateHistoryService = rateHistoryService;
+        this.rateSnapshotHolder = rateSnapshotHolder;
+        this.currencyRateCache = currencyRateCache;
+        this.currencyInfoCache = currencyInfoCache;
+        this.currencyListCache = currencyListCache;
+        this.dataVersions = dataVersions;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.batchSize = batchSize;
+    }
+
+    public BulkReport upsertRates(Iterator<CurrencyRate> rows) {
+        BulkReport report = new BulkReport();
+        RateSnapshot existing = rateSnapshotHolder.current();
+        Set<Long> createdIds = new HashSet<>();
+        try {
+            upsert(rows, report, BulkUpsertService::validateRate,
+                    chunk -> {
+                        rateJdbcRepository.batchUpsert(chunk, batchSize);
+                        rateHistoryService.recordAll(chunk, batchSize);
+                    },
+                    chunk -> publishRateChanges(chunk, existing, createdIds));
+        } finally {
+            if (report.getWritten() > 0) {
+                currencyRateCache.invalidateAll();
+                rateSnapshotHolder.rebuild();
+                dataVersions.rates().bump();
+            }
+        }
+        logger.info("Массовая загрузка курсов: записано {}, отклонено {}, чанков {} за {} мс",
+                report.getWritten(), report.getRejected(), report.getChunks().size(), report.getDurationMs());
+        return report;
+    }
+
+    public BulkReport upsertCurrencies(Iterator<CurrencyInfo> rows) {
+        BulkReport report = new BulkReport();
+        try {
+            upsert(rows, report, BulkUpsertService::validateCurrency,
+                    chunk -> currencyInfoJdbcRepository.batchUpsert(chunk, batchSize),
+                    chunk -> { });
+        } finally {
+            if (report.getWritten() > 0) {
+                currencyInfoCache.invalidateAll();
+                currencyListCache.invalidateAll();
+                dataVersions.currencies().bump();
+            }
+        }
+        logger.info("Массовая загрузка валют: записано {}, отклонено {}, чанков {} за {} мс",
+                report.getWritten(), report.getRejected(), report.getChunks().size(), report.getDurationMs());
+        return report;
+    }
+
+    private <T> void upsert(Iterator<T> rows, BulkReport report, Function<T, String> validator,
+                            Consumer<List<T>> writer, Consumer<List<T>> afterCommit) {
+        long start = System.nanoTime();
+        List<T> chunk = new ArrayList<>(chunkSize);
+        int row = 0;
+        while (rows.hasNext()) {
+            T item = rows.next();
+            row++;
+            String error = validator.apply(item);
+            if (error != null) {
+                report.reject(row, error);
+                continue;
+            }
+            chunk.add(item);
+            if (chunk.size() == chunkSize) {
+                flush(chunk, report, writer, afterCommit);
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            flush(chunk, report, writer, afterCommit);
+        }
+        report.finish(elapsedMillis(start));
+    }
+
+    private <T> void flush(List<T> chunk, BulkReport report, Consumer<List<T>> writer, Consumer<List<T>> afterCommit) {
+        long start = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> writer.accept(chunk));
+        report.addChunk(chunk.size(), elapsedMillis(start));
+        afterCommit.accept(chunk);
+    }
+
+    // Новизна курса определяется по снимку до загрузки и ID, уже созданным этой загрузкой, без запросов к базе.
+    private void publishRateChanges(List<CurrencyRate> chunk, RateSnapshot existing, Set<Long> createdIds) {
+        List<CurrencyRate> created = new ArrayList<>();
+        List<CurrencyRate> updated = new ArrayList<>();
+        for (CurrencyRate rate : chunk) {
+            if (existing.indexOf(rate.getId()) < 0 && createdIds.add(rate.getId())) {
+                created.add(rate);
+            } else {
+                updated.add(rate);
+            }
+        }
+        if (!created.isEmpty()) {
+            eventPublisher.publishEvent(new RateChangeEvent(RateChangeEvent.Type.CREATED, created));
+        }
+        if (!updated.isEmpty()) {
+            eventPublisher.publishEvent(new RateChangeEvent(RateChangeEvent.Type.UPDATED, updated));
+        }
+    }
+
+    private static String validateRate(CurrencyRate rate) {
+        if (rate == null) {
+            return "Пустая строка";
+        }
+        if (rate.getId() == null) {
+            return "Не указан ID курса";
+        }
+        if (rate.getRate() == null || rate.getRate().signum() <= 0) {
+            return "Курс должен быть больше нуля";
+        }
+        if (rate.getAbbreviation() != null && rate.getAbbreviation().length() > RateHistory.MAX_ABBREVIATION_LENGTH) {
+            return "Аббревиатура не может быть длиннее " + RateHistory.MAX_ABBREVIATION_LENGTH + " символов";
+        }
+        return null;
+    }
+
+    private static String validateCurrency(CurrencyInfo currency) {
+        if (currency == null) {
+            return "Пустая строка";
+        }
+        if (currency.getId() == null) {
+            return "Не указан ID валюты";
+        }
+        if (currency.getAbbreviation() == null || currency.getAbbreviation().trim().isEmpty()) {
+            return "Аббревиатура валюты не может быть пустой";
+        }
+        return null;
+    }
+
+    private static long elapsedMillis(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
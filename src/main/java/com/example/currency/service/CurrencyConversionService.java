@@ -1,89 +1,282 @@
 package com.example.currency.service;
 
+import com.example.currency.cache.BoundedCache;
+import com.example.currency.cache.DataVersions;
+import com.example.currency.dto.ConversionRequest;
+import com.example.currency.dto.ConversionResult;
+import com.example.currency.dto.KeysetPage;
+import com.example.currency.events.RateChangeEvent;
 import com.example.currency.exception.ApiException;
 import com.example.currency.models.CurrencyRate;
+import com.example.currency.models.RateHistory;
 import com.example.currency.repository.CurrencyRateRepository;
+import com.example.currency.snapshot.RateSnapshot;
+import com.example.currency.snapshot.RateSnapshotHolder;
+import jakarta.persistence.EntityManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class CurrencyConversionService {
     private static final Logger logger = LoggerFactory.getLogger(CurrencyConversionService.class);
+    private static final int RESULT_SCALE = 4;
     private final CurrencyRateRepository rateRepository;
+    private final BoundedCache<Long, CurrencyRate> currencyRateCache;
+    private final RateSnapshotHolder rateSnapshotHolder;
+    private final RateHistoryService rateHistoryService;
+    private final EntityManager entityManager;
+    private final DataVersions dataVersions;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxPageSize;
 
     @Autowired
-    public CurrencyConversionService(CurrencyRateRepository rateRepository) {
+    public CurrencyConversionService(CurrencyRateRepository rateRepository,
+                                     BoundedCache<Long, CurrencyRate> currencyRateCache,
+                                     RateSnapshotHolder rateSnapshotHolder,
+                                     RateHistoryService rateHistoryService,
+                                     EntityManager entityManager,
+                                     DataVersions dataVersions,
+                                     ApplicationEventPublisher eventPublisher,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${pagination.max-limit:1000}") int maxPageSize) {
         this.rateRepository = rateRepository;
+        this.currencyRateCache = currencyRateCache;
+        this.rateSnapshotHolder = rateSnapshotHolder;
+        this.rateHistoryService = rateHistoryService;
+        this.entityManager = entityManager;
+        this.dataVersions = dataVersions;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxPageSize = maxPageSize;
     }
 
     public BigDecimal convertCurrency(Integer fromId, Integer toId, BigDecimal amount) {
-        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
-            logger.error("Недопустимая сумма для конвертации: {}", amount);
-            throw new ApiException("Сумма должна быть больше нуля", HttpStatus.BAD_REQUEST);
+        return convertCurrency(fromId, toId, amount, null);
+    }
+
+    /**
+     * Конвертация по курсам на дату {@code date}; {@code null} означает текущие курсы.
+     * Для прошлой даты берётся кэшируемый снимок курсов из истории, см. {@link RateHistoryService#snapshotAsOf}.
+     */
+    public BigDecimal convertCurrency(Integer fromId, Integer toId, BigDecimal amount, LocalDate date) {
+        ConversionResult conversion = convert(snapshotAt(date), fromId, toId, amount);
+        if (!conversion.isSuccessful()) {
+            logger.debug("Ошибка конвертации {} -> {}: {}", fromId, toId, conversion.getError());
+            throw new ApiException(conversion.getError(), HttpStatus.valueOf(conversion.getStatus()));
         }
+        BigDecimal result = conversion.getResult();
+        logger.debug("Конвертация выполнена: {} {} -> {} {}", amount, fromId, result, toId);
+        return result;
+    }
 
-        Optional<CurrencyRate> fromRateOpt = rateRepository.findById((long) fromId);
-        Optional<CurrencyRate> toRateOpt = rateRepository.findById((long) toId);
+    public List<ConversionResult> convertBatch(List<ConversionRequest> requests) {
+        RateSnapshot snapshot = rateSnapshotHolder.current();
+        List<ConversionResult> results = new ArrayList<>(requests.size());
+        for (ConversionRequest request : requests) {
+            results.add(convert(snapshot, request));
+        }
+        return results;
+    }
 
-        if (fromRateOpt.isEmpty() || toRateOpt.isEmpty()) {
-            logger.error("Валюты с ID {} или {} не найдены", fromId, toId);
-            throw new ApiException("Одна из валют не найдена", HttpStatus.NOT_FOUND);
+    public ConversionResult convert(RateSnapshot snapshot, ConversionRequest request) {
+        if (request == null) {
+            return ConversionResult.failure(null, null, null, HttpStatus.BAD_REQUEST.value(),
+                    "Пустой запрос конвертации");
         }
+        RateSnapshot source = request.getDate() != null ? rateHistoryService.snapshotAsOf(request.getDate()) : snapshot;
+        return convert(source, request.getFrom(), request.getTo(), request.getAmount());
+    }
 
-        CurrencyRate fromRate = fromRateOpt.get();
-        CurrencyRate toRate = toRateOpt.get();
+    private RateSnapshot snapshotAt(LocalDate date) {
+        return date != null ? rateHistoryService.snapshotAsOf(date) : rateSnapshotHolder.current();
+    }
 
-        if (fromRate.getRate() == null || toRate.getRate() == null) {
-            logger.error("Курс для валюты с ID {} или {} равен null", fromId, toId);
-            throw new ApiException("Курс валюты отсутствует", HttpStatus.INTERNAL_SERVER_ERROR);
+    private ConversionResult convert(RateSnapshot snapshot, Integer fromId, Integer toId, BigDecimal amount) {
+        if (amount == null || amount.signum() <= 0) {
+            return ConversionResult.failure(fromId, toId, amount, HttpStatus.BAD_REQUEST.value(),
+                    "Сумма должна быть больше нуля");
+        }
+        if (fromId == null || toId == null) {
+            return ConversionResult.failure(fromId, toId, amount, HttpStatus.BAD_REQUEST.value(),
+                    "Не указаны валюты для конвертации");
         }
 
-        if (fromRate.getRate().compareTo(BigDecimal.ZERO) <= 0 || toRate.getRate().compareTo(BigDecimal.ZERO) <= 0) {
-            logger.error("Недопустимые курсы для валют с ID {} или {}", fromId, toId);
-            throw new ApiException("Недопустимые курсы валют", HttpStatus.INTERNAL_SERVER_ERROR);
+        int fromIndex = snapshot.indexOf(fromId);
+        int toIndex = snapshot.indexOf(toId);
+        if (fromIndex < 0 || toIndex < 0) {
+            return ConversionResult.failure(fromId, toId, amount, HttpStatus.NOT_FOUND.value(),
+                    "Одна из валют не найдена");
         }
+        return convertAt(snapshot, fromIndex, toIndex, fromId, toId, amount);
+    }
 
-        BigDecimal result = amount.multiply(toRate.getRate()).divide(fromRate.getRate(), 4, RoundingMode.HALF_UP);
-        logger.info("Конвертация выполнена: {} {} -> {} {}", amount, fromId, result, toId);
-        return result;
+    /**
+     * Конвертация по кодам валют (ISO 4217) без учёта регистра. Коды разрешаются через индекс снимка,
+     * поэтому запрос не обращается к базе.
+     */
+    public ConversionResult convertByCode(String fromCode, String toCode, BigDecimal amount) {
+        return convertByCode(fromCode, toCode, amount, null);
     }
 
+    public ConversionResult convertByCode(String fromCode, String toCode, BigDecimal amount, LocalDate date) {
+        if (amount == null || amount.signum() <= 0) {
+            throw new ApiException("Сумма должна быть больше нуля", HttpStatus.BAD_REQUEST);
+        }
+        RateSnapshot snapshot = snapshotAt(date);
+        int fromIndex = snapshot.indexOfAbbreviation(fromCode);
+        if (fromIndex < 0) {
+            throw new ApiException("Валюта не найдена: " + fromCode, HttpStatus.NOT_FOUND);
+        }
+        int toIndex = snapshot.indexOfAbbreviation(toCode);
+        if (toIndex < 0) {
+            throw new ApiException("Валюта не найдена: " + toCode, HttpStatus.NOT_FOUND);
+        }
+        ConversionResult conversion = convertAt(snapshot, fromIndex, toIndex,
+                (int) snapshot.idAt(fromIndex), (int) snapshot.idAt(toIndex), amount);
+        if (!conversion.isSuccessful()) {
+            logger.debug("Ошибка конвертации {} -> {}: {}", fromCode, toCode, conversion.getError());
+            throw new ApiException(conversion.getError(), HttpStatus.valueOf(conversion.getStatus()));
+        }
+        return conversion;
+    }
+
+    private ConversionResult convertAt(RateSnapshot snapshot, int fromIndex, int toIndex,
+                                       Integer fromId, Integer toId, BigDecimal amount) {
+        BigDecimal fromRate = snapshot.rateAt(fromIndex);
+        BigDecimal toRate = snapshot.rateAt(toIndex);
+        if (fromRate == null || toRate == null) {
+            return ConversionResult.failure(fromId, toId, amount, HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                    "Курс валюты отсутствует");
+        }
+        if (fromRate.signum() <= 0 || toRate.signum() <= 0) {
+            return ConversionResult.failure(fromId, toId, amount, HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                    "Недопустимые курсы валют");
+        }
+
+        BigDecimal result = snapshot.convert(fromIndex, toIndex, amount, RESULT_SCALE);
+        return ConversionResult.success(fromId, toId, amount, result);
+    }
+
+    @Transactional(readOnly = true)
     public List<CurrencyRate> getAllRates() {
         return rateRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    public KeysetPage<CurrencyRate> getRatesPage(Long after, int limit) {
+        if (limit <= 0 || limit > maxPageSize) {
+            throw new ApiException("Размер страницы должен быть от 1 до " + maxPageSize, HttpStatus.BAD_REQUEST);
+        }
+        List<CurrencyRate> items = rateRepository.findByIdGreaterThanOrderByIdAsc(
+                after != null ? after : Long.MIN_VALUE, Limit.of(limit));
+        return KeysetPage.of(items, limit, CurrencyRate::getId);
+    }
+
+    @Transactional(readOnly = true)
+    public void streamRates(Consumer<CurrencyRate> consumer) {
+        try (Stream<CurrencyRate> rows = rateRepository.streamAll()) {
+            rows.forEach(row -> {
+                consumer.accept(row);
+                entityManager.detach(row);
+            });
+        }
+    }
+
     public Optional<CurrencyRate> getRateById(Long id) {
-        return rateRepository.findById(id);
+        return Optional.ofNullable(currencyRateCache.get(id, key -> rateRepository.findById(key).orElse(null)));
     }
 
     public CurrencyRate createRate(CurrencyRate rate) {
-        if (rate.getRate() == null || rate.getRate().compareTo(BigDecimal.ZERO) <= 0) {
-            throw new ApiException("Курс должен быть больше нуля", HttpStatus.BAD_REQUEST);
-        }
-        return rateRepository.save(rate);
+        validateRate(rate);
+        RateChangeEvent.Type type = changeType(rate.getId());
+        CurrencyRate saved = save(rate);
+        onRateSaved(saved, type);
+        return saved;
     }
 
     public CurrencyRate updateRate(Long id, CurrencyRate rate) {
-        if (rate.getRate() == null || rate.getRate().compareTo(BigDecimal.ZERO) <= 0) {
-            throw new ApiException("Курс должен быть больше нуля", HttpStatus.BAD_REQUEST);
-        }
+        validateRate(rate);
         rate.setId(id);
-        return rateRepository.save(rate);
+        RateChangeEvent.Type type = changeType(id);
+        CurrencyRate saved = save(rate);
+        onRateSaved(saved, type);
+        return saved;
     }
 
     public void deleteRate(Long id) {
+        RateSnapshot snapshot = rateSnapshotHolder.current();
+        int index = snapshot.indexOf(id);
         rateRepository.deleteById(id);
+        currencyRateCache.invalidate(id);
+        if (index < 0) {
+            // Курса не было: снимок не меняется, версия и событие DELETED не нужны.
+            return;
+        }
+        rateSnapshotHolder.remove(id);
+        dataVersions.rates().bump();
+
+        CurrencyRate deleted = new CurrencyRate();
+        deleted.setId(id);
+        deleted.setAbbreviation(snapshot.abbreviationAt(index));
+        eventPublisher.publishEvent(RateChangeEvent.of(RateChangeEvent.Type.DELETED, deleted));
+    }
+
+    // Тип события определяется по снимку до записи, как в BulkUpsertService: id, которого нет в снимке, — новый курс.
+    private RateChangeEvent.Type changeType(Long id) {
+        return id == null || rateSnapshotHolder.current().indexOf(id) < 0
+                ? RateChangeEvent.Type.CREATED : RateChangeEvent.Type.UPDATED;
+    }
+
+    private static void validateRate(CurrencyRate rate) {
+        if (rate.getRate() == null || rate.getRate().signum() <= 0) {
+            throw new ApiException("Курс должен быть больше нуля", HttpStatus.BAD_REQUEST);
+        }
+        if (rate.getAbbreviation() != null && rate.getAbbreviation().length() > RateHistory.MAX_ABBREVIATION_LENGTH) {
+            throw new ApiException("Аббревиатура не может быть длиннее " + RateHistory.MAX_ABBREVIATION_LENGTH
+                    + " символов", HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    // Курс и строка истории пишутся одной транзакцией: если история не записалась, курс тоже откатывается.
+    private CurrencyRate save(CurrencyRate rate) {
+        return transactionTemplate.execute(status -> {
+            CurrencyRate saved = rateRepository.save(rate);
+            rateHistoryService.record(saved);
+            return saved;
+        });
+    }
+
+    // Кэш, снимок, версия и событие обновляются только после фиксации, поэтому не опережают базу.
+    private void onRateSaved(CurrencyRate saved, RateChangeEvent.Type type) {
+        currencyRateCache.put(saved.getId(), saved);
+        rateSnapshotHolder.apply(saved);
+        dataVersions.rates().bump();
+        eventPublisher.publishEvent(RateChangeEvent.of(type, saved));
+    }
+
+    public RateSnapshot getRateSnapshot() {
+        return rateSnapshotHolder.current();
     }
 
+    @Transactional(readOnly = true)
     public List<CurrencyRate> getRatesByAbbreviationAndDate(String abbreviation, LocalDate date) {
         return rateRepository.findByAbbreviationAndDate(abbreviation, date);
     }
@@ -1,57 +1,116 @@
 package com.example.currency.service;
 
+import com.example.currency.cache.BoundedCache;
+import com.example.currency.cache.DataVersions;
+import com.example.currency.dto.KeysetPage;
 import com.example.currency.exception.ApiException;
 import com.example.currency.models.CurrencyInfo;
 import com.example.currency.repository.CurrencyInfoRepository;
+import jakarta.persistence.EntityManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class CurrencyService {
     private static final Logger logger = LoggerFactory.getLogger(CurrencyService.class);
+    static final String ALL_CURRENCIES_KEY = "all";
     private final CurrencyInfoRepository currencyInfoRepository;
+    private final BoundedCache<Integer, CurrencyInfo> currencyInfoCache;
+    private final BoundedCache<String, List<CurrencyInfo>> currencyListCache;
+    private final EntityManager entityManager;
+    private final DataVersions dataVersions;
+    private final int maxPageSize;
 
     @Autowired
-    public CurrencyService(CurrencyInfoRepository currencyInfoRepository) {
+    public CurrencyService(CurrencyInfoRepository currencyInfoRepository,
+                           BoundedCache<Integer, CurrencyInfo> currencyInfoCache,
+                           BoundedCache<String, List<CurrencyInfo>> currencyListCache,
+                           EntityManager entityManager,
+                           DataVersions dataVersions,
+                           @Value("${pagination.max-limit:1000}") int maxPageSize) {
         this.currencyInfoRepository = currencyInfoRepository;
+        this.currencyInfoCache = currencyInfoCache;
+        this.currencyListCache = currencyListCache;
+        this.entityManager = entityManager;
+        this.dataVersions = dataVersions;
+        this.maxPageSize = maxPageSize;
     }
 
     public List<CurrencyInfo> getAllCurrencies() {
-        return currencyInfoRepository.findAll();
+        return currencyListCache.get(ALL_CURRENCIES_KEY, key -> List.copyOf(currencyInfoRepository.findAll()));
     }
 
+    @Transactional(readOnly = true)
     public List<CurrencyInfo> getAllCurrenciesFromDb() {
         return currencyInfoRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    public KeysetPage<CurrencyInfo> getCurrenciesPage(Integer after, int limit) {
+        if (limit <= 0 || limit > maxPageSize) {
+            throw new ApiException("Размер страницы должен быть от 1 до " + maxPageSize, HttpStatus.BAD_REQUEST);
+        }
+        List<CurrencyInfo> items = currencyInfoRepository.findByIdGreaterThanOrderByIdAsc(
+                after != null ? after : Integer.MIN_VALUE, Limit.of(limit));
+        return KeysetPage.of(items, limit, CurrencyInfo::getId);
+    }
+
+    @Transactional(readOnly = true)
+    public void streamCurrencies(Consumer<CurrencyInfo> consumer) {
+        try (Stream<CurrencyInfo> rows = currencyInfoRepository.streamAll()) {
+            rows.forEach(row -> {
+                consumer.accept(row);
+                entityManager.detach(row);
+            });
+        }
+    }
+
     public Optional<CurrencyInfo> getCurrencyById(Integer id) {
-        return currencyInfoRepository.findById(id);
+        return Optional.ofNullable(currencyInfoCache.get(id, key -> currencyInfoRepository.findById(key).orElse(null)));
     }
 
     public CurrencyInfo createCurrency(CurrencyInfo currencyInfo) {
         if (currencyInfo.getAbbreviation() == null || currencyInfo.getAbbreviation().trim().isEmpty()) {
-            logger.error("Аббревиатура валюты не может быть пустой");
+            logger.debug("Аббревиатура валюты не может быть пустой");
             throw new ApiException("Аббревиатура валюты не может быть пустой", HttpStatus.BAD_REQUEST);
         }
-        return currencyInfoRepository.save(currencyInfo);
+        CurrencyInfo saved = currencyInfoRepository.save(currencyInfo);
+        onCurrencySaved(saved);
+        return saved;
     }
 
     public CurrencyInfo updateCurrency(Integer id, CurrencyInfo currencyInfo) {
         if (currencyInfo.getAbbreviation() == null || currencyInfo.getAbbreviation().trim().isEmpty()) {
-            logger.error("Аббревиатура валюты не может быть пустой");
+            logger.debug("Аббревиатура валюты не может быть пустой");
             throw new ApiException("Аббревиатура валюты не может быть пустой", HttpStatus.BAD_REQUEST);
         }
         currencyInfo.setId(id);
-        return currencyInfoRepository.save(currencyInfo);
+        CurrencyInfo saved = currencyInfoRepository.save(currencyInfo);
+        onCurrencySaved(saved);
+        return saved;
     }
 
     public void deleteCurrency(Integer id) {
         currencyInfoRepository.deleteById(id);
+        currencyInfoCache.invalidate(id);
+        currencyListCache.invalidateAll();
+        dataVersions.currencies().bump();
+    }
+
+    private void onCurrencySaved(CurrencyInfo saved) {
+        currencyInfoCache.put(saved.getId(), saved);
+        currencyListCache.invalidateAll();
+        dataVersions.currencies().bump();
     }
 }
\ No newline at end of file
@@ -0,0 +1,176 @@
+package com.example.currency.service;
+
+import com.example.currency.cache.BoundedCache;
+import com.example.currency.exception.ApiException;
+import com.example.currency.models.CurrencyRate;
+import com.example.currency.models.RateHistory;
+import com.example.currency.repository.RateHistoryJdbcRepository;
+import com.example.currency.repository.RateHistoryRepository;
+import com.example.currency.snapshot.RateSnapshot;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+@Service
+public class RateHistoryService {
+    private static final Logger logger = LoggerFactory.getLogger(RateHistoryService.class);
+    private static final int RECENT_SLOTS = 8;
+    private final RateHistoryRepository rateHistoryRepository;
+    private final RateHistoryJdbcRepository rateHistoryJdbcRepository;
+    private final EntityManager entityManager;
+    private final BoundedCache<LocalDate, RateSnapshot> historicalRateCache;
+    private final int lookbackDays;
+    private final AtomicLong historyWrites = new AtomicLong();
+    // Последние снимки по слоту epochDay % 8: соседние даты не вытесняют друг друга. Записи неизменяемы,
+    // поэтому гонка при записи в слот безопасна; любая запись истории делает их недействительными.
+    private final DatedSnapshot[] recentSnapshots = new DatedSnapshot[RECENT_SLOTS];
+
+    @Autowired
+    public RateHistoryService(RateHistoryRepository rateHistoryRepository,
+                              RateHistoryJdbcRepository rateHistoryJdbcRepository,
+                              EntityManager entityManager,
+                              BoundedCache<LocalDate, RateSnapshot> historicalRateCache,
+                              @Value("${conversion.history.lookback-days:31}") int lookbackDays) {
+        this.rateHistoryRepository = rateHistoryRepository;
+        this.rateHistoryJdbcRepository = rateHistoryJdbcRepository;
+        this.entityManager = entityManager;
+        this.historicalRateCache = historicalRateCache;
+        this.lookbackDays = lookbackDays;
+    }
+
+    /**
+     * Дополняет историю текущими курсами, записанными до её появления, чтобы запросы истории и конвертация
+     * на дату видели их. Выполняется до остальных обработчиков готовности, в том числе загрузки статистики.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void backfill() {
+        try {
+            int rows = rateHistoryJdbcRepository.backfillFromCurrentRates();
+            historyWrites.incrementAndGet();
+            historicalRateCache.invalidateAll();
+            logger.info("История курсов дополнена текущими курсами: затронуто строк {}", rows);
+        } catch (DataAccessException e) {
+            logger.warn("Не удалось дополнить историю текущими курсами: {}", e.getMessage());
+        }
+    }
+
+    public void record(CurrencyRate rate) {
+        rateHistoryJdbcRepository.batchUpsert(List.of(rate), 1);
+        if (rate.getDate() != null) {
+            invalidateAfterCommit(Set.of(rate.getDate()));
+        }
+    }
+
+    public void recordAll(List<CurrencyRate> rates, int batchSize) {
+        rateHistoryJdbcRepository.batchUpsert(rates, batchSize);
+        Set<LocalDate> dates = new LinkedHashSet<>();
+        for (CurrencyRate rate : rates) {
+            if (rate.getDate() != null) {
+                dates.add(rate.getDate());
+            }
+        }
+        invalidateAfterCommit(dates);
+    }
+
+    /**
+     * Неизменяемая таблица курсов на дату: для каждой валюты последний курс не старше {@code lookbackDays} дней.
+     * Холодная дата загружается одним запросом; конкурентные запросы той же даты ждут одну загрузку.
+     * Повторные обращения к недавним датам обходятся без поиска в кэше.
+     */
+    public RateSnapshot snapshotAsOf(LocalDate date) {
+        long writes = historyWrites.get();
+        int slot = (int) (date.toEpochDay() & (RECENT_SLOTS - 1));
+        DatedSnapshot recent = recentSnapshots[slot];
+        if (recent != null && recent.writes() == writes && recent.date().equals(date)) {
+            return recent.snapshot();
+        }
+        RateSnapshot snapshot = historicalRateCache.get(date, key -> RateSnapshot.build(key.toEpochDay(),
+                rateHistoryJdbcRepository.findAsOf(key.minusDays(lookbackDays), key)));
+        if (historyWrites.get() != writes) {
+            // История изменилась во время загрузки: снимок мог быть прочитан до записи.
+            historicalRateCache.invalidate(date);
+        } else {
+            recentSnapshots[slot] = new DatedSnapshot(date, writes, snapshot);
+        }
+        return snapshot;
+    }
+
+    // Сбрасываем снимки после фиксации транзакции, иначе параллельная загрузка успеет закэшировать старые курсы.
+    private void invalidateAfterCommit(Set<LocalDate> dates) {
+        if (dates.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(dates);
+                }
+            });
+        } else {
+            invalidate(dates);
+        }
+    }
+
+    // Курс за дату d входит в снимки дат d..d+lookbackDays.
+    private void invalidate(Set<LocalDate> dates) {
+        historyWrites.incrementAndGet();
+        for (LocalDate date : dates) {
+            for (int i = 0; i <= lookbackDays; i++) {
+                historicalRateCache.invalidate(date.plusDays(i));
+            }
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<RateHistory> getHistory(String abbreviation, LocalDate from, LocalDate to) {
+        validateRange(from, to);
+        return rateHistoryRepository.findByAbbreviationAndDateBetweenOrderByDateAsc(abbreviation, from, to);
+    }
+
+    /**
+     * Передаёт строки истории потребителю по мере чтения курсора, отсоединяя каждую от контекста
+     * персистентности, чтобы память не росла с длиной диапазона.
+     */
+    @Transactional(readOnly = true)
+    public void streamHistory(String abbreviation, LocalDate from, LocalDate to, Consumer<RateHistory> consumer) {
+        validateRange(from, to);
+        try (Stream<RateHistory> rows = rateHistoryRepository
+                .streamByAbbreviationAndDateBetweenOrderByDateAsc(abbreviation, from, to)) {
+            rows.forEach(row -> {
+                consumer.accept(row);
+                entityManager.detach(row);
+            });
+        }
+    }
+
+    private static void validateRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new ApiException("Дата начала периода позже даты окончания", HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    private record DatedSnapshot(LocalDate date, long writes, RateSnapshot snapshot) {
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.currency.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = "nbrb.sync.enabled", havingValue = "true", matchIfMissing = true)
+public class RateSyncScheduler {
+    private final RateSyncService rateSyncService;
+
+    public RateSyncScheduler(RateSyncService rateSyncService) {
+        this.rateSyncService = rateSyncService;
+    }
+
+    @Scheduled(cron = "${nbrb.sync.cron:0 5 0 * * *}", zone = "${nbrb.sync.zone:Europe/Minsk}")
+    public void syncRates() {
+        rateSyncService.sync();
+    }
+}
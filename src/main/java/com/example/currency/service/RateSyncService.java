@@ -0,0 +1,141 @@
+package com.example.currency.service;
+
+import com.example.currency.cache.BoundedCache;
+import com.example.currency.cache.DataVersions;
+import com.example.currency.client.NbrbApiClient;
+import com.example.currency.client.NbrbRate;
+import com.example.currency.dto.SyncReport;
+import com.example.currency.events.RateChangeEvent;
+import com.example.currency.models.CurrencyRate;
+import com.example.currency.repository.CurrencyRateJdbcRepository;
+import com.example.currency.snapshot.RateSnapshotHolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Service
+public class RateSyncService {
+    private static final Logger logger = LoggerFactory.getLogger(RateSyncService.class);
+    private final NbrbApiClient nbrbApiClient;
+    private final CurrencyRateJdbcRepository rateJdbcRepository;
+    private final RateSnapshotHolder rateSnapshotHolder;
+    private final RateHistoryService rateHistoryService;
+    private final BoundedCache<Long, CurrencyRate> currencyRateCache;
+    private final DataVersions dataVersions;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final AtomicReference<SyncReport> lastReport = new AtomicReference<>();
+
+    @Autowired
+    public RateSyncService(NbrbApiClient nbrbApiClient,
+                           CurrencyRateJdbcRepository rateJdbcRepository,
+                           RateSnapshotHolder rateSnapshotHolder,
+                           RateHistoryService rateHistoryService,
+                           BoundedCache<Long, CurrencyRate> currencyRateCache,
+                           DataVersions dataVersions,
+                           ApplicationEventPublisher eventPublisher,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${nbrb.sync.batch-size:500}") int batchSize) {
+        this.nbrbApiClient = nbrbApiClient;
+        this.rateJdbcRepository = rateJdbcRepository;
+        this.rateSnapshotHolder = rateSnapshotHolder;
+        this.rateHistoryService = rateHistoryService;
+        this.currencyRateCache = currencyRateCache;
+        this.dataVersions = dataVersions;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    public synchronized SyncReport sync() {
+        Instant startedAt = Instant.now();
+        long start = System.nanoTime();
+        SyncReport report;
+        try {
+            Map<Long, CurrencyRate> fetched = new LinkedHashMap<>();
+            for (NbrbRate nbrbRate : nbrbApiClient.getAllRates()) {
+                if (nbrbRate.getCurId() != null) {
+                    CurrencyRate rate = nbrbRate.toCurrencyRate();
+                    fetched.put(rate.getId(), rate);
+                }
+            }
+
+            Map<Long, CurrencyRate> stored = new HashMap<>();
+            for (CurrencyRate rate : rateJdbcRepository.findAll()) {
+                stored.put(rate.getId(), rate);
+            }
+
+            List<CurrencyRate> inserts = new ArrayList<>();
+            List<CurrencyRate> updates = new ArrayList<>();
+            for (CurrencyRate rate : fetched.values()) {
+                CurrencyRate existing = stored.get(rate.getId());
+                if (existing == null) {
+                    inserts.add(rate);
+                } else if (isChanged(existing, rate)) {
+                    updates.add(rate);
+                }
+            }
+
+            if (!inserts.isEmpty() || !updates.isEmpty()) {
+                transactionTemplate.executeWithoutResult(status -> {
+                    rateJdbcRepository.batchInsert(inserts, batchSize);
+                    rateJdbcRepository.batchUpdate(updates, batchSize);
+                    rateHistoryService.recordAll(inserts, batchSize);
+                    rateHistoryService.recordAll(updates, batchSize);
+                });
+                currencyRateCache.invalidateAll();
+                rateSnapshotHolder.rebuild();
+                dataVersions.rates().bump();
+
+                // Синхронизация без изменений не будит подписчиков SSE.
+                List<CurrencyRate> changed = new ArrayList<>(inserts.size() + updates.size());
+                changed.addAll(inserts);
+                changed.addAll(updates);
+                eventPublisher.publishEvent(new RateChangeEvent(RateChangeEvent.Type.SYNC_COMPLETED, changed));
+            }
+
+            report = SyncReport.success(startedAt, elapsedMillis(start), fetched.size(), inserts.size(),
+                    updates.size());
+            logger.info("Синхронизация курсов завершена: получено {}, добавлено {}, обновлено {} за {} мс",
+                    report.getFetched(), report.getInserted(), report.getUpdated(), report.getDurationMs());
+        } catch (RuntimeException e) {
+            report = SyncReport.failure(startedAt, elapsedMillis(start), e.getMessage());
+            logger.error("Ошибка синхронизации курсов: {}", e.getMessage(), e);
+        }
+        lastReport.set(report);
+        return report;
+    }
+
+    public Optional<SyncReport> getLastReport() {
+        return Optional.ofNullable(lastReport.get());
+    }
+
+    private static boolean isChanged(CurrencyRate existing, CurrencyRate fetched) {
+        boolean rateChanged = existing.getRate() == null || fetched.getRate() == null
+                ? existing.getRate() != fetched.getRate()
+                : existing.getRate().compareTo(fetched.getRate()) != 0;
+        return rateChanged
+                || !Objects.equals(existing.getAbbreviation(), fetched.getAbbreviation())
+                || !Objects.equals(existing.getDate(), fetched.getDate());
+    }
+
+    private static long elapsedMillis(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
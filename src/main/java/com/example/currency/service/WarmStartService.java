@@ -0,0 +1,209 @@
+package com.example.currency.service;
+
+import com.example.currency.cache.BoundedCache;
+import com.example.currency.cache.DataVersions;
+import com.example.currency.models.CurrencyInfo;
+import com.example.currency.models.CurrencyRate;
+import com.example.currency.repository.CurrencyInfoJdbcRepository;
+import com.example.currency.repository.CurrencyRateJdbcRepository;
+import com.example.currency.snapshot.RateSnapshotHolder;
+import com.example.currency.snapshot.SnapshotFile;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Быстрый старт из файла снимка. При создании контекста курсы и валюты читаются из файла: по ним строится
+ * снимок курсов и заполняются кэши, поэтому запросы обслуживаются без обращения к MySQL и НБРБ.
+ * После старта данные в фоне сверяются с базой: расходящиеся записи удаляются из кэшей, снимок перестраивается.
+ * Файл перезаписывается периодически, если данные изменились, и при остановке.
+ */
+@Service
+public class WarmStartService {
+    private static final Logger logger = LoggerFactory.getLogger(WarmStartService.class);
+    private final CurrencyRateJdbcRepository rateJdbcRepository;
+    private final CurrencyInfoJdbcRepository currencyInfoJdbcRepository;
+    private final RateSnapshotHolder rateSnapshotHolder;
+    private final BoundedCache<Long, CurrencyRate> currencyRateCache;
+    private final BoundedCache<Integer, CurrencyInfo> currencyInfoCache;
+    private final BoundedCache<String, List<CurrencyInfo>> currencyListCache;
+    private final DataVersions dataVersions;
+    private final boolean enabled;
+    private final Path path;
+    private final Duration maxAge;
+    private volatile SnapshotFile.Contents loaded;
+    private long writtenRatesVersion = -1;
+    private long writtenCurrenciesVersion = -1;
+
+    @Autowired
+    public WarmStartService(CurrencyRateJdbcRepository rateJdbcRepository,
+                            CurrencyInfoJdbcRepository currencyInfoJdbcRepository,
+                            RateSnapshotHolder rateSnapshotHolder,
+                            BoundedCache<Long, CurrencyRate> currencyRateCache,
+                            BoundedCache<Integer, CurrencyInfo> currencyInfoCache,
+                            BoundedCache<String, List<CurrencyInfo>> currencyListCache,
+                            DataVersions dataVersions,
+                            @Value("${snapshot.file.enabled:false}") boolean enabled,
+                            @Value("${snapshot.file.path:data/currency-snapshot.bin}") Path path,
+                            @Value("${snapshot.file.max-age:24h}") Duration maxAge) {
+        this.rateJdbcRepository = rateJdbcRepository;
+        this.currencyInfoJdbcRepository = currencyInfoJdbcRepository;
+        this.rateSnapshotHolder = rateSnapshotHolder;
+        this.currencyRateCache = currencyRateCache;
+        this.currencyInfoCache = currencyInfoCache;
+        this.currencyListCache = currencyListCache;
+        this.dataVersions = dataVersions;
+        this.enabled = enabled;
+        this.path = path;
+        this.maxAge = maxAge;
+    }
+
+    @PostConstruct
+    public void load() {
+        if (!enabled || !Files.isRegularFile(path)) {
+            return;
+        }
+        long start = System.nanoTime();
+        SnapshotFile.Contents contents;
+        try {
+            contents = SnapshotFile.read(path, maxAge);
+        } catch (IOException e) {
+            logger.warn("Файл снимка {} отклонён, данные будут загружены из базы: {}", path, e.getMessage());
+            return;
+        }
+        rateSnapshotHolder.install(contents.rates());
+        for (CurrencyRate rate : contents.rates()) {
+            currencyRateCache.put(rate.getId(), rate);
+        }
+        for (CurrencyInfo currency : contents.currencies()) {
+            currencyInfoCache.put(currency.getId(), currency);
+        }
+        currencyListCache.put(CurrencyService.ALL_CURRENCIES_KEY, List.copyOf(contents.currencies()));
+        markWritten();
+        loaded = contents;
+        logger.info("Загружен файл снимка от {}: {} валют, {} курсов за {} мс", contents.writtenAt(),
+                contents.currencies().size(), contents.rates().size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (loaded != null) {
+            Thread reconciler = new Thread(this::reconcile, "snapshot-reconcile");
+            reconciler.setDaemon(true);
+            reconciler.start();
+        }
+    }
+
+    /**
+     * Сверяет загруженные из файла данные с базой. Кэши только очищаются от расходящихся записей и никогда
+     * не заполняются значениями из базы, поэтому запись, выполненная во время сверки, не будет затёрта.
+     */
+    void reconcile() {
+        SnapshotFile.Contents contents = loaded;
+        if (contents == null) {
+            return;
+        }
+        try {
+            int staleRates = invalidateStale(contents.rates(), rateJdbcRepository.findAll(), CurrencyRate::getId,
+                    currencyRateCache);
+            int staleCurrencies = invalidateStale(contents.currencies(), currencyInfoJdbcRepository.findAll(),
+                    CurrencyInfo::getId, currencyInfoCache);
+            rateSnapshotHolder.rebuild();
+            if (staleRates > 0) {
+                dataVersions.rates().bump();
+            }
+            if (staleCurrencies > 0) {
+                currencyListCache.invalidateAll();
+                dataVersions.currencies().bump();
+            }
+            logger.info("Сверка снимка с базой завершена: устарело курсов {}, валют {}", staleRates, staleCurrencies);
+        } catch (RuntimeException e) {
+            logger.error("Ошибка сверки снимка с базой, кэши очищены: {}", e.getMessage(), e);
+            currencyRateCache.invalidateAll();
+            currencyInfoCache.invalidateAll();
+            currencyListCache.invalidateAll();
+        } finally {
+            loaded = null;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${snapshot.file.write-interval:PT5M}",
+            initialDelayString = "${snapshot.file.write-interval:PT5M}")
+    public void writePeriodically() {
+        if (enabled) {
+            write(false);
+        }
+    }
+
+    @PreDestroy
+    public void writeOnShutdown() {
+        if (enabled) {
+            write(false);
+        }
+    }
+
+    /**
+     * Записывает файл, если данные изменились с прошлой записи или {@code force}.
+     */
+    public synchronized boolean write(boolean force) {
+        long ratesVersion = dataVersions.rates().current().version();
+        long currenciesVersion = dataVersions.currencies().current().version();
+        if (!force && ratesVersion == writtenRatesVersion && currenciesVersion == writtenCurrenciesVersion
+                && Files.isRegularFile(path)) {
+            return false;
+        }
+        long start = System.nanoTime();
+        try {
+            List<CurrencyInfo> currencies = currencyInfoJdbcRepository.findAll();
+            List<CurrencyRate> rates = rateJdbcRepository.findAll();
+            SnapshotFile.write(path, currencies, rates);
+            writtenRatesVersion = ratesVersion;
+            writtenCurrenciesVersion = currenciesVersion;
+            logger.info("Файл снимка {} записан: {} валют, {} курсов за {} мс", path, currencies.size(), rates.size(),
+                    (System.nanoTime() - start) / 1_000_000);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            logger.error("Не удалось записать файл снимка {}: {}", path, e.getMessage(), e);
+            return false;
+        }
+    }
+
+    private synchronized void markWritten() {
+        writtenRatesVersion = dataVersions.rates().current().version();
+        writtenCurrenciesVersion = dataVersions.currencies().current().version();
+    }
+
+    private static <K, V> int invalidateStale(List<V> fromFile, List<V> fromDb, Function<V, K> key,
+                                              BoundedCache<K, V> cache) {
+        Map<K, V> current = new HashMap<>(fromDb.size() * 2);
+        for (V value : fromDb) {
+            current.put(key.apply(value), value);
+        }
+        int stale = 0;
+        for (V value : fromFile) {
+            if (!Objects.equals(value, current.remove(key.apply(value)))) {
+                cache.invalidate(key.apply(value));
+                stale++;
+            }
+        }
+        // Записи, которых не было в файле, в кэш не попадали, но меняют набор данных.
+        return stale + current.size();
+    }
+}
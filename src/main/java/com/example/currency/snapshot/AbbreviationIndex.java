@@ -0,0 +1,92 @@
+package com.example.currency.snapshot;
+
+import java.util.Locale;
+
+/**
+ * Неизменяемая хеш-таблица с открытой адресацией: код валюты без учёта регистра → позиция в снимке.
+ * Ключи хранятся в верхнем регистре и интернированы; поиск сравнивает символы без перевода строки
+ * в верхний регистр, поэтому не создаёт объектов.
+ */
+final class AbbreviationIndex {
+    static final int NOT_FOUND = -1;
+    static final AbbreviationIndex EMPTY = new AbbreviationIndex(new String[0], new int[0]);
+
+    private final String[] keys;
+    private final int[] values;
+    private final int mask;
+
+    private AbbreviationIndex(String[] keys, int[] values) {
+        this.keys = keys;
+        this.values = values;
+        this.mask = keys.length - 1;
+    }
+
+    /**
+     * Строит индекс по кодам; {@code null} и пустые коды пропускаются. Если код повторяется, остаётся
+     * последняя позиция: в снимке, упорядоченном по ID, это курс с наибольшим ID.
+     */
+    static AbbreviationIndex build(String[] codes) {
+        int capacity = Integer.highestOneBit(Math.max(codes.length, 1) * 2 - 1) << 1;
+        String[] keys = new String[capacity];
+        int[] values = new int[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < codes.length; i++) {
+            String code = codes[i];
+            if (code == null || code.isEmpty()) {
+                continue;
+            }
+            String key = code.toUpperCase(Locale.ROOT).intern();
+            int slot = hash(key) & mask;
+            while (keys[slot] != null && !keys[slot].equals(key)) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = i;
+        }
+        return new AbbreviationIndex(keys, values);
+    }
+
+    int get(CharSequence code) {
+        if (code == null || keys.length == 0) {
+            return NOT_FOUND;
+        }
+        int slot = hash(code) & mask;
+        String key;
+        while ((key = keys[slot]) != null) {
+            if (equalsIgnoreCase(key, code)) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NOT_FOUND;
+    }
+
+    private static int hash(CharSequence code) {
+        int h = 0;
+        for (int i = 0; i < code.length(); i++) {
+            h = 31 * h + upper(code.charAt(i));
+        }
+        // Таблица адресуется младшими битами, поэтому после умножения в них подмешиваются старшие.
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean equalsIgnoreCase(String key, CharSequence code) {
+        if (key.length() != code.length()) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            if (key.charAt(i) != upper(code.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static char upper(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return (char) (c - ('a' - 'A'));
+        }
+        return c < 128 ? c : Character.toUpperCase(c);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.currency.snapshot;
+
+import java.math.BigDecimal;
+
+/**
+ * Арифметика над десятичными числами, представленными немасштабированным {@code long} и числом знаков.
+ * Все операции определены только для положительных значений и сообщают о переполнении
+ * значением {@link #OVERFLOW}, чтобы вызывающий код мог перейти на {@link BigDecimal}.
+ */
+final class FixedPoint {
+    static final long OVERFLOW = -1L;
+    static final int MAX_DIGITS = 18;
+
+    private static final long[] POWERS_OF_TEN = new long[MAX_DIGITS + 1];
+
+    static {
+        POWERS_OF_TEN[0] = 1L;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10L;
+        }
+    }
+
+    private FixedPoint() {
+    }
+
+    /**
+     * Немасштабированное значение положительного числа или {@link #OVERFLOW}, если оно не помещается в long.
+     */
+    static long unscaled(BigDecimal value) {
+        if (value == null || value.signum() <= 0 || value.precision() > MAX_DIGITS) {
+            return OVERFLOW;
+        }
+        return value.unscaledValue().longValue();
+    }
+
+    /**
+     * Точное {@code a * b / c}, округлённое HALF_UP до {@code scale} знаков, в виде немасштабированного long.
+     * Каждое из чисел задано парой (немасштабированное значение, число знаков). Числитель считается
+     * в 128 битах, поэтому переполнение возможно только для результата или делителя, не помещающихся в long.
+     */
+    static long multiplyDivide(long a, int aScale, long b, int bScale, long c, int cScale, int scale) {
+        // Результат * 10^scale = a * b * 10^shift / c; отрицательный сдвиг переносим в делитель.
+        long shift = (long) scale - aScale - bScale + cScale;
+        if (Math.abs(shift) > MAX_DIGITS) {
+            return OVERFLOW;
+        }
+        long high = Math.multiplyHigh(a, b);
+        long low = a * b;
+        long divisor = c;
+        if (shift > 0) {
+            long factor = POWERS_OF_TEN[(int) shift];
+            long carry = Math.multiplyHigh(low, factor) + ((low >> 63) & factor);
+            long scaledHigh = high * factor;
+            if (Math.multiplyHigh(high, factor) != 0 || scaledHigh < 0 || scaledHigh + carry < 0) {
+                return OVERFLOW;
+            }
+            high = scaledHigh + carry;
+            low = low * factor;
+        } else if (shift < 0) {
+            divisor = multiply(c, POWERS_OF_TEN[(int) -shift]);
+            if (divisor == OVERFLOW) {
+                return OVERFLOW;
+            }
+        }
+        long quotient;
+        if (high == 0 && low >= 0) {
+            quotient = low / divisor;
+        } else if (high < divisor) {
+            quotient = divide(high, low, divisor);
+            if (quotient < 0) {
+                return OVERFLOW;
+            }
+        } else {
+            return OVERFLOW;
+        }
+        long remainder = low - quotient * divisor;
+        if (remainder >= divisor - remainder) {
+            return quotient == Long.MAX_VALUE ? OVERFLOW : quotient + 1;
+        }
+        return quotient;
+    }
+
+    private static long multiply(long x, long y) {
+        long product = x * y;
+        return Math.multiplyHigh(x, y) != 0 || product < 0 ? OVERFLOW : product;
+    }
+
+    // Беззнаковое деление 128-битного (high:low) на 64-битное при high < divisor (Hacker's Delight, divlu).
+    private static long divide(long high, long low, long divisor) {
+        int shift = Long.numberOfLeadingZeros(divisor);
+        long v = divisor << shift;
+        long vHigh = v >>> 32;
+        long vLow = v & 0xFFFFFFFFL;
+        long u32 = shift == 0 ? high : (high << shift) | (low >>> (64 - shift));
+        long u10 = low << shift;
+        long u1 = u10 >>> 32;
+        long u0 = u10 & 0xFFFFFFFFL;
+
+        long q1 = Long.divideUnsigned(u32, vHigh);
+        long rhat = u32 - q1 * vHigh;
+        while (q1 >>> 32 != 0 || Long.compareUnsigned(q1 * vLow, (rhat << 32) | u1) > 0) {
+            q1--;
+            rhat += vHigh;
+            if (rhat >>> 32 != 0) {
+                break;
+            }
+        }
+        long u21 = (u32 << 32) + u1 - q1 * v;
+        long q0 = Long.divideUnsigned(u21, vHigh);
+        rhat = u21 - q0 * vHigh;
+        while (q0 >>> 32 != 0 || Long.compareUnsigned(q0 * vLow, (rhat << 32) | u0) > 0) {
+            q0--;
+            rhat += vHigh;
+            if (rhat >>> 32 != 0) {
+                break;
+            }
+        }
+        return (q1 << 32) | q0;
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.currency.snapshot;
+
+import com.example.currency.models.CurrencyRate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+
+/**
+ * Неизменяемый снимок курсов, упорядоченный по ID. Поиск выполняется бинарным поиском
+ * по массиву примитивных ключей, поэтому чтение не берёт блокировок и не создаёт объектов.
+ * Для конвертации курсы дополнительно хранятся в виде немасштабированных {@code long} с числом знаков,
+ * а коды валют — в индексе с открытой адресацией, так что поиск по коду тоже не обращается к базе.
+ */
+public final class RateSnapshot {
+    public static final RateSnapshot EMPTY = new RateSnapshot(0, Instant.EPOCH,
+            new long[0], new BigDecimal[0], new String[0]);
+
+    private final long version;
+    private final Instant builtAt;
+    private final long[] ids;
+    private final BigDecimal[] rates;
+    private final String[] abbreviations;
+    private final long[] unscaledRates;
+    private final int[] rateScales;
+    private final AbbreviationIndex abbreviationIndex;
+
+    private RateSnapshot(long version, Instant builtAt, long[] ids, BigDecimal[] rates, String[] abbreviations) {
+        this.version = version;
+        this.builtAt = builtAt;
+        this.ids = ids;
+        this.rates = rates;
+        this.abbreviations = abbreviations;
+        this.unscaledRates = new long[rates.length];
+        this.rateScales = new int[rates.length];
+        for (int i = 0; i < rates.length; i++) {
+            unscaledRates[i] = FixedPoint.unscaled(rates[i]);
+            rateScales[i] = rates[i] != null ? rates[i].scale() : 0;
+        }
+        this.abbreviationIndex = abbreviations.length == 0 ? AbbreviationIndex.EMPTY
+                : AbbreviationIndex.build(abbreviations);
+    }
+
+    public static RateSnapshot build(long version, Collection<CurrencyRate> source) {
+        CurrencyRate[] sorted = source.stream()
+                .filter(rate -> rate.getId() != null)
+                .sorted(Comparator.comparingLong(CurrencyRate::getId))
+                .toArray(CurrencyRate[]::new);
+        int size = sorted.length;
+        long[] ids = new long[size];
+        BigDecimal[] rates = new BigDecimal[size];
+        String[] abbreviations = new String[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = sorted[i].getId();
+            rates[i] = sorted[i].getRate();
+            abbreviations[i] = sorted[i].getAbbreviation();
+        }
+        return new RateSnapshot(version, Instant.now(), ids, rates, abbreviations);
+    }
+
+    public RateSnapshot withRate(long newVersion, CurrencyRate rate) {
+        int index = indexOf(rate.getId());
+        if (index >= 0) {
+            BigDecimal[] newRates = rates.clone();
+            String[] newAbbreviations = abbreviations.clone();
+            newRates[index] = rate.getRate();
+            newAbbreviations[index] = rate.getAbbreviation();
+            return new RateSnapshot(newVersion, Instant.now(), ids, newRates, newAbbreviations);
+        }
+        int insertAt = -index - 1;
+        int size = ids.length;
+        long[] newIds = new long[size + 1];
+        BigDecimal[] newRates = new BigDecimal[size + 1];
+        String[] newAbbreviations = new String[size + 1];
+        System.arraycopy(ids, 0, newIds, 0, insertAt);
+        System.arraycopy(rates, 0, newRates, 0, insertAt);
+        System.arraycopy(abbreviations, 0, newAbbreviations, 0, insertAt);
+        newIds[insertAt] = rate.getId();
+        newRates[insertAt] = rate.getRate();
+        newAbbreviations[insertAt] = rate.getAbbreviation();
+        System.arraycopy(ids, insertAt, newIds, insertAt + 1, size - insertAt);
+        System.arraycopy(rates, insertAt, newRates, insertAt + 1, size - insertAt);
+        System.arraycopy(abbreviations, insertAt, newAbbreviations, insertAt + 1, size - insertAt);
+        return new RateSnapshot(newVersion, Instant.now(), newIds, newRates, newAbbreviations);
+    }
+
+    public RateSnapshot withoutRate(long newVersion, long id) {
+        int index = indexOf(id);
+        if (index < 0) {
+            return new RateSnapshot(newVersion, Instant.now(), ids, rates, abbreviations);
+        }
+        int size = ids.length;
+        long[] newIds = new long[size - 1];
+        BigDecimal[] newRates = new BigDecimal[size - 1];
+        String[] newAbbreviations = new String[size - 1];
+        System.arraycopy(ids, 0, newIds, 0, index);
+        System.arraycopy(rates, 0, newRates, 0, index);
+        System.arraycopy(abbreviations, 0, newAbbreviations, 0, index);
+        System.arraycopy(ids, index + 1, newIds, index, size - index - 1);
+        System.arraycopy(rates, index + 1, newRates, index, size - index - 1);
+        System.arraycopy(abbreviations, index + 1, newAbbreviations, index, size - index - 1);
+        return new RateSnapshot(newVersion, Instant.now(), newIds, newRates, newAbbreviations);
+    }
+
+    /**
+     * Возвращает позицию курса с указанным ID или отрицательное значение, если курса нет.
+     */
+    public int indexOf(long id) {
+        return Arrays.binarySearch(ids, id);
+    }
+
+    /**
+     * Возвращает позицию курса с указанным кодом валюты без учёта регистра или отрицательное значение.
+     * Если код встречается у нескольких курсов, выбирается курс с наибольшим ID.
+     */
+    public int indexOfAbbreviation(CharSequence abbreviation) {
+        return abbreviationIndex.get(abbreviation);
+    }
+
+    public long idAt(int index) {
+        return ids[index];
+    }
+
+    public BigDecimal rateAt(int index) {
+        return rates[index];
+    }
+
+    /**
+     * {@code amount * rate(toIndex) / rate(fromIndex)}, округлённое HALF_UP до {@code scale} знаков.
+     * Считается в long над предвычисленными курсами; если какое-либо значение или промежуточное
+     * произведение не помещается в long, результат вычисляется через BigDecimal. Оба пути дают одинаковый
+     * результат. Курсы и сумма должны быть положительными.
+     */
+    public BigDecimal convert(int fromIndex, int toIndex, BigDecimal amount, int scale) {
+        long fromRate = unscaledRates[fromIndex];
+        long toRate = unscaledRates[toIndex];
+        long unscaledAmount = FixedPoint.unscaled(amount);
+        if (fromRate != FixedPoint.OVERFLOW && toRate != FixedPoint.OVERFLOW && unscaledAmount != FixedPoint.OVERFLOW) {
+            long result = FixedPoint.multiplyDivide(unscaledAmount, amount.scale(), toRate, rateScales[toIndex],
+                    fromRate, rateScales[fromIndex], scale);
+            if (result != FixedPoint.OVERFLOW) {
+                return BigDecimal.valueOf(result, scale);
+            }
+        }
+        return amount.multiply(rates[toIndex]).divide(rates[fromIndex], scale, RoundingMode.HALF_UP);
+    }
+
+    public String abbreviationAt(int index) {
+        return abbreviations[index];
+    }
+
+    /**
+     * Приблизительный объём памяти снимка в байтах: массивы, BigDecimal курсов, строки кодов и индекс.
+     * Нужен для ограничения кэша снимков на даты по памяти, а не по числу записей.
+     */
+    public long estimatedBytes() {
+        return 128 + ids.length * 176L;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Instant getBuiltAt() {
+        return builtAt;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.currency.snapshot;
+
+import com.example.currency.models.CurrencyRate;
+import com.example.currency.repository.CurrencyRateRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Публикует актуальный {@link RateSnapshot}. Читатели получают снимок без блокировок,
+ * писатели сериализуются и заменяют его атомарной подменой ссылки.
+ */
+@Component
+public class RateSnapshotHolder {
+    private static final Logger logger = LoggerFactory.getLogger(RateSnapshotHolder.class);
+    private final CurrencyRateRepository rateRepository;
+    private final AtomicReference<RateSnapshot> current = new AtomicReference<>();
+
+    public RateSnapshotHolder(CurrencyRateRepository rateRepository) {
+        this.rateRepository = rateRepository;
+    }
+
+    public RateSnapshot current() {
+        RateSnapshot snapshot = current.get();
+        return snapshot != null ? snapshot : rebuild();
+    }
+
+    /**
+     * Текущий снимок без построения; {@code null}, если он ещё не загружен.
+     */
+    public RateSnapshot peek() {
+        return current.get();
+    }
+
+    // Если снимок уже установлен из файла быстрого старта, сверка с базой выполняется в фоне.
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (current.get() == null) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Устанавливает снимок из заранее загруженных курсов, не обращаясь к базе.
+     */
+    public synchronized RateSnapshot install(Collection<CurrencyRate> rates) {
+        RateSnapshot snapshot = RateSnapshot.build(nextVersion(), rates);
+        current.set(snapshot);
+        logger.info("Rate snapshot v{} installed with {} rates", snapshot.getVersion(), snapshot.size());
+        return snapshot;
+    }
+
+    // Read-only транзакция отправляет загрузку на реплику. При вызове изнутри класса аннотация не действует,
+    // но findAll() репозитория и так выполняется в собственной read-only транзакции.
+    @Transactional(readOnly = true)
+    public synchronized RateSnapshot rebuild() {
+        RateSnapshot snapshot = RateSnapshot.build(nextVersion(), rateRepository.findAll());
+        current.set(snapshot);
+        logger.info("Rate snapshot v{} built with {} rates", snapshot.getVersion(), snapshot.size());
+        return snapshot;
+    }
+
+    public synchronized void apply(CurrencyRate rate) {
+        RateSnapshot snapshot = current.get();
+        if (snapshot == null) {
+            rebuild();
+            return;
+        }
+        current.set(snapshot.withRate(nextVersion(), rate));
+    }
+
+    public synchronized void remove(long id) {
+        RateSnapshot snapshot = current.get();
+        if (snapshot == null) {
+            rebuild();
+            return;
+        }
+        current.set(snapshot.withoutRate(nextVersion(), id));
+    }
+
+    private long nextVersion() {
+        RateSnapshot snapshot = current.get();
+        return snapshot == null ? 1 : snapshot.getVersion() + 1;
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.currency.snapshot;
+
+import com.example.currency.models.CurrencyInfo;
+import com.example.currency.models.CurrencyRate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Двоичный файл со справочником валют и курсами для быстрого старта.
+ * <p>
+ * Формат (big-endian): магическое число {@code CURS}, версия формата (short), время записи (long, мс),
+ * число валют и курсов (int), записи валют, записи курсов и CRC32 всего предшествующего содержимого (int).
+ * Строки хранятся как длина (short, -1 для null) и байты UTF-8, курс — как число знаков (int),
+ * длина и байты немасштабированного значения, дата — как номер дня эпохи (long, {@link Long#MIN_VALUE} для null).
+ * Файл с другой версией, неверной суммой или старше допустимого возраста отклоняется целиком.
+ */
+public final class SnapshotFile {
+    static final int MAGIC = 0x43555253;
+    static final short FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = Integer.BYTES + Short.BYTES + Long.BYTES + 2 * Integer.BYTES;
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    private SnapshotFile() {
+    }
+
+    /**
+     * Записывает файл атомарно: содержимое пишется во временный файл рядом и переименовывается поверх прежнего.
+     */
+    public static void write(Path path, List<CurrencyInfo> currencies, List<CurrencyRate> rates) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(HEADER_SIZE + 32 * (currencies.size() + rates.size()));
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeShort(FORMAT_VERSION);
+        out.writeLong(Instant.now().toEpochMilli());
+        out.writeInt(currencies.size());
+        out.writeInt(rates.size());
+        for (CurrencyInfo currency : currencies) {
+            out.writeInt(currency.getId());
+            writeString(out, currency.getAbbreviation());
+        }
+        for (CurrencyRate rate : rates) {
+            out.writeLong(rate.getId());
+            writeDecimal(out, rate.getRate());
+            writeString(out, rate.getAbbreviation());
+            out.writeLong(rate.getDate() != null ? rate.getDate().toEpochDay() : NO_DATE);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        out.writeInt((int) crc.getValue());
+        out.flush();
+
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream file = Files.newOutputStream(temp, StandardOpenOption.WRITE)) {
+                bytes.writeTo(file);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Отображает файл в память, проверяет заголовок и контрольную сумму и декодирует записи.
+     *
+     * @throws InvalidSnapshotException если файл повреждён, другой версии или старше {@code maxAge}
+     */
+    public static Contents read(Path path, Duration maxAge) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.capacity() < HEADER_SIZE + Integer.BYTES) {
+            throw new InvalidSnapshotException("File is too short: " + buffer.capacity() + " bytes");
+        }
+        int bodySize = buffer.capacity() - Integer.BYTES;
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().limit(bodySize));
+        if ((int) crc.getValue() != buffer.getInt(bodySize)) {
+            throw new InvalidSnapshotException("Checksum mismatch");
+        }
+
+        ByteBuffer in = buffer.duplicate().limit(bodySize);
+        if (in.getInt() != MAGIC) {
+            throw new InvalidSnapshotException("Not a snapshot file");
+        }
+        short version = in.getShort();
+        if (version != FORMAT_VERSION) {
+            throw new InvalidSnapshotException("Unsupported format version " + version);
+        }
+        Instant writtenAt = Instant.ofEpochMilli(in.getLong());
+        if (writtenAt.plus(maxAge).isBefore(Instant.now())) {
+            throw new InvalidSnapshotException("Snapshot written at " + writtenAt + " is older than " + maxAge);
+        }
+        try {
+            int currencyCount = in.getInt();
+            int rateCount = in.getInt();
+            if (currencyCount < 0 || rateCount < 0) {
+                throw new InvalidSnapshotException("Negative record count");
+            }
+            List<CurrencyInfo> currencies = new ArrayList<>(Math.min(currencyCount, bodySize));
+            for (int i = 0; i < currencyCount; i++) {
+                CurrencyInfo currency = new CurrencyInfo();
+                currency.setId(in.getInt());
+                currency.setAbbreviation(readString(in));
+                currencies.add(currency);
+            }
+            List<CurrencyRate> rates = new ArrayList<>(Math.min(rateCount, bodySize));
+            for (int i = 0; i < rateCount; i++) {
+                CurrencyRate rate = new CurrencyRate();
+                rate.setId(in.getLong());
+                rate.setRate(readDecimal(in));
+                rate.setAbbreviation(readString(in));
+                long epochDay = in.getLong();
+                rate.setDate(epochDay != NO_DATE ? LocalDate.ofEpochDay(epochDay) : null);
+                rates.add(rate);
+            }
+            if (in.hasRemaining()) {
+                throw new InvalidSnapshotException(in.remaining() + " trailing bytes");
+            }
+            return new Contents(writtenAt, currencies, rates);
+        } catch (BufferUnderflowException | NumberFormatException e) {
+            throw new InvalidSnapshotException("Malformed record data: " + e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeShort(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        short length = in.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+        if (value == null) {
+            out.writeInt(0);
+            out.writeShort(-1);
+            return;
+        }
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        out.writeInt(value.scale());
+        out.writeShort(unscaled.length);
+        out.write(unscaled);
+    }
+
+    private static BigDecimal readDecimal(ByteBuffer in) {
+        int scale = in.getInt();
+        short length = in.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] unscaled = new byte[length];
+        in.get(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+
+    public record Contents(Instant writtenAt, List<CurrencyInfo> currencies, List<CurrencyRate> rates) {
+    }
+
+    public static class InvalidSnapshotException extends IOException {
+        public InvalidSnapshotException(String message) {
+            super(message);
+        }
+    }
+}
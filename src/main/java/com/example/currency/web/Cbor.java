@@ -0,0 +1,167 @@
+package com.example.currency.web;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.ContextualDeserializer;
+import com.fasterxml.jackson.databind.deser.std.NumberDeserializers;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.std.NumberSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Двоичное представление CBOR для внутренних клиентов. Курсы (поля с {@link CborFixedPoint}) передаются целым
+ * числом миллионных долей, как и в колонке курса (6 знаков), даты — номером дня от 1970-01-01.
+ * Курс, который не укладывается в такое представление, пишется десятичной дробью CBOR без потери точности;
+ * прочие десятичные поля — обычными числами, так что целое {@code amount: 100} и читается как 100.
+ */
+public final class Cbor {
+    public static final int SCALE = 6;
+
+    private Cbor() {
+    }
+
+    /**
+     * ObjectMapper для CBOR с теми же настройками, что и JSON-маппер Spring Boot, и компактными типами.
+     */
+    public static ObjectMapper objectMapper(Jackson2ObjectMapperBuilder builder) {
+        ObjectMapper mapper = builder.factory(new CBORFactory()).build();
+        // Модуль регистрируется последним, чтобы перекрыть сериализаторы дат из JavaTimeModule.
+        return mapper.registerModule(module());
+    }
+
+    public static SimpleModule module() {
+        SimpleModule module = new SimpleModule("currency-cbor");
+        module.addSerializer(BigDecimal.class, new DecimalSerializer());
+        module.addDeserializer(BigDecimal.class, new DecimalDeserializer());
+        module.addSerializer(LocalDate.class, new EpochDaySerializer());
+        module.addDeserializer(LocalDate.class, new EpochDayDeserializer());
+        return module;
+    }
+
+    // Выбирает представление по аннотации свойства: фиксированная точка только для курсов.
+    static final class DecimalSerializer extends StdSerializer<BigDecimal> implements ContextualSerializer {
+        DecimalSerializer() {
+            super(BigDecimal.class);
+        }
+
+        @Override
+        public JsonSerializer<?> createContextual(SerializerProvider provider, BeanProperty property) {
+            return property != null && property.getAnnotation(CborFixedPoint.class) != null
+                    ? new FixedPointSerializer()
+                    : NumberSerializer.instance;
+        }
+
+        @Override
+        public void serialize(BigDecimal value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeNumber(value);
+        }
+    }
+
+    static final class DecimalDeserializer extends StdScalarDeserializer<BigDecimal>
+            implements ContextualDeserializer {
+        DecimalDeserializer() {
+            super(BigDecimal.class);
+        }
+
+        @Override
+        public JsonDeserializer<?> createContextual(DeserializationContext ctxt, BeanProperty property) {
+            return property != null && property.getAnnotation(CborFixedPoint.class) != null
+                    ? new FixedPointDeserializer()
+                    : NumberDeserializers.BigDecimalDeserializer.instance;
+        }
+
+        @Override
+        public BigDecimal deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            return NumberDeserializers.BigDecimalDeserializer.instance.deserialize(p, ctxt);
+        }
+    }
+
+    static final class FixedPointSerializer extends StdSerializer<BigDecimal> {
+        FixedPointSerializer() {
+            super(BigDecimal.class);
+        }
+
+        @Override
+        public void serialize(BigDecimal value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            long micros;
+            try {
+                micros = value.movePointRight(SCALE).longValueExact();
+            } catch (ArithmeticException e) {
+                // Больше шести знаков или вне диапазона long.
+                gen.writeNumber(value);
+                return;
+            }
+            gen.writeNumber(micros);
+        }
+    }
+
+    static final class FixedPointDeserializer extends StdScalarDeserializer<BigDecimal> {
+        FixedPointDeserializer() {
+            super(BigDecimal.class);
+        }
+
+        @Override
+        public BigDecimal deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            switch (p.currentToken()) {
+                case VALUE_NUMBER_INT:
+                    return p.getNumberType() == JsonParser.NumberType.BIG_INTEGER
+                            ? new BigDecimal(p.getBigIntegerValue(), SCALE)
+                            : BigDecimal.valueOf(p.getLongValue(), SCALE);
+                case VALUE_NUMBER_FLOAT:
+                    return p.getDecimalValue();
+                case VALUE_STRING:
+                    try {
+                        return new BigDecimal(p.getText().trim());
+                    } catch (NumberFormatException e) {
+                        return (BigDecimal) ctxt.handleWeirdStringValue(BigDecimal.class, p.getText(),
+                                "not a valid decimal");
+                    }
+                default:
+                    return (BigDecimal) ctxt.handleUnexpectedToken(BigDecimal.class, p);
+            }
+        }
+    }
+
+    static final class EpochDaySerializer extends StdSerializer<LocalDate> {
+        EpochDaySerializer() {
+            super(LocalDate.class);
+        }
+
+        @Override
+        public void serialize(LocalDate value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeNumber(value.toEpochDay());
+        }
+    }
+
+    static final class EpochDayDeserializer extends StdScalarDeserializer<LocalDate> {
+        EpochDayDeserializer() {
+            super(LocalDate.class);
+        }
+
+        @Override
+        public LocalDate deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            switch (p.currentToken()) {
+                case VALUE_NUMBER_INT:
+                    return LocalDate.ofEpochDay(p.getLongValue());
+                case VALUE_STRING:
+                    return LocalDate.parse(p.getText().trim());
+                default:
+                    return (LocalDate) ctxt.handleUnexpectedToken(LocalDate.class, p);
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.currency.web;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Поле курса, которое в CBOR передаётся целым числом миллионных долей (см. {@link Cbor}).
+ * Остальные десятичные поля, например сумма конвертации, пишутся и читаются как обычные числа.
+ */
+@Target({ElementType.FIELD, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CborFixedPoint {
+}
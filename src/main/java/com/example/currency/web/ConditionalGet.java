@@ -0,0 +1,159 @@
+package com.example.currency.web;
+
+import com.example.currency.cache.DataVersion;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Условные GET-запросы по версии данных: при совпадении If-None-Match или If-Modified-Since отвечает 304,
+ * не вызывая поставщика тела, то есть без обращения к репозиторию и сериализации.
+ */
+@Component
+public class ConditionalGet {
+    private final CacheControl cacheControl;
+    private final ResponseBodyCache responseBodyCache;
+
+    public ConditionalGet(@Value("${http.cache.max-age:0s}") Duration maxAge, ResponseBodyCache responseBodyCache) {
+        this.responseBodyCache = responseBodyCache;
+        this.cacheControl = maxAge.isZero()
+                ? CacheControl.noCache()
+                : CacheControl.maxAge(maxAge).mustRevalidate();
+    }
+
+    public <T> ResponseEntity<T> get(WebRequest request, DataVersion version, Supplier<T> body) {
+        // Версия читается до загрузки данных: если запись произойдёт между ними, клиент получит
+        // новые данные со старым ETag и просто перечитает их при следующем запросе.
+        DataVersion.Stamp stamp = version.current();
+        String etag = version.etag(stamp, "");
+        if (request.checkNotModified(etag, stamp.lastModified())) {
+            return notModified();
+        }
+        return ok(etag, stamp).body(body.get());
+    }
+
+    /**
+     * Вариант для альтернативного представления того же URL (например, NDJSON): тип содержимого
+     * входит в ETag, чтобы кэш не подменил одно представление другим.
+     */
+    public <T> ResponseEntity<T> get(WebRequest request, DataVersion version, MediaType contentType, Supplier<T> body) {
+        DataVersion.Stamp stamp = version.current();
+        String etag = version.etag(stamp, contentType.getSubtype());
+        if (request.checkNotModified(etag, stamp.lastModified())) {
+            return notModified();
+        }
+        return ok(etag, stamp).contentType(contentType).body(body.get());
+    }
+
+    /**
+     * Вариант для горячих ответов: тело берётся готовыми байтами из {@link ResponseBodyCache}, сжатыми
+     * заранее, если клиент принимает gzip. Формат (JSON или CBOR) выбирается по Accept; каждое сочетание
+     * формата и сжатия получает свой ETag.
+     */
+    public ResponseEntity<byte[]> getSerialized(WebRequest request, DataVersion version, String key, Supplier<?> body) {
+        DataVersion.Stamp stamp = version.current();
+        MediaType contentType = negotiate(request.getHeader(HttpHeaders.ACCEPT));
+        boolean cbor = contentType == MediaType.APPLICATION_CBOR;
+        boolean gzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String variant = cbor ? (gzip ? "cbor-gzip" : "cbor") : (gzip ? "gzip" : "");
+        String etag = version.etag(stamp, variant);
+        if (request.checkNotModified(etag, stamp.lastModified())) {
+            return notModified();
+        }
+        SerializedBody serialized = responseBodyCache.get(version, stamp, contentType, key, body);
+        if (serialized == null) {
+            return ResponseEntity.notFound().build();
+        }
+        ResponseEntity.BodyBuilder builder = ok(etag, stamp)
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                .contentType(contentType);
+        if (gzip && serialized.gzip() != null) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(serialized.gzip());
+        }
+        return builder.body(serialized.body());
+    }
+
+    public ResponseEntity<byte[]> getOptionalSerialized(WebRequest request, DataVersion version, String key,
+                                                        Supplier<? extends Optional<?>> body) {
+        return getSerialized(request, version, key, () -> body.get().orElse(null));
+    }
+
+    // CBOR отдаётся, только если клиент назвал его явно и с весом выше, чем у application/json;
+    // во всех остальных случаях, включая */* и некорректный Accept, отвечаем JSON.
+    static MediaType negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> mediaTypes;
+        try {
+            mediaTypes = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_JSON;
+        }
+        double cbor = 0;
+        double json = 0;
+        for (MediaType mediaType : mediaTypes) {
+            if (mediaType.equalsTypeAndSubtype(MediaType.APPLICATION_CBOR)) {
+                cbor = Math.max(cbor, mediaType.getQualityValue());
+            } else if (mediaType.equalsTypeAndSubtype(MediaType.APPLICATION_JSON)) {
+                json = Math.max(json, mediaType.getQualityValue());
+            }
+        }
+        return cbor > json ? MediaType.APPLICATION_CBOR : MediaType.APPLICATION_JSON;
+    }
+
+    // gzip принимается, если указан с ненулевым весом q; без явного упоминания решает *.
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean gzip = null;
+        boolean any = false;
+        for (String token : acceptEncoding.split(",")) {
+            String[] parts = token.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            boolean accepted = true;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        accepted = Double.parseDouble(param.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        accepted = false;
+                    }
+                }
+            }
+            if (coding.equals("gzip")) {
+                gzip = accepted;
+            } else if (coding.equals("*")) {
+                any = accepted;
+            }
+        }
+        return gzip != null ? gzip : any;
+    }
+
+    // ETag и Last-Modified для 304 уже выставлены checkNotModified.
+    private <T> ResponseEntity<T> notModified() {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).build();
+    }
+
+    private ResponseEntity.BodyBuilder ok(String etag, DataVersion.Stamp stamp) {
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .lastModified(stamp.lastModified())
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT);
+    }
+}
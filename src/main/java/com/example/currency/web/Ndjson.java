@@ -0,0 +1,54 @@
+package com.example.currency.web;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Чтение и запись newline-delimited JSON: по одному объекту на строку, без накопления всего тела в памяти.
+ */
+public final class Ndjson {
+    public static final String MEDIA_TYPE_VALUE = "application/x-ndjson";
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+
+    private Ndjson() {
+    }
+
+    public static <T> MappingIterator<T> reader(ObjectMapper objectMapper, InputStream in, Class<T> type)
+            throws IOException {
+        return objectMapper.readerFor(type).readValues(in);
+    }
+
+    public static SequenceWriter writer(ObjectMapper objectMapper, OutputStream out) throws IOException {
+        return objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("\n")
+                .writeValues(out);
+    }
+
+    /**
+     * Тело ответа, которое пишет в поток каждую строку, переданную источником, не собирая их в список.
+     */
+    public static <T> StreamingResponseBody body(ObjectMapper objectMapper, Consumer<Consumer<T>> source) {
+        return out -> {
+            try (SequenceWriter writer = writer(objectMapper, out)) {
+                source.accept(row -> {
+                    try {
+                        writer.write(row);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.currency.web;
+
+import com.example.currency.cache.BoundedCache;
+import com.example.currency.cache.DataVersion;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Кэш сериализованных тел ответов. Тело сериализуется и сжимается один раз на версию данных;
+ * запись в сервисе увеличивает версию, и следующий запрос видит, что сохранённое тело устарело.
+ * JSON и CBOR хранятся отдельными записями.
+ */
+@Component
+public class ResponseBodyCache {
+    private final BoundedCache<String, SerializedBody> serializedBodyCache;
+    private final ObjectMapper objectMapper;
+    private final ObjectMapper cborMapper;
+    private final int gzipMinSize;
+
+    public ResponseBodyCache(BoundedCache<String, SerializedBody> serializedBodyCache,
+                             ObjectMapper objectMapper,
+                             MappingJackson2CborHttpMessageConverter cborConverter,
+                             @Value("${cache.response-body.gzip-min-size:1KB}") DataSize gzipMinSize) {
+        this.serializedBodyCache = serializedBodyCache;
+        this.objectMapper = objectMapper;
+        this.cborMapper = cborConverter.getObjectMapper();
+        this.gzipMinSize = (int) gzipMinSize.toBytes();
+    }
+
+    /**
+     * Тело в формате {@code contentType} (JSON или CBOR) для ключа {@code key} набора данных {@code version}
+     * на момент {@code stamp}; {@code null}, если поставщик вернул {@code null}. Поставщик вызывается только
+     * при промахе или устаревшем теле.
+     */
+    public SerializedBody get(DataVersion version, DataVersion.Stamp stamp, MediaType contentType, String key,
+                              Supplier<?> body) {
+        ObjectMapper mapper = MediaType.APPLICATION_CBOR.equalsTypeAndSubtype(contentType) ? cborMapper : objectMapper;
+        String cacheKey = version.getName() + ":" + contentType.getSubtype() + ":" + key;
+        SerializedBody cached = serializedBodyCache.getIfPresent(cacheKey);
+        if (cached != null && cached.version() == stamp.version()) {
+            return cached;
+        }
+        if (cached != null && cached.version() < stamp.version()) {
+            serializedBodyCache.invalidate(cacheKey);
+        }
+        SerializedBody loaded = serializedBodyCache.get(cacheKey, k -> serialize(mapper, stamp.version(), body.get()));
+        if (loaded != null && loaded.version() != stamp.version()) {
+            // Тело другой версии загрузил параллельный запрос: отвечаем по своей версии, не трогая кэш.
+            return serialize(mapper, stamp.version(), body.get());
+        }
+        return loaded;
+    }
+
+    private SerializedBody serialize(ObjectMapper mapper, long version, Object value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            byte[] bytes = mapper.writeValueAsBytes(value);
+            return new SerializedBody(version, bytes, bytes.length >= gzipMinSize ? gzip(bytes) : null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(body);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.currency.web;
+
+/**
+ * Тело ответа, сериализованное в JSON или CBOR для версии данных {@code version}. {@code gzip} — то же тело,
+ * заранее сжатое, или {@code null}, если тело слишком маленькое, чтобы сжатие окупалось.
+ */
+public record SerializedBody(long version, byte[] body, byte[] gzip) {
+
+    public long estimatedBytes() {
+        return 64 + body.length + (gzip != null ? gzip.length : 0);
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.currency;
+
+import com.example.currency.models.CurrencyRate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Курсы для модульных тестов. Незаданные поля остаются {@code null}.
+ */
+public final class TestRates {
+    private TestRates() {
+    }
+
+    public static CurrencyRate rate(Long id, String abbreviation, BigDecimal value) {
+        return build(id, abbreviation, value, null);
+    }
+
+    public static CurrencyRate rate(Long id, String abbreviation, String value) {
+        return rate(id, abbreviation, value, null);
+    }
+
+    public static CurrencyRate rate(Long id, String abbreviation, String value, LocalDate date) {
+        return build(id, abbreviation, value != null ? new BigDecimal(value) : null, date);
+    }
+
+    private static CurrencyRate build(Long id, String abbreviation, BigDecimal value, LocalDate date) {
+        CurrencyRate rate = new CurrencyRate();
+        rate.setId(id);
+        rate.setAbbreviation(abbreviation);
+        rate.setRate(value);
+        rate.setDate(date);
+        return rate;
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.currency.admission;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.example.currency.admission.AdmissionFilter.Reason.CONCURRENCY;
+import static com.example.currency.admission.AdmissionFilter.Reason.RATE_LIMIT;
+import static com.example.currency.admission.AdmissionFilter.RouteClass.CONVERT;
+import static com.example.currency.admission.AdmissionFilter.RouteClass.CRUD;
+import static com.example.currency.admission.AdmissionFilter.RouteClass.UPSTREAM;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdmissionFilterTest {
+
+    @Test
+    void classifiesRoutes() {
+        assertEquals(CONVERT, AdmissionFilter.classify("/api/currency/rates/convert"));
+        assertEquals(CONVERT, AdmissionFilter.classify("/api/currency/rates/convert/batch"));
+        assertEquals(UPSTREAM, AdmissionFilter.classify("/api/nbrb/rates/431"));
+        assertEquals(UPSTREAM, AdmissionFilter.classify("/api/currency/rates/sync"));
+        assertEquals(CRUD, AdmissionFilter.classify("/api/currency/info/1"));
+        assertNull(AdmissionFilter.classify("/api/currency/rates/stream"));
+        assertNull(AdmissionFilter.classify("/actuator/prometheus"));
+    }
+
+    @Test
+    void rejectsClientOverItsRateWithRetryAfter() throws Exception {
+        AdmissionFilter filter = filter(1, 2, 10);
+        assertEquals(200, perform(filter, request("/api/currency/info", "10.0.0.1")).getStatus());
+        assertEquals(200, perform(filter, request("/api/currency/info", "10.0.0.1")).getStatus());
+
+        MockHttpServletResponse rejected = perform(filter, request("/api/currency/info", "10.0.0.1"));
+        assertEquals(429, rejected.getStatus());
+        assertEquals("1", rejected.getHeader(HttpHeaders.RETRY_AFTER));
+        assertTrue(rejected.getContentAsString(StandardCharsets.UTF_8).contains("Слишком много запросов"));
+        assertEquals(1, filter.getRejectedCount(CRUD, RATE_LIMIT));
+
+        // Другой клиент и тот же адрес с известным ключом API считаются отдельно.
+        assertEquals(200, perform(filter, request("/api/currency/info", "10.0.0.2")).getStatus());
+        assertEquals(200, perform(filter, withKey("10.0.0.1", "service-a")).getStatus());
+        assertEquals(3, filter.getTrackedClients());
+    }
+
+    @Test
+    void unknownApiKeyFallsBackToRemoteAddress() throws Exception {
+        AdmissionFilter filter = filter(1, 1, 10);
+        assertEquals("key:service-a", filter.clientKey(withKey("10.0.0.1", " service-a ")));
+        assertEquals("ip:10.0.0.1", filter.clientKey(withKey("10.0.0.1", "forged")));
+
+        // Смена неизвестного ключа в каждом запросе не даёт новой корзины.
+        assertEquals(200, perform(filter, withKey("10.0.0.1", "forged-1")).getStatus());
+        assertEquals(429, perform(filter, withKey("10.0.0.1", "forged-2")).getStatus());
+        assertEquals(1, filter.getTrackedClients());
+    }
+
+    @Test
+    void shedsRouteClassOverConcurrencyLimit() throws Exception {
+        AdmissionFilter filter = filter(1000, 1000, 1);
+        AtomicReference<MockHttpServletResponse> nested = new AtomicReference<>();
+        // Пока первый запрос выполняется, второй на тот же класс маршрутов получает 503.
+        FilterChain slow = (req, res) -> {
+            nested.set(perform(filter, request("/api/currency/rates/convert", "10.0.0.2")));
+            assertEquals(200, perform(filter, request("/api/currency/info", "10.0.0.2")).getStatus());
+        };
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        filter.doFilter(request("/api/currency/rates/convert", "10.0.0.1"), first, slow);
+
+        assertEquals(200, first.getStatus());
+        assertEquals(503, nested.get().getStatus());
+        assertEquals("1", nested.get().getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(1, filter.getRejectedCount(CONVERT, CONCURRENCY));
+        assertEquals(0, filter.getInFlight(CONVERT));
+        assertEquals(200, perform(filter, request("/api/currency/rates/convert", "10.0.0.2")).getStatus());
+    }
+
+    @Test
+    void asyncRequestHoldsSlotUntilCompletion() throws Exception {
+        AdmissionFilter filter = filter(1000, 1000, 1);
+        MockHttpServletRequest request = request("/api/nbrb/currencies", "10.0.0.1");
+        request.setAsyncSupported(true);
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+
+        assertEquals(1, filter.getInFlight(UPSTREAM));
+        assertEquals(503, perform(filter, request("/api/nbrb/currencies", "10.0.0.2")).getStatus());
+        request.getAsyncContext().complete();
+        assertEquals(0, filter.getInFlight(UPSTREAM));
+    }
+
+    @Test
+    void clientsOverTrackingCapShareOverflowBucket() throws Exception {
+        AdmissionFilter filter = filter(1000, 1, 10, 2);
+        assertEquals(200, perform(filter, request("/api/currency/info", "10.0.0.1")).getStatus());
+        assertEquals(200, perform(filter, request("/api/currency/info", "10.0.0.2")).getStatus());
+
+        // Таблица полна: третий и четвёртый клиенты делят одну корзину, и она не растёт.
+        assertEquals(200, perform(filter, request("/api/currency/info", "10.0.0.3")).getStatus());
+        assertEquals(429, perform(filter, request("/api/currency/info", "10.0.0.4")).getStatus());
+        assertEquals(2, filter.getTrackedClients());
+        assertEquals(2, filter.getOverflowRequests());
+
+        // Очистка удаляет полные корзины, и новые клиенты снова получают свои.
+        filter.sweepIdle(System.nanoTime() + TimeUnit.SECONDS.toNanos(1));
+        assertEquals(0, filter.getTrackedClients());
+        assertEquals(200, perform(filter, request("/api/currency/info", "10.0.0.4")).getStatus());
+        assertEquals(1, filter.getTrackedClients());
+        filter.destroy();
+    }
+
+    private static AdmissionFilter filter(double rate, int burst, int concurrency) {
+        return filter(rate, burst, concurrency, 1000);
+    }
+
+    private static AdmissionFilter filter(double rate, int burst, int concurrency, int maxTracked) {
+        return new AdmissionFilter(Jackson2ObjectMapperBuilder.json().build(), true, rate, burst, maxTracked,
+                Duration.ofMinutes(1), concurrency, concurrency, concurrency, List.of("service-a"));
+    }
+
+    private static MockHttpServletRequest withKey(String remoteAddr, String apiKey) {
+        MockHttpServletRequest request = request("/api/currency/info", remoteAddr);
+        request.addHeader(AdmissionFilter.API_KEY_HEADER, apiKey);
+        return request;
+    }
+
+    private static MockHttpServletRequest request(String path, String remoteAddr) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setRemoteAddr(remoteAddr);
+        return request;
+    }
+
+    private static MockHttpServletResponse perform(AdmissionFilter filter, MockHttpServletRequest request)
+            throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.currency.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void admitsBurstThenPacesAtRate() {
+        long now = 1_000;
+        TokenBucket bucket = new TokenBucket(10, 5, now);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bucket.tryAcquire(now));
+        }
+        // Шестой запрос ждёт один интервал (1/10 с).
+        assertEquals(SECOND / 10, bucket.tryAcquire(now));
+        assertEquals(0, bucket.tryAcquire(now + SECOND / 10));
+        assertEquals(SECOND / 10, bucket.tryAcquire(now + SECOND / 10));
+        assertFalse(bucket.isIdle(now + SECOND / 10));
+
+        // За полсекунды простоя корзина наполняется снова.
+        long later = now + SECOND / 10 + SECOND / 2;
+        assertTrue(bucket.isIdle(later));
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bucket.tryAcquire(later));
+        }
+        assertTrue(bucket.tryAcquire(later) > 0);
+    }
+
+    @Test
+    void handlesNegativeNanoTime() {
+        long now = Long.MIN_VALUE + 10;
+        TokenBucket bucket = new TokenBucket(1, 1, now);
+        assertEquals(0, bucket.tryAcquire(now));
+        assertEquals(SECOND, bucket.tryAcquire(now));
+        assertEquals(0, bucket.tryAcquire(now + SECOND));
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.currency.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateSeriesTest {
+    private static final LocalDate START = LocalDate.of(2022, 1, 1);
+
+    @Test
+    void matchesDirectComputationForArbitraryWindows() {
+        Random random = new Random(42);
+        RateSeries series = new RateSeries();
+        TreeMap<LocalDate, Double> rates = new TreeMap<>();
+        for (int day = 0; day < 3 * 365; day++) {
+            // Пропуски как выходные без курса.
+            if (random.nextInt(7) < 5) {
+                LocalDate date = START.plusDays(day);
+                double rate = 3 + random.nextGaussian() * 0.1;
+                series.set(date, rate);
+                rates.put(date, rate);
+            }
+        }
+        // Повторная запись даты заменяет значение.
+        for (int i = 0; i < 100; i++) {
+            LocalDate date = rates.firstKey().plusDays(random.nextInt(3 * 365));
+            if (rates.containsKey(date)) {
+                double rate = 3 + random.nextGaussian();
+                series.set(date, rate);
+                rates.put(date, rate);
+            }
+        }
+
+        for (int i = 0; i < 500; i++) {
+            LocalDate from = START.plusDays(random.nextInt(3 * 365));
+            LocalDate to = from.plusDays(random.nextInt(400));
+            assertMatches(series.stats(from, to).stats(), rates.subMap(from, true, to, true));
+        }
+    }
+
+    @Test
+    void readsMonthSummariesForWholeMonths() {
+        RateSeries series = new RateSeries();
+        for (LocalDate date = START; date.getYear() == 2022; date = date.plusDays(1)) {
+            series.set(date, date.getDayOfYear());
+        }
+
+        RateSeries.Result year = series.stats(START, LocalDate.of(2022, 12, 31));
+        assertEquals(12, year.buckets());
+        assertEquals(365, year.stats().count());
+        assertEquals(183, year.stats().mean(), 1e-9);
+
+        RateSeries.Result edges = series.stats(LocalDate.of(2022, 1, 30), LocalDate.of(2022, 3, 2));
+        // 30-31 января по дням, февраль одной сводкой, 1-2 марта по дням.
+        assertEquals(2 + 1 + 2, edges.buckets());
+        assertEquals(2 + 28 + 2, edges.stats().count());
+        assertEquals(30, edges.stats().min());
+        assertEquals(61, edges.stats().max());
+    }
+
+    @Test
+    void emptyWindowHasNoValues() {
+        RateSeries series = new RateSeries();
+        series.set(START, 1.5);
+        assertEquals(0, series.stats(START.plusDays(1), START.plusDays(40)).stats().count());
+        RunningStats single = series.stats(START, START).stats();
+        assertEquals(1, single.count());
+        assertEquals(0, single.stdDev());
+    }
+
+    private static void assertMatches(RunningStats actual, Map<LocalDate, Double> expected) {
+        assertEquals(expected.size(), actual.count());
+        if (expected.isEmpty()) {
+            return;
+        }
+        double sum = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (double rate : expected.values()) {
+            sum += rate;
+            min = Math.min(min, rate);
+            max = Math.max(max, rate);
+        }
+        double mean = sum / expected.size();
+        double squares = 0;
+        for (double rate : expected.values()) {
+            squares += (rate - mean) * (rate - mean);
+        }
+        double stdDev = expected.size() > 1 ? Math.sqrt(squares / (expected.size() - 1)) : 0;
+        assertEquals(min, actual.min());
+        assertEquals(max, actual.max());
+        assertEquals(mean, actual.mean(), 1e-9);
+        assertEquals(stdDev, actual.stdDev(), 1e-9);
+        assertTrue(actual.stdDev() >= 0);
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.currency.analytics;
+
+import com.example.currency.events.RateChangeEvent;
+import com.example.currency.exception.ApiException;
+import com.example.currency.models.RateHistory;
+import com.example.currency.repository.RateHistoryJdbcRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpStatus;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static com.example.currency.TestRates.rate;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class RateStatisticsServiceTest {
+    private static final LocalDate DATE = LocalDate.of(2024, 3, 1);
+
+    @Test
+    void failedLoadIsRetriedUntilStatisticsAreReady() {
+        RateHistoryJdbcRepository repository = mock(RateHistoryJdbcRepository.class);
+        RateStatisticsService service = new RateStatisticsService(repository, Duration.ofMillis(1),
+                Duration.ofMillis(4));
+        int[] attempts = new int[1];
+        doAnswer(invocation -> {
+            if (++attempts[0] < 3) {
+                // Часть строк успела прочитаться до обрыва соединения.
+                invocation.<Consumer<RateHistory>>getArgument(0).accept(history("RTA", 1.0));
+                throw new DataAccessResourceFailureException("connection refused");
+            }
+            // Пока загрузка не удалась, изменение ждёт в буфере.
+            service.onRateChange(new RateChangeEvent(RateChangeEvent.Type.UPDATED,
+                    List.of(rate(null, "RTB", "5.0", DATE))));
+            invocation.<Consumer<RateHistory>>getArgument(0).accept(history("RTA", 2.0));
+            return null;
+        }).when(repository).forEach(any());
+
+        ApiException notReady = assertThrows(ApiException.class, () -> service.getStatistics("RTA", DATE, DATE));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, notReady.getStatus());
+
+        service.loadWithRetry();
+
+        verify(repository, times(3)).forEach(any());
+        assertEquals(1, service.getStatistics("RTA", DATE, DATE).getCount());
+        assertEquals(Double.valueOf(2.0), service.getStatistics("RTA", DATE, DATE).getMean());
+        assertEquals(Double.valueOf(5.0), service.getStatistics("RTB", DATE, DATE).getMean());
+    }
+
+    private static RateHistory history(String abbreviation, double rate) {
+        RateHistory row = new RateHistory();
+        row.setAbbreviation(abbreviation);
+        row.setDate(DATE);
+        row.setRate(BigDecimal.valueOf(rate));
+        return row;
+    }
+}
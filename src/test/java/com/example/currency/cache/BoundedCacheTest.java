@@ -0,0 +1,149 @@
+package com.example.currency.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedCacheTest {
+
+    @Test
+    void evictsLeastRecentlyUsedByWeight() throws InterruptedException {
+        BoundedCache<String, byte[]> cache = new BoundedCache<>("test", 100, 1000, Duration.ZERO, value -> value.length);
+        cache.put("a", new byte[400]);
+        Thread.sleep(1);
+        cache.put("b", new byte[400]);
+        Thread.sleep(1);
+        assertNotNull(cache.getIfPresent("a"));
+        assertEquals(800, cache.weight());
+
+        cache.put("c", new byte[300]);
+
+        assertNull(cache.getIfPresent("b"));
+        assertNotNull(cache.getIfPresent("a"));
+        assertNotNull(cache.getIfPresent("c"));
+        assertEquals(700, cache.weight());
+        assertEquals(1, cache.stats().getEvictions());
+    }
+
+    @Test
+    void tracksWeightOnReplaceAndInvalidate() {
+        BoundedCache<String, byte[]> cache = new BoundedCache<>("test", 100, 1000, Duration.ZERO, value -> value.length);
+        cache.put("a", new byte[100]);
+        cache.put("a", new byte[250]);
+        cache.put("b", new byte[50]);
+        assertEquals(300, cache.weight());
+
+        cache.invalidate("a");
+        assertEquals(50, cache.weight());
+        cache.invalidateAll();
+        assertEquals(0, cache.weight());
+    }
+
+    @Test
+    void doesNotCacheValueHeavierThanBudget() {
+        BoundedCache<String, byte[]> cache = new BoundedCache<>("test", 100, 1000, Duration.ZERO, value -> value.length);
+        cache.put("a", new byte[10]);
+
+        cache.put("a", new byte[2000]);
+
+        assertNull(cache.getIfPresent("a"));
+        assertEquals(0, cache.weight());
+        assertEquals(1000, cache.stats().getMaxWeight());
+    }
+
+    @Test
+    void loadRacingWithWriteDoesNotCacheStaleValue() throws Exception {
+        BoundedCache<String, String> cache = new BoundedCache<>("test", 100, Duration.ofMinutes(10));
+        CountDownLatch loaderRead = new CountDownLatch(1);
+        CountDownLatch written = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // Загрузчик прочитал старую строку, затем писатель обновил кэш, и только потом загрузчик вернулся.
+            Future<String> load = executor.submit(() -> cache.get("a", key -> {
+                loaderRead.countDown();
+                await(written);
+                return "old";
+            }));
+            assertTrue(loaderRead.await(5, TimeUnit.SECONDS));
+            cache.put("a", "new");
+            written.countDown();
+
+            assertEquals("old", load.get(5, TimeUnit.SECONDS));
+            assertEquals("new", cache.getIfPresent("a"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void loadRacingWithInvalidateAllIsNotCached() throws Exception {
+        BoundedCache<String, String> cache = new BoundedCache<>("test", 100, Duration.ofMinutes(10));
+        String loaded = cache.get("list", key -> {
+            cache.invalidateAll();
+            return "old";
+        });
+
+        assertEquals("old", loaded);
+        assertNull(cache.getIfPresent("list"));
+        assertEquals("fresh", cache.get("list", key -> "fresh"));
+        assertEquals("fresh", cache.getIfPresent("list"));
+    }
+
+    @Test
+    void concurrentLoadsOfOneKeyRunLoaderOnce() throws Exception {
+        BoundedCache<Integer, String> cache = new BoundedCache<>("test", 100, Duration.ofMinutes(10));
+        int threads = 8;
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch waiting = new CountDownLatch(threads);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    waiting.countDown();
+                    return cache.get(1, key -> {
+                        calls.incrementAndGet();
+                        await(release);
+                        return "value";
+                    });
+                }));
+            }
+            assertTrue(waiting.await(5, TimeUnit.SECONDS));
+            // Даём остальным потокам дойти до ожидания загрузки.
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<String> result : results) {
+                assertEquals("value", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, calls.get());
+            assertEquals(1, cache.stats().getLoads());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("latch timeout");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
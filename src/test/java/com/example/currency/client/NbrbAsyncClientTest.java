@@ -0,0 +1,153 @@
+package com.example.currency.client;
+
+import com.example.currency.config.NbrbClientConfig;
+import com.example.currency.models.CurrencyRate;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NbrbAsyncClientTest {
+    private static HttpServer stub;
+    private static final AtomicInteger hits = new AtomicInteger();
+    private static final AtomicInteger active = new AtomicInteger();
+    private static final AtomicInteger maxActive = new AtomicInteger();
+    private static volatile CountDownLatch release;
+    private static volatile long delayMillis;
+
+    private HttpClient httpClient;
+
+    @BeforeAll
+    static void startStub() throws IOException {
+        stub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stub.createContext("/exrates/rates/", exchange -> {
+            hits.incrementAndGet();
+            maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+            String curId = exchange.getRequestURI().getPath().substring("/exrates/rates/".length());
+            try {
+                release.await(5, TimeUnit.SECONDS);
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                active.decrementAndGet();
+            }
+            byte[] body = ("{\"Cur_ID\":" + curId + ",\"Date\":\"2024-05-10T00:00:00\",\"Cur_Abbreviation\":\"C"
+                    + curId + "\",\"Cur_Scale\":1,\"Cur_OfficialRate\":3.25}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        stub.setExecutor(Executors.newCachedThreadPool());
+        stub.start();
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.stop(0);
+    }
+
+    @BeforeEach
+    void setUp() {
+        hits.set(0);
+        maxActive.set(0);
+        release = new CountDownLatch(0);
+        delayMillis = 0;
+        httpClient = new NbrbClientConfig().nbrbHttpClient(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void sharedHttpClientUsesConfiguredTimeoutAndHttp11() {
+        assertEquals(HttpClient.Version.HTTP_1_1, httpClient.version());
+        assertEquals(Duration.ofSeconds(1), httpClient.connectTimeout().orElseThrow());
+    }
+
+    @Test
+    void concurrentRequestsForOneCurrencyHitUpstreamOnce() throws Exception {
+        NbrbAsyncClient client = client(8);
+        release = new CountDownLatch(1);
+        List<CompletableFuture<CurrencyRate>> calls = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            calls.add(client.getCurrencyRateAsync(431));
+        }
+        awaitHits(1);
+        release.countDown();
+
+        for (CompletableFuture<CurrencyRate> call : calls) {
+            assertEquals(431L, call.get(5, TimeUnit.SECONDS).getId());
+        }
+        assertEquals(1, hits.get());
+
+        // Завершённый запрос не держится в памяти: следующий снова идёт в НБРБ.
+        client.getCurrencyRateAsync(431).get(5, TimeUnit.SECONDS);
+        assertEquals(2, hits.get());
+    }
+
+    @Test
+    void callersGetIndependentFutures() {
+        NbrbAsyncClient client = client(8);
+        release = new CountDownLatch(1);
+        CompletableFuture<CurrencyRate> first = client.getCurrencyRateAsync(1);
+        CompletableFuture<CurrencyRate> second = client.getCurrencyRateAsync(1);
+        // Отмена одним вызывающим не отменяет общий запрос для остальных.
+        first.cancel(true);
+        release.countDown();
+
+        CurrencyRate rate = second.join();
+        assertEquals(1L, rate.getId());
+        assertTrue(first.isCancelled());
+        assertSame(rate, second.join());
+    }
+
+    @Test
+    void fanOutRespectsConcurrencyBound() throws Exception {
+        NbrbAsyncClient client = client(3);
+        delayMillis = 30;
+        List<Integer> ids = IntStream.rangeClosed(1, 12).boxed().toList();
+
+        Map<Integer, CurrencyRate> rates = client.getCurrencyRatesAsync(ids).get(10, TimeUnit.SECONDS);
+
+        assertEquals(ids, new ArrayList<>(rates.keySet()));
+        assertEquals(12, hits.get());
+        assertTrue(maxActive.get() <= 3, "max in flight " + maxActive.get());
+        assertEquals(3, maxActive.get());
+    }
+
+    private NbrbAsyncClient client(int maxConcurrency) {
+        String baseUrl = "http://localhost:" + stub.getAddress().getPort() + "/exrates/";
+        return new NbrbAsyncClient(httpClient, new ObjectMapper().findAndRegisterModules(), baseUrl,
+                Duration.ofSeconds(5), maxConcurrency);
+    }
+
+    private static void awaitHits(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (hits.get() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, hits.get());
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.currency.client;
+
+import com.example.currency.exception.ApiException;
+import com.example.currency.models.CurrencyRate;
+import com.example.currency.resilience.CircuitBreaker;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpStatus;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ResilientNbrbClientTest {
+    private static HttpServer stub;
+    private static final AtomicInteger hits = new AtomicInteger();
+    private static volatile int status;
+    private static volatile long delayMillis;
+    private static volatile String officialRate;
+
+    private NbrbApiClient apiClient;
+    private NbrbAsyncClient asyncClient;
+    private ResilientNbrbClient client;
+
+    @BeforeAll
+    static void startStub() throws IOException {
+        stub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stub.createContext("/exrates/rates/", exchange -> {
+            hits.incrementAndGet();
+            String curId = exchange.getRequestURI().getPath().substring("/exrates/rates/".length());
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = ("{\"Cur_ID\":" + curId + ",\"Date\":\"2024-05-10T00:00:00\",\"Cur_Abbreviation\":\"USD\","
+                    + "\"Cur_Scale\":1,\"Cur_OfficialRate\":" + officialRate + "}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        stub.setExecutor(Executors.newCachedThreadPool());
+        stub.start();
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.stop(0);
+    }
+
+    @BeforeEach
+    void setUp() {
+        hits.set(0);
+        status = 200;
+        delayMillis = 0;
+        officialRate = "3.2500";
+        String baseUrl = "http://localhost:" + stub.getAddress().getPort() + "/exrates/";
+        HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        apiClient = new NbrbApiClient(new RestTemplateBuilder(), httpClient, baseUrl, Duration.ofSeconds(2));
+        asyncClient = new NbrbAsyncClient(httpClient, objectMapper, baseUrl, Duration.ofSeconds(2), 4);
+        client = new ResilientNbrbClient(apiClient, asyncClient, Duration.ofMillis(50), Duration.ofHours(1),
+                2, Duration.ofMillis(150), Duration.ofMillis(300), 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.shutdown();
+    }
+
+    @Test
+    void servesLastKnownGoodValueWhileRefreshFails() throws Exception {
+        CurrencyRate fresh = client.getCurrencyRate(431).join();
+        assertEquals(0, new BigDecimal("3.25").compareTo(fresh.getRate()));
+
+        status = 500;
+        Thread.sleep(80);
+        CurrencyRate stale = client.getCurrencyRate(431).get(50, TimeUnit.MILLISECONDS);
+        assertEquals(0, new BigDecimal("3.25").compareTo(stale.getRate()));
+        assertEquals(1, client.getStaleServedCount());
+        awaitHits(2);
+        awaitFailures(1);
+    }
+
+    @Test
+    void refreshReplacesStaleValueInBackground() throws Exception {
+        client.getCurrencyRate(431).join();
+        officialRate = "3.3000";
+        Thread.sleep(80);
+        client.getCurrencyRate(431).join();
+        awaitHits(2);
+        Thread.sleep(50);
+        CurrencyRate refreshed = client.getCurrencyRate(431).join();
+        assertEquals(0, new BigDecimal("3.3").compareTo(refreshed.getRate()));
+    }
+
+    @Test
+    void opensAfterRepeatedFailuresAndFailsFast() {
+        status = 500;
+        assertStatus(HttpStatus.INTERNAL_SERVER_ERROR, 1);
+        assertStatus(HttpStatus.INTERNAL_SERVER_ERROR, 2);
+        assertEquals(CircuitBreaker.State.OPEN, client.getCircuitBreaker().getState());
+
+        assertStatus(HttpStatus.SERVICE_UNAVAILABLE, 3);
+        assertEquals(2, hits.get());
+        assertEquals(1, client.getCircuitBreaker().getRejectedCount());
+    }
+
+    @Test
+    void halfOpenProbeClosesBreakerWhenUpstreamRecovers() throws Exception {
+        status = 500;
+        assertStatus(HttpStatus.INTERNAL_SERVER_ERROR, 1);
+        assertStatus(HttpStatus.INTERNAL_SERVER_ERROR, 2);
+
+        status = 200;
+        Thread.sleep(350);
+        client.getCurrencyRate(3).join();
+        assertEquals(CircuitBreaker.State.CLOSED, client.getCircuitBreaker().getState());
+    }
+
+    @Test
+    void slowResponsesTripBreaker() {
+        delayMillis = 250;
+        client.getCurrencyRate(1).join();
+        client.getCurrencyRate(2).join();
+        assertEquals(CircuitBreaker.State.OPEN, client.getCircuitBreaker().getState());
+        assertEquals(2, client.getCircuitBreaker().getSlowCallCount());
+    }
+
+    @Test
+    void upstreamClientErrorsDoNotTripBreaker() {
+        status = 404;
+        assertStatus(HttpStatus.BAD_REQUEST, 1);
+        assertStatus(HttpStatus.BAD_REQUEST, 2);
+        assertStatus(HttpStatus.BAD_REQUEST, 3);
+        assertEquals(CircuitBreaker.State.CLOSED, client.getCircuitBreaker().getState());
+    }
+
+    @Test
+    void remembersOnlySuccessfulResponsesUpToLimit() {
+        // Свежесть и порог медленных вызовов с запасом, чтобы проверялся только учёт записей.
+        client.shutdown();
+        client = new ResilientNbrbClient(apiClient, asyncClient, Duration.ofMinutes(1), Duration.ofHours(1),
+                5, Duration.ofSeconds(5), Duration.ofMillis(300), 2);
+        status = 404;
+        assertStatus(HttpStatus.BAD_REQUEST, 900);
+        assertEquals(0, client.getCachedEntryCount());
+
+        status = 200;
+        client.getCurrencyRate(1).join();
+        client.getCurrencyRate(2).join();
+        client.getCurrencyRate(3).join();
+        assertEquals(2, client.getCachedEntryCount());
+
+        // Третий ID не запомнен и снова идёт в НБРБ, первые два отдаются из памяти.
+        client.getCurrencyRate(3).join();
+        client.getCurrencyRate(1).join();
+        assertEquals(5, hits.get());
+    }
+
+    private void assertStatus(HttpStatus expected, int curId) {
+        CompletionException error = assertThrows(CompletionException.class, () -> client.getCurrencyRate(curId).join());
+        ApiException apiException = assertInstanceOf(ApiException.class, error.getCause());
+        assertEquals(expected, apiException.getStatus());
+    }
+
+    private static void awaitHits(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (hits.get() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, hits.get());
+    }
+
+    private void awaitFailures(long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (client.getCircuitBreaker().getFailureCount() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, client.getCircuitBreaker().getFailureCount());
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.currency.controller;
+
+import com.example.currency.web.Ndjson;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BatchConversionTest {
+    // Удачная конвертация, неизвестная валюта и неположительная сумма: ошибки не прерывают пакет.
+    private static final String REQUESTS = "{\"from\":9601,\"to\":9602,\"amount\":100}\n"
+            + "{\"from\":9601,\"to\":9699,\"amount\":1}\n"
+            + "{\"from\":9602,\"to\":9601,\"amount\":0}\n"
+            + "{\"from\":9602,\"to\":9601,\"amount\":10}\n";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void seed() throws Exception {
+        for (String rate : List.of("{\"id\":9601,\"rate\":2.0,\"abbreviation\":\"BTA\",\"date\":\"2024-06-03\"}",
+                "{\"id\":9602,\"rate\":4.0,\"abbreviation\":\"BTB\",\"date\":\"2024-06-03\"}")) {
+            mockMvc.perform(post("/api/currency/rates").contentType(MediaType.APPLICATION_JSON).content(rate))
+                    .andExpect(status().isOk());
+        }
+    }
+
+    @Test
+    void jsonBatchReturnsResultPerRequestInOrder() throws Exception {
+        mockMvc.perform(post("/api/currency/rates/convert/batch").contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + String.join(",", REQUESTS.strip().split("\n")) + "]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(4))
+                .andExpect(jsonPath("$[0].result").value(200.0))
+                .andExpect(jsonPath("$[0].status").doesNotExist())
+                .andExpect(jsonPath("$[1].status").value(404))
+                .andExpect(jsonPath("$[1].result").doesNotExist())
+                .andExpect(jsonPath("$[2].status").value(400))
+                .andExpect(jsonPath("$[3].result").value(5.0));
+    }
+
+    @Test
+    void ndjsonBatchStreamsSameResultsLineByLine() throws Exception {
+        String body = mockMvc.perform(post("/api/currency/rates/convert/batch").contentType(Ndjson.MEDIA_TYPE)
+                        .accept(Ndjson.MEDIA_TYPE).content(REQUESTS))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(Ndjson.MEDIA_TYPE))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            assertFalse(line.isBlank());
+            lines.add(objectMapper.readTree(line));
+        }
+        assertEquals(4, lines.size());
+        assertEquals(200.0, lines.get(0).get("result").doubleValue());
+        assertEquals(404, lines.get(1).get("status").intValue());
+        assertEquals(400, lines.get(2).get("status").intValue());
+        assertEquals(5.0, lines.get(3).get("result").doubleValue());
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.currency.controller;
+
+import com.example.currency.events.RateChangeEvent;
+import com.example.currency.models.CurrencyRate;
+import com.example.currency.repository.CurrencyInfoRepository;
+import com.example.currency.repository.CurrencyRateRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = {"bulk.chunk-size=2", "bulk.batch-size=2"})
+@RecordApplicationEvents
+class BulkUpsertTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CurrencyRateRepository rateRepository;
+
+    @Autowired
+    private CurrencyInfoRepository currencyInfoRepository;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @Test
+    void ndjsonRatesAreUpsertedInChunksAndInvalidRowsReported() throws Exception {
+        String body = String.join("\n",
+                "{\"id\":9001,\"rate\":1.5,\"abbreviation\":\"BLA\",\"date\":\"2024-05-10\"}",
+                "{\"id\":9002,\"rate\":2.5,\"abbreviation\":\"BLB\",\"date\":\"2024-05-10\"}",
+                "{\"id\":9003,\"rate\":0,\"abbreviation\":\"BLC\",\"date\":\"2024-05-10\"}",
+                "{\"id\":9001,\"rate\":1.75,\"abbreviation\":\"BLA\",\"date\":\"2024-05-11\"}");
+
+        mockMvc.perform(post("/api/currency/rates/bulk").contentType("application/x-ndjson").content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.written").value(3))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.errors[0].row").value(3))
+                .andExpect(jsonPath("$.chunks.length()").value(2))
+                .andExpect(jsonPath("$.chunks[0].rows").value(2));
+
+        CurrencyRate updated = rateRepository.findById(9001L).orElseThrow();
+        assertEquals(0, new BigDecimal("1.75").compareTo(updated.getRate()));
+        mockMvc.perform(get("/api/currency/rates/9001"))
+                .andExpect(jsonPath("$.rate").value(1.75));
+        mockMvc.perform(get("/api/currency/rates/convert").param("from", "9001").param("to", "9002").param("amount", "7"))
+                .andExpect(jsonPath("$.result").value(10.0));
+    }
+
+    @Test
+    void jsonCurrenciesAreUpserted() throws Exception {
+        mockMvc.perform(post("/api/currency/info/bulk").contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"id\":8001,\"abbreviation\":\"AAA\"},{\"id\":8002,\"abbreviation\":\"BBB\"},"
+                                + "{\"id\":8001,\"abbreviation\":\"CCC\"},{\"id\":8003}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.written").value(3))
+                .andExpect(jsonPath("$.rejected").value(1));
+
+        assertEquals("CCC", currencyInfoRepository.findById(8001).orElseThrow().getAbbreviation());
+        mockMvc.perform(get("/api/currency/info/8002"))
+                .andExpect(jsonPath("$.abbreviation").value("BBB"));
+    }
+
+    @Test
+    void newRatesArePublishedAsCreatedAndExistingAsUpdated() throws Exception {
+        mockMvc.perform(post("/api/currency/rates").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"id\":9801,\"rate\":1.5,\"abbreviation\":\"BEA\",\"date\":\"2024-05-10\"}"))
+                .andExpect(status().isOk());
+        events.clear();
+        // 9802 создаётся в первом чанке и во втором уже считается обновлением.
+        String body = String.join("\n",
+                "{\"id\":9801,\"rate\":1.6,\"abbreviation\":\"BEA\",\"date\":\"2024-05-11\"}",
+                "{\"id\":9802,\"rate\":2.5,\"abbreviation\":\"BEB\",\"date\":\"2024-05-11\"}",
+                "{\"id\":9803,\"rate\":3.5,\"abbreviation\":\"BEC\",\"date\":\"2024-05-11\"}",
+                "{\"id\":9802,\"rate\":2.6,\"abbreviation\":\"BEB\",\"date\":\"2024-05-12\"}");
+
+        mockMvc.perform(post("/api/currency/rates/bulk").contentType("application/x-ndjson").content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.written").value(4));
+
+        assertEquals(List.of("CREATED:[9802]", "UPDATED:[9801]", "CREATED:[9803]", "UPDATED:[9802]"),
+                events.stream(RateChangeEvent.class)
+                        .map(event -> event.getType() + ":"
+                                + event.getRates().stream().map(CurrencyRate::getId).toList())
+                        .toList());
+    }
+}
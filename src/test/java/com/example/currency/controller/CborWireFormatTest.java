@@ -0,0 +1,119 @@
+package com.example.currency.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CborWireFormatTest {
+    private static final LocalDate DATE = LocalDate.of(2024, 5, 1);
+
+    // Обычный CBOR-маппер без модуля приложения: видит значения так, как они лежат в теле.
+    private final CBORMapper raw = new CBORMapper();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void ratesRoundTripWithFixedPointAndEpochDays() throws Exception {
+        byte[] body = raw.writeValueAsBytes(List.of(
+                Map.of("id", 9501, "rate", 2_500_000L, "abbreviation", "CBA", "date", DATE.toEpochDay()),
+                // Строковая дата тоже принимается.
+                Map.of("id", 9502, "rate", 1_000_000L, "abbreviation", "CBB", "date", DATE.toString())));
+        mockMvc.perform(post("/api/currency/rates/bulk").contentType(MediaType.APPLICATION_CBOR).content(body))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/currency/rates/9501"))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.rate").value(2.5))
+                .andExpect(jsonPath("$.date").value("2024-05-01"));
+
+        MockHttpServletResponse cbor = mockMvc.perform(get("/api/currency/rates/9501")
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, containsString(MediaType.APPLICATION_CBOR_VALUE)))
+                .andReturn().getResponse();
+        JsonNode rate = raw.readTree(cbor.getContentAsByteArray());
+        assertTrue(rate.get("rate").isIntegralNumber());
+        assertEquals(2_500_000L, rate.get("rate").longValue());
+        assertEquals(DATE.toEpochDay(), rate.get("date").longValue());
+
+        mockMvc.perform(get("/api/currency/rates/9502"))
+                .andExpect(jsonPath("$.rate").value(1.0))
+                .andExpect(jsonPath("$.date").value("2024-05-01"));
+
+        String jsonEtag = mockMvc.perform(get("/api/currency/rates/9501"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(jsonEtag, cbor.getHeader(HttpHeaders.ETAG));
+        mockMvc.perform(get("/api/currency/rates/9501").accept(MediaType.APPLICATION_CBOR)
+                        .header(HttpHeaders.IF_NONE_MATCH, cbor.getHeader(HttpHeaders.ETAG)))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void integerAmountInCborConversionIsWholeUnits() throws Exception {
+        byte[] rates = raw.writeValueAsBytes(List.of(
+                Map.of("id", 9504, "rate", 2_000_000L, "abbreviation", "CBD", "date", DATE.toEpochDay()),
+                Map.of("id", 9505, "rate", 1_000_000L, "abbreviation", "CBE", "date", DATE.toEpochDay())));
+        mockMvc.perform(post("/api/currency/rates/bulk").contentType(MediaType.APPLICATION_CBOR).content(rates))
+                .andExpect(status().isOk());
+
+        // Сумма — не курс: целое 100 остаётся сотней, а не 0.0001.
+        byte[] body = raw.writeValueAsBytes(List.of(Map.of("from", 9504, "to", 9505, "amount", 100)));
+        byte[] cbor = mockMvc.perform(post("/api/currency/rates/convert/batch")
+                        .contentType(MediaType.APPLICATION_CBOR).accept(MediaType.APPLICATION_CBOR).content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        JsonNode result = raw.readTree(cbor).get(0);
+        assertEquals(0, new BigDecimal("100").compareTo(result.get("amount").decimalValue()));
+        assertEquals(0, new BigDecimal("50").compareTo(result.get("result").decimalValue()));
+
+        mockMvc.perform(post("/api/currency/rates/convert/batch").contentType(MediaType.APPLICATION_CBOR).content(body))
+                .andExpect(jsonPath("$[0].amount").value(100))
+                .andExpect(jsonPath("$[0].result").value(50.0));
+    }
+
+    @Test
+    void jsonStaysDefaultUnlessCborIsPreferred() throws Exception {
+        mockMvc.perform(post("/api/currency/info").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"id\":9503,\"abbreviation\":\"CBC\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/currency/info/9503").header(HttpHeaders.ACCEPT, "*/*"))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+        mockMvc.perform(get("/api/currency/info/9503")
+                        .header(HttpHeaders.ACCEPT, "application/json, application/cbor;q=0.5"))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+        byte[] cbor = mockMvc.perform(get("/api/currency/info/9503")
+                        .header(HttpHeaders.ACCEPT, "application/cbor, application/json;q=0.9"))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals("CBC", raw.readTree(cbor).get("abbreviation").asText());
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.currency.controller;
+
+import com.example.currency.repository.CurrencyRateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ConditionalGetTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @SpyBean
+    private CurrencyRateRepository rateRepository;
+
+    @BeforeEach
+    void resetSpy() {
+        Mockito.reset(rateRepository);
+    }
+
+    @Test
+    void matchingEtagReturnsNotModifiedWithoutReadingRepository() throws Exception {
+        String etag = mockMvc.perform(get("/api/currency/rates"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        Mockito.reset(rateRepository);
+
+        mockMvc.perform(get("/api/currency/rates").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+        verify(rateRepository, never()).findAll();
+    }
+
+    @Test
+    void writeChangesEtag() throws Exception {
+        String before = mockMvc.perform(get("/api/currency/rates"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(post("/api/currency/rates")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"id\":777,\"rate\":1.25,\"abbreviation\":\"ETG\",\"date\":\"2024-05-10\"}"))
+                .andExpect(status().isOk());
+
+        String after = mockMvc.perform(get("/api/currency/rates").header(HttpHeaders.IF_NONE_MATCH, before))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(before, after);
+    }
+
+    @Test
+    void ndjsonRepresentationHasItsOwnEtag() throws Exception {
+        String json = mockMvc.perform(get("/api/currency/info"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String ndjson = mockMvc.perform(get("/api/currency/info").accept("application/x-ndjson"))
+                .andExpect(header().string(HttpHeaders.VARY, containsString("Accept")))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(json, ndjson);
+
+        mockMvc.perform(get("/api/currency/info").accept("application/x-ndjson").header(HttpHeaders.IF_NONE_MATCH, ndjson))
+                .andExpect(status().isNotModified());
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.currency.controller;
+
+import com.example.currency.cache.BoundedCache;
+import com.example.currency.repository.RateHistoryJdbcRepository;
+import com.example.currency.snapshot.RateSnapshot;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class HistoricalConversionTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BoundedCache<LocalDate, RateSnapshot> historicalRateCache;
+
+    @SpyBean
+    private RateHistoryJdbcRepository rateHistoryJdbcRepository;
+
+    @Test
+    void convertsAtPastDateAndSeesLaterHistoryWrites() throws Exception {
+        upsert("{\"id\":9101,\"rate\":3.0,\"abbreviation\":\"HUS\",\"date\":\"2024-03-01\"}",
+                "{\"id\":9102,\"rate\":3.3,\"abbreviation\":\"HEU\",\"date\":\"2024-03-01\"}",
+                "{\"id\":9101,\"rate\":3.2,\"abbreviation\":\"HUS\",\"date\":\"2024-03-04\"}");
+
+        for (int i = 0; i < 3; i++) {
+            convertAt("2024-03-02").andExpect(jsonPath("$.result").value(11.0));
+        }
+        verify(rateHistoryJdbcRepository, times(1)).findAsOf(any(), eq(LocalDate.of(2024, 3, 2)));
+        convertAt("2024-03-04").andExpect(jsonPath("$.result").value(10.3125));
+        mockMvc.perform(get("/api/currency/rates/convert/by-code")
+                        .param("from", "hus").param("to", "HEU").param("amount", "10").param("date", "2024-03-02"))
+                .andExpect(jsonPath("$.fromId").value(9101))
+                .andExpect(jsonPath("$.result").value(11.0));
+
+        upsert("{\"id\":9101,\"rate\":2.0,\"abbreviation\":\"HUS\",\"date\":\"2024-03-02\"}");
+        convertAt("2024-03-02").andExpect(jsonPath("$.result").value(16.5));
+        convertAt("2024-03-03").andExpect(jsonPath("$.result").value(16.5));
+    }
+
+    @Test
+    void batchItemsCarryTheirOwnDate() throws Exception {
+        upsert("{\"id\":9201,\"rate\":2.0,\"abbreviation\":\"BUS\",\"date\":\"2024-06-28\"}",
+                "{\"id\":9202,\"rate\":4.0,\"abbreviation\":\"BEU\",\"date\":\"2024-06-28\"}",
+                "{\"id\":9201,\"rate\":4.0,\"abbreviation\":\"BUS\",\"date\":\"2024-07-01\"}");
+
+        mockMvc.perform(post("/api/currency/rates/convert/batch").contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"from\":9201,\"to\":9202,\"amount\":1,\"date\":\"2024-06-30\"},"
+                                + "{\"from\":9201,\"to\":9202,\"amount\":1},"
+                                + "{\"from\":9201,\"to\":9202,\"amount\":1,\"date\":\"2020-01-01\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].result").value(2.0))
+                .andExpect(jsonPath("$[1].result").value(1.0))
+                .andExpect(jsonPath("$[2].status").value(404));
+        assertTrue(historicalRateCache.weight() > 0);
+    }
+
+    private void upsert(String... rows) throws Exception {
+        mockMvc.perform(post("/api/currency/rates/bulk").contentType("application/x-ndjson")
+                        .content(String.join("\n", rows)))
+                .andExpect(status().isOk());
+    }
+
+    private ResultActions convertAt(String date) throws Exception {
+        return mockMvc.perform(get("/api/currency/rates/convert")
+                        .param("from", "9101").param("to", "9102").param("amount", "10").param("date", date))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.date").value(date));
+    }
+}
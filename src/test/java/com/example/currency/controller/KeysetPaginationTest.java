@@ -0,0 +1,114 @@
+package com.example.currency.controller;
+
+import com.example.currency.web.Ndjson;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class KeysetPaginationTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void seed() throws Exception {
+        for (int id = 9701; id <= 9715; id++) {
+            String abbreviation = "K" + id % 100;
+            mockMvc.perform(post("/api/currency/rates").contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"id\":" + id + ",\"rate\":1.5,\"abbreviation\":\"" + abbreviation
+                                    + "\",\"date\":\"2024-06-03\"}"))
+                    .andExpect(status().isOk());
+            mockMvc.perform(post("/api/currency/info").contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"id\":" + id + ",\"abbreviation\":\"" + abbreviation + "\"}"))
+                    .andExpect(status().isOk());
+        }
+    }
+
+    @Test
+    void ratePagesCoverTableOnceInIdOrder() throws Exception {
+        List<Long> paged = walk("/api/currency/rates/page", 4);
+        assertOrderedAndComplete(paged);
+        assertEquals(stream("/api/currency/rates"), paged);
+    }
+
+    @Test
+    void currencyPagesCoverTableOnceInIdOrder() throws Exception {
+        List<Long> paged = walk("/api/currency/info/page", 4);
+        assertOrderedAndComplete(paged);
+        assertEquals(stream("/api/currency/info"), paged);
+    }
+
+    @Test
+    void rejectsPageSizeOutsideLimits() throws Exception {
+        mockMvc.perform(get("/api/currency/rates/page").param("limit", "0")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/currency/info/page").param("limit", "1001")).andExpect(status().isBadRequest());
+    }
+
+    // Идёт по nextCursor, пока сервер его возвращает; число запросов ограничено на случай зацикливания.
+    private List<Long> walk(String path, int limit) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        String after = null;
+        for (int request = 0; request < 10_000; request++) {
+            MockHttpServletRequestBuilder call = get(path).param("limit", Integer.toString(limit));
+            if (after != null) {
+                call.param("after", after);
+            }
+            JsonNode page = objectMapper.readTree(mockMvc.perform(call).andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8));
+            assertTrue(page.get("items").size() <= limit);
+            page.get("items").forEach(item -> ids.add(item.get("id").longValue()));
+            if (page.get("nextCursor") == null) {
+                return ids;
+            }
+            after = page.get("nextCursor").asText();
+        }
+        throw new AssertionError("Pagination did not terminate for " + path);
+    }
+
+    private List<Long> stream(String path) throws Exception {
+        MvcResult started = mockMvc.perform(get(path).accept(Ndjson.MEDIA_TYPE)).andReturn();
+        String body = mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        List<Long> ids = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            if (!line.isBlank()) {
+                ids.add(objectMapper.readTree(line).get("id").longValue());
+            }
+        }
+        return ids;
+    }
+
+    private static void assertOrderedAndComplete(List<Long> ids) {
+        for (int i = 1; i < ids.size(); i++) {
+            assertTrue(ids.get(i - 1) < ids.get(i), "ids not strictly increasing at " + i);
+        }
+        for (long id = 9701; id <= 9715; id++) {
+            assertTrue(ids.contains(id), "missing id " + id);
+        }
+    }
+}
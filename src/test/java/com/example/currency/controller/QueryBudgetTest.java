@@ -0,0 +1,340 @@
+package com.example.currency.controller;
+
+import com.example.currency.controller.QueryCounter.Counts;
+import com.example.currency.web.Ndjson;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Бюджет SQL-запросов для эндпоинтов: точное число операторов и верхняя граница прочитанных строк
+ * на вызов. Лишний запрос на горячем пути (конвертация, поиск по ID из кэша) ломает сборку.
+ * Отдельная база, чтобы число строк не зависело от данных других тестов; вместо API НБРБ — локальная
+ * заглушка с теми же курсами, что и в базе.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:query_budget;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class QueryBudgetTest {
+    private static final int CURRENCIES = 20;
+    private static final HttpServer nbrb = startNbrbStub();
+    private static volatile String lastOfficialRate = officialRate(CURRENCIES);
+    private static boolean seeded;
+
+    @TestConfiguration
+    static class CountingDataSourceConfig {
+        @Bean
+        static BeanPostProcessor countingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? QueryCounter.wrap(dataSource) : bean;
+                }
+            };
+        }
+
+        // Асинхронные ответы (NDJSON, НБРБ) выполняются в applicationTaskExecutor, а не в потоке запроса.
+        @Bean
+        TaskDecorator countingTaskDecorator() {
+            return QueryCounter.propagating();
+        }
+    }
+
+    @DynamicPropertySource
+    static void nbrbProperties(DynamicPropertyRegistry registry) {
+        registry.add("nbrb.api.base-url", () -> "http://localhost:" + nbrb.getAddress().getPort() + "/exrates/");
+    }
+
+    @AfterAll
+    static void stopNbrbStub() {
+        nbrb.stop(0);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void seed() throws Exception {
+        if (seeded) {
+            return;
+        }
+        StringBuilder currencies = new StringBuilder("[");
+        StringBuilder rates = new StringBuilder("[");
+        for (int id = 1; id <= CURRENCIES; id++) {
+            String separator = id > 1 ? "," : "";
+            currencies.append(separator).append("{\"id\":").append(id).append(",\"abbreviation\":\"")
+                    .append(code(id)).append("\"}");
+            rates.append(separator).append("{\"id\":").append(id).append(",\"rate\":").append(officialRate(id))
+                    .append(",\"abbreviation\":\"").append(code(id)).append("\",\"date\":\"2024-06-03\"}");
+        }
+        mockMvc.perform(post("/api/currency/info/bulk").contentType(MediaType.APPLICATION_JSON)
+                        .content(currencies.append("]").toString()))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/currency/rates/bulk").contentType(MediaType.APPLICATION_JSON)
+                        .content(rates.append("]").toString()))
+                .andExpect(status().isOk());
+        seeded = true;
+    }
+
+    @Test
+    void conversionNeverTouchesTheDatabase() throws Exception {
+        budget(0, 0, get("/api/currency/rates/convert").param("from", "1").param("to", "2").param("amount", "100"));
+        budget(0, 0, get("/api/currency/rates/convert/by-code")
+                .param("from", "q01").param("to", "Q02").param("amount", "100"));
+        budget(0, 0, post("/api/currency/rates/convert/batch").contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"from\":1,\"to\":2,\"amount\":1},{\"from\":3,\"to\":4,\"amount\":2}]"));
+        budget(0, 0, get("/api/currency/rates/snapshot"));
+    }
+
+    @Test
+    void historicalConversionLoadsSnapshotOncePerDate() throws Exception {
+        RequestBuilder convert = get("/api/currency/rates/convert")
+                .param("from", "1").param("to", "2").param("amount", "100").param("date", "2024-06-03");
+        budget(1, CURRENCIES, convert);
+        budget(0, 0, convert);
+    }
+
+    @Test
+    void lookupByAbbreviationUsesOneIndexedQuery() throws Exception {
+        budget(1, 1, get("/api/currency/rates/by-abbreviation").param("abbreviation", "Q03")
+                .param("date", "2024-06-03"));
+        budget(1, 1, get("/api/currency/rates/history").param("abbreviation", "Q03")
+                .param("from", "2024-06-01").param("to", "2024-06-30"));
+    }
+
+    @Test
+    void listsAreReadOncePerVersion() throws Exception {
+        touchRates();
+        // Полный список читает таблицу целиком; страница — не больше limit строк.
+        budget(1, CURRENCIES, get("/api/currency/rates"));
+        budget(0, 0, get("/api/currency/rates"));
+        budget(1, 5, get("/api/currency/rates/page").param("limit", "5"));
+
+        touchCurrencies();
+        budget(1, CURRENCIES, get("/api/currency/info"));
+        budget(0, 0, get("/api/currency/info"));
+        budget(1, CURRENCIES, get("/api/currency/info/db"));
+        budget(1, 5, get("/api/currency/info/page").param("limit", "5"));
+    }
+
+    @Test
+    void lookupsByIdAreCached() throws Exception {
+        touchRates();
+        budget(1, 1, get("/api/currency/rates/7"));
+        budget(0, 0, get("/api/currency/rates/7"));
+        budget(1, 0, get("/api/currency/rates/9999")).andExpect(status().isNotFound());
+
+        touchCurrencies();
+        budget(1, 1, get("/api/currency/info/7"));
+        budget(0, 0, get("/api/currency/info/7"));
+    }
+
+    @Test
+    void writesPayForManuallyAssignedIds() throws Exception {
+        // ID задаются вручную, поэтому save() делает merge: select перед каждой записью.
+        budget(2, 0, post("/api/currency/info").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"id\":101,\"abbreviation\":\"QNW\"}"));
+        budget(2, 1, put("/api/currency/info/101").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"abbreviation\":\"QNX\"}"));
+        budget(2, 1, delete("/api/currency/info/101"));
+
+        // Запись курса добавляет строку в историю.
+        budget(3, 0, post("/api/currency/rates").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"id\":101,\"rate\":3.5,\"abbreviation\":\"QNW\",\"date\":\"2024-06-04\"}"));
+        budget(3, 1, put("/api/currency/rates/101").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"rate\":3.75,\"abbreviation\":\"QNW\",\"date\":\"2024-06-04\"}"));
+        budget(2, 1, delete("/api/currency/rates/101"));
+    }
+
+    @Test
+    void bulkUpsertWritesInBatches() throws Exception {
+        // Пакет upsert, пакет истории и перечитывание таблицы для нового снимка курсов.
+        budget(3, CURRENCIES + 2, post("/api/currency/rates/bulk").contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"id\":201,\"rate\":1.1,\"abbreviation\":\"QB1\",\"date\":\"2024-06-04\"},"
+                        + "{\"id\":202,\"rate\":1.2,\"abbreviation\":\"QB2\",\"date\":\"2024-06-04\"}]"));
+        budget(1, 0, post("/api/currency/info/bulk").contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"id\":201,\"abbreviation\":\"QB1\"},{\"id\":202,\"abbreviation\":\"QB2\"}]"));
+
+        for (int id = 201; id <= 202; id++) {
+            mockMvc.perform(delete("/api/currency/rates/" + id)).andExpect(status().isNoContent());
+            mockMvc.perform(delete("/api/currency/info/" + id)).andExpect(status().isNoContent());
+        }
+    }
+
+    @Test
+    void inMemoryEndpointsStayOffTheDatabase() throws Exception {
+        RequestBuilder stats = get("/api/currency/rates/stats").param("abbreviation", "Q01")
+                .param("from", "2024-06-01").param("to", "2024-06-30");
+        awaitStatistics(stats);
+        budget(0, 0, get("/api/cache/stats")).andExpect(status().isOk());
+        budget(0, 0, stats).andExpect(status().isOk());
+    }
+
+    @Test
+    void ndjsonExportsReadThroughOneCursor() throws Exception {
+        // Выгрузки не кэшируются: каждый вызов — один запрос, строки читаются курсором.
+        budget(1, CURRENCIES, get("/api/currency/rates").accept(Ndjson.MEDIA_TYPE)).andExpect(status().isOk());
+        budget(1, CURRENCIES, get("/api/currency/info").accept(Ndjson.MEDIA_TYPE)).andExpect(status().isOk());
+        budget(1, 1, get("/api/currency/rates/history").accept(Ndjson.MEDIA_TYPE).param("abbreviation", "Q03")
+                .param("from", "2024-06-01").param("to", "2024-06-30"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void nbrbProxyNeverTouchesTheDatabase() throws Exception {
+        budget(0, 0, get("/api/nbrb/currencies")).andExpect(status().isOk());
+        budget(0, 0, get("/api/nbrb/rates/3")).andExpect(status().isOk());
+        budget(0, 0, get("/api/nbrb/status")).andExpect(status().isOk());
+    }
+
+    @Test
+    void syncWritesOnlyChangedRates() throws Exception {
+        // Курсы НБРБ совпадают с базой: одно чтение таблицы и никаких записей.
+        budget(1, CURRENCIES, post("/api/currency/rates/sync")).andExpect(status().isOk());
+        budget(0, 0, get("/api/currency/rates/sync")).andExpect(status().isOk());
+
+        // Изменился один курс: чтение, пакет обновления, пакет истории и перечитывание таблицы для снимка.
+        lastOfficialRate = "20.75";
+        try {
+            budget(4, 2L * CURRENCIES, post("/api/currency/rates/sync")).andExpect(status().isOk());
+        } finally {
+            lastOfficialRate = officialRate(CURRENCIES);
+            mockMvc.perform(post("/api/currency/rates/sync")).andExpect(status().isOk());
+        }
+    }
+
+    private void awaitStatistics(RequestBuilder stats) throws Exception {
+        for (int i = 0; i < 100; i++) {
+            if (mockMvc.perform(stats).andReturn().getResponse().getStatus() == 200) {
+                return;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Сводки статистики не построены");
+    }
+
+    // Изменение без смены данных: увеличивает версию и сбрасывает кэши списков, не меняя число строк.
+    private void touchRates() throws Exception {
+        mockMvc.perform(put("/api/currency/rates/1").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"rate\":1.5,\"abbreviation\":\"Q01\",\"date\":\"2024-06-03\"}"))
+                .andExpect(status().isOk());
+    }
+
+    private void touchCurrencies() throws Exception {
+        mockMvc.perform(put("/api/currency/info/1").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"abbreviation\":\"Q01\"}"))
+                .andExpect(status().isOk());
+    }
+
+    private ResultActions budget(int statements, long maxRows, RequestBuilder request) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        AtomicReference<ResultActions> result = new AtomicReference<>();
+        Counts counts = QueryCounter.measure(() -> {
+            ResultActions actions = mockMvc.perform(request);
+            MvcResult started = actions.andReturn();
+            result.set(started.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(started)) : actions);
+        });
+        String call = request.buildRequest(null).getMethod() + " " + request.buildRequest(null).getRequestURI();
+        String details = call + ", Hibernate: " + Arrays.toString(statistics.getQueries())
+                + " entities loaded " + statistics.getEntityLoadCount();
+        assertEquals(statements, counts.statements(), "SQL statements for " + details);
+        assertTrue(counts.rows() <= maxRows, "Rows fetched " + counts.rows() + " > " + maxRows + " for " + details);
+        return result.get();
+    }
+
+    private static String code(int id) {
+        return String.format("Q%02d", id);
+    }
+
+    private static String officialRate(int id) {
+        return id + ".5";
+    }
+
+    private static HttpServer startNbrbStub() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/exrates/currencies", exchange -> respond(exchange, nbrbList(true)));
+            server.createContext("/exrates/rates", exchange -> {
+                String path = exchange.getRequestURI().getPath();
+                respond(exchange, path.startsWith("/exrates/rates/")
+                        ? nbrbRate(Integer.parseInt(path.substring("/exrates/rates/".length())))
+                        : nbrbList(false));
+            });
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String nbrbList(boolean currencies) {
+        StringBuilder json = new StringBuilder("[");
+        for (int id = 1; id <= CURRENCIES; id++) {
+            json.append(id > 1 ? "," : "").append(currencies
+                    ? "{\"Cur_ID\":" + id + ",\"Cur_Abbreviation\":\"" + code(id) + "\"}"
+                    : nbrbRate(id));
+        }
+        return json.append(']').toString();
+    }
+
+    private static String nbrbRate(int id) {
+        String rate = id == CURRENCIES ? lastOfficialRate : officialRate(id);
+        return "{\"Cur_ID\":" + id + ",\"Date\":\"2024-06-03T00:00:00\",\"Cur_Abbreviation\":\"" + code(id)
+                + "\",\"Cur_Scale\":1,\"Cur_OfficialRate\":" + rate + "}";
+    }
+
+    private static void respond(HttpExchange exchange, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
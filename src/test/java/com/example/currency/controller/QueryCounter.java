@@ -0,0 +1,115 @@
+package com.example.currency.controller;
+
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Подсчёт SQL-операторов и прочитанных строк на уровне JDBC. Видит и Hibernate, и JdbcTemplate;
+ * считает только в потоке, который вызвал {@link #measure}, чтобы фоновые задачи не влияли на результат.
+ */
+final class QueryCounter {
+    record Counts(int statements, long rows) {
+    }
+
+    @FunctionalInterface
+    interface Action {
+        void run() throws Exception;
+    }
+
+    private static final ThreadLocal<long[]> ACTIVE = new ThreadLocal<>();
+
+    private QueryCounter() {
+    }
+
+    static DataSource wrap(DataSource dataSource) {
+        return new DelegatingDataSource(dataSource) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return proxy(Connection.class, super.getConnection());
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return proxy(Connection.class, super.getConnection(username, password));
+            }
+        };
+    }
+
+    static Counts measure(Action action) throws Exception {
+        long[] counts = new long[2];
+        ACTIVE.set(counts);
+        try {
+            action.run();
+        } finally {
+            ACTIVE.remove();
+        }
+        return new Counts((int) counts[0], counts[1]);
+    }
+
+    /**
+     * Переносит счётчик в задачи, которые измеряемый поток отдаёт исполнителю, — так учитываются запросы
+     * асинхронных ответов MVC, например NDJSON-выгрузок.
+     */
+    static TaskDecorator propagating() {
+        return task -> {
+            long[] counts = ACTIVE.get();
+            if (counts == null) {
+                return task;
+            }
+            return () -> {
+                ACTIVE.set(counts);
+                try {
+                    task.run();
+                } finally {
+                    ACTIVE.remove();
+                }
+            };
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            return intercept(method, result);
+        };
+        return (T) Proxy.newProxyInstance(QueryCounter.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object intercept(Method method, Object result) {
+        String name = method.getName();
+        long[] counts = ACTIVE.get();
+        if (counts != null && method.getDeclaringClass() != Object.class) {
+            if (Statement.class.isAssignableFrom(method.getDeclaringClass()) && name.startsWith("execute")) {
+                counts[0]++;
+            } else if (method.getDeclaringClass() == ResultSet.class && name.equals("next")
+                    && Boolean.TRUE.equals(result)) {
+                counts[1]++;
+            }
+        }
+        if (result instanceof Statement statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+            return proxy((Class<Statement>) method.getReturnType(), statement);
+        }
+        if (result instanceof ResultSet resultSet && method.getReturnType() == ResultSet.class
+                && !name.equals("getGeneratedKeys")) {
+            return proxy(ResultSet.class, resultSet);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.currency.controller;
+
+import com.example.currency.cache.DataVersions;
+import com.example.currency.events.RateChangeEvent;
+import com.example.currency.models.CurrencyRate;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@RecordApplicationEvents
+class RateChangeEventsTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DataVersions dataVersions;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @Test
+    void repeatedPostAndPutAreUpdatesAndDeleteCarriesAbbreviation() throws Exception {
+        mockMvc.perform(post("/api/currency/rates").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"id\":9951,\"rate\":1.5,\"abbreviation\":\"EVA\",\"date\":\"2024-05-10\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/currency/rates").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"id\":9951,\"rate\":1.6,\"abbreviation\":\"EVA\",\"date\":\"2024-05-11\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/api/currency/rates/9951").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"rate\":1.7,\"abbreviation\":\"EVA\",\"date\":\"2024-05-12\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/currency/rates/9951"))
+                .andExpect(status().isNoContent());
+
+        assertEquals(List.of("CREATED:EVA", "UPDATED:EVA", "UPDATED:EVA", "DELETED:EVA"),
+                events.stream(RateChangeEvent.class)
+                        .map(event -> event.getType() + ":" + event.getRates().get(0).getAbbreviation())
+                        .toList());
+    }
+
+    @Test
+    void deletingUnknownRateKeepsVersionAndPublishesNothing() throws Exception {
+        long version = dataVersions.rates().current().version();
+
+        mockMvc.perform(delete("/api/currency/rates/9952"))
+                .andExpect(status().isNoContent());
+
+        assertEquals(version, dataVersions.rates().current().version());
+        assertEquals(0, events.stream(RateChangeEvent.class).count());
+    }
+
+    @Test
+    void putOfUnknownRateIsPublishedAsCreated() throws Exception {
+        mockMvc.perform(put("/api/currency/rates/9953").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"rate\":2.5,\"abbreviation\":\"EVC\",\"date\":\"2024-05-10\"}"))
+                .andExpect(status().isOk());
+
+        assertEquals(List.of(RateChangeEvent.Type.CREATED),
+                events.stream(RateChangeEvent.class).map(RateChangeEvent::getType).toList());
+        assertEquals(9953L, events.stream(RateChangeEvent.class).findFirst().orElseThrow()
+                .getRates().stream().map(CurrencyRate::getId).findFirst().orElseThrow());
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.currency.controller;
+
+import com.example.currency.cache.DataVersions;
+import com.example.currency.events.RateChangeEvent;
+import com.example.currency.repository.CurrencyRateRepository;
+import com.example.currency.service.RateHistoryService;
+import com.example.currency.web.Ndjson;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@RecordApplicationEvents
+class RateHistoryTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CurrencyRateRepository rateRepository;
+
+    @Autowired
+    private DataVersions dataVersions;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @SpyBean
+    private RateHistoryService rateHistoryService;
+
+    @Test
+    void savedRateIsRecordedInHistory() throws Exception {
+        createRate("{\"id\":9851,\"rate\":1.5,\"abbreviation\":\"RHA\",\"date\":\"2024-06-03\"}")
+                .andExpect(status().isOk());
+
+        mockMvc.perform(history("RHA", "2024-06-01", "2024-06-30"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].currencyId").value(9851))
+                .andExpect(jsonPath("$[0].rate").value(1.5));
+    }
+
+    @Test
+    void tooLongAbbreviationIsRejectedBeforeAnyWrite() throws Exception {
+        long version = dataVersions.rates().current().version();
+
+        createRate("{\"id\":9852,\"rate\":1.5,\"abbreviation\":\"ABCDEFGHIJKLMNOPQ\",\"date\":\"2024-06-03\"}")
+                .andExpect(status().isBadRequest());
+
+        assertFalse(rateRepository.existsById(9852L));
+        assertEquals(version, dataVersions.rates().current().version());
+        assertEquals(0, events.stream(RateChangeEvent.class).count());
+    }
+
+    @Test
+    void failedHistoryWriteRollsBackRateAndSkipsCachesAndEvents() throws Exception {
+        doThrow(new DataIntegrityViolationException("rate_history")).when(rateHistoryService).record(any());
+        long version = dataVersions.rates().current().version();
+
+        createRate("{\"id\":9853,\"rate\":1.5,\"abbreviation\":\"RHC\",\"date\":\"2024-06-03\"}")
+                .andExpect(status().isInternalServerError());
+
+        // Курс не остался в базе, а кэш, снимок и версия не опередили откат.
+        assertFalse(rateRepository.existsById(9853L));
+        mockMvc.perform(get("/api/currency/rates/9853")).andExpect(status().isNotFound());
+        assertEquals(version, dataVersions.rates().current().version());
+        assertEquals(0, events.stream(RateChangeEvent.class).count());
+    }
+
+    @Test
+    void historyReturnsInclusiveRangeInDateOrder() throws Exception {
+        upsert("{\"id\":9811,\"rate\":1.3,\"abbreviation\":\"RHR\",\"date\":\"2024-05-03\"}",
+                "{\"id\":9811,\"rate\":1.1,\"abbreviation\":\"RHR\",\"date\":\"2024-05-01\"}",
+                "{\"id\":9811,\"rate\":1.2,\"abbreviation\":\"RHR\",\"date\":\"2024-05-02\"}",
+                "{\"id\":9811,\"rate\":1.9,\"abbreviation\":\"RHR\",\"date\":\"2024-05-10\"}",
+                "{\"id\":9812,\"rate\":7.0,\"abbreviation\":\"RHX\",\"date\":\"2024-05-02\"}");
+
+        mockMvc.perform(history("RHR", "2024-05-01", "2024-05-03"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].date").value("2024-05-01"))
+                .andExpect(jsonPath("$[1].date").value("2024-05-02"))
+                .andExpect(jsonPath("$[2].date").value("2024-05-03"))
+                .andExpect(jsonPath("$[2].rate").value(1.3));
+        mockMvc.perform(history("RHR", "2024-05-02", "2024-05-02"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].rate").value(1.2));
+        mockMvc.perform(history("RHR", "2024-05-04", "2024-05-09"))
+                .andExpect(jsonPath("$.length()").value(0));
+        mockMvc.perform(history("RHR", "2024-05-03", "2024-05-01"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void ndjsonHistoryStreamsSameRowsOnePerLine() throws Exception {
+        upsert("{\"id\":9821,\"rate\":2.2,\"abbreviation\":\"RHN\",\"date\":\"2024-04-02\"}",
+                "{\"id\":9821,\"rate\":2.1,\"abbreviation\":\"RHN\",\"date\":\"2024-04-01\"}",
+                "{\"id\":9821,\"rate\":2.3,\"abbreviation\":\"RHN\",\"date\":\"2024-04-03\"}");
+
+        MvcResult started = mockMvc.perform(history("RHN", "2024-04-01", "2024-04-02").accept(Ndjson.MEDIA_TYPE))
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(Ndjson.MEDIA_TYPE))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        // Строки разделены одним переводом строки, каждая — целый JSON-объект без отступов.
+        List<JsonNode> rows = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            assertFalse(line.isBlank());
+            rows.add(objectMapper.readTree(line));
+        }
+        assertEquals(2, rows.size());
+        assertEquals("2024-04-01", rows.get(0).get("date").asText());
+        assertEquals(2.1, rows.get(0).get("rate").doubleValue());
+        assertEquals("2024-04-02", rows.get(1).get("date").asText());
+        assertEquals("RHN", rows.get(1).get("abbreviation").asText());
+    }
+
+    @Test
+    void backfillCopiesRatesWrittenBeforeHistoryOnce() throws Exception {
+        jdbcTemplate.update("INSERT INTO currency_rate (id, rate, abbreviation, date) VALUES (?, ?, ?, ?)",
+                9831L, 4.5, "RHB", Date.valueOf("2024-02-01"));
+        mockMvc.perform(history("RHB", "2024-02-01", "2024-02-01")).andExpect(jsonPath("$.length()").value(0));
+
+        rateHistoryService.backfill();
+        rateHistoryService.backfill();
+
+        mockMvc.perform(history("RHB", "2024-01-01", "2024-12-31"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].currencyId").value(9831))
+                .andExpect(jsonPath("$[0].rate").value(4.5));
+    }
+
+    private MockHttpServletRequestBuilder history(String abbreviation, String from, String to) {
+        return get("/api/currency/rates/history").param("abbreviation", abbreviation).param("from", from)
+                .param("to", to);
+    }
+
+    private void upsert(String... rows) throws Exception {
+        mockMvc.perform(post("/api/currency/rates/bulk").contentType(Ndjson.MEDIA_TYPE)
+                        .content(String.join("\n", rows)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.written").value(rows.length));
+    }
+
+    private ResultActions createRate(String body) throws Exception {
+        return mockMvc.perform(post("/api/currency/rates").contentType(MediaType.APPLICATION_JSON).content(body));
+    }
+}
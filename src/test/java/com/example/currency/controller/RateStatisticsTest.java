@@ -0,0 +1,72 @@
+package com.example.currency.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RateStatisticsTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void statisticsFollowRateWrites() throws Exception {
+        awaitReady();
+        mockMvc.perform(post("/api/currency/rates/bulk").contentType("application/x-ndjson")
+                        .content("{\"id\":9301,\"rate\":2.0,\"abbreviation\":\"STA\",\"date\":\"2024-01-31\"}\n"
+                                + "{\"id\":9301,\"rate\":4.0,\"abbreviation\":\"STA\",\"date\":\"2024-02-01\"}\n"
+                                + "{\"id\":9301,\"rate\":6.0,\"abbreviation\":\"STA\",\"date\":\"2024-02-15\"}\n"))
+                .andExpect(status().isOk());
+
+        stats("sta", "2024-01-01", "2024-02-29")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(3))
+                .andExpect(jsonPath("$.min").value(2.0))
+                .andExpect(jsonPath("$.max").value(6.0))
+                .andExpect(jsonPath("$.mean").value(4.0))
+                .andExpect(jsonPath("$.stdDev").value(2.0))
+                .andExpect(jsonPath("$.buckets").value(2));
+
+        mockMvc.perform(put("/api/currency/rates/9301").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"rate\":8.0,\"abbreviation\":\"STA\",\"date\":\"2024-02-15\"}"))
+                .andExpect(status().isOk());
+        stats("STA", "2024-02-01", "2024-02-20")
+                .andExpect(jsonPath("$.count").value(2))
+                .andExpect(jsonPath("$.mean").value(6.0))
+                .andExpect(jsonPath("$.stdDev", closeTo(2.828427, 1e-6)));
+
+        stats("STA", "2023-01-01", "2023-12-31")
+                .andExpect(jsonPath("$.count").value(0))
+                .andExpect(jsonPath("$.mean").doesNotExist());
+        stats("STA", "2024-03-01", "2024-02-01").andExpect(status().isBadRequest());
+    }
+
+    private void awaitReady() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            if (stats("STA", "2024-01-01", "2024-01-01").andReturn().getResponse().getStatus() == 200) {
+                return;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Сводки статистики не построены");
+    }
+
+    private ResultActions stats(String abbreviation, String from, String to) throws Exception {
+        return mockMvc.perform(get("/api/currency/rates/stats")
+                .param("abbreviation", abbreviation).param("from", from).param("to", to));
+    }
+}
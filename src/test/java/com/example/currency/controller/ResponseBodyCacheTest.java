@@ -0,0 +1,112 @@
+package com.example.currency.controller;
+
+import com.example.currency.repository.CurrencyRateRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ResponseBodyCacheTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @SpyBean
+    private CurrencyRateRepository rateRepository;
+
+    @Test
+    void listIsSerializedOncePerVersionAndServedGzipped() throws Exception {
+        StringBuilder rows = new StringBuilder();
+        for (int id = 9401; id <= 9430; id++) {
+            rows.append("{\"id\":").append(id).append(",\"rate\":1.5,\"abbreviation\":\"GZ").append(id - 9400)
+                    .append("\",\"date\":\"2024-04-01\"}\n");
+        }
+        mockMvc.perform(post("/api/currency/rates/bulk").contentType("application/x-ndjson").content(rows.toString()))
+                .andExpect(status().isOk());
+        Mockito.reset(rateRepository);
+
+        MockHttpServletResponse plain = mockMvc.perform(get("/api/currency/rates"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, containsString(MediaType.APPLICATION_JSON_VALUE)))
+                .andExpect(jsonPath("$[?(@.id == 9430)].abbreviation").value("GZ30"))
+                .andReturn().getResponse();
+        assertNull(plain.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertTrue(plain.getHeaders(HttpHeaders.VARY).toString().contains(HttpHeaders.ACCEPT_ENCODING));
+
+        MockHttpServletResponse gzipped = mockMvc.perform(get("/api/currency/rates")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn().getResponse();
+        assertArrayEquals(plain.getContentAsByteArray(), gunzip(gzipped.getContentAsByteArray()));
+        assertTrue(gzipped.getContentAsByteArray().length < plain.getContentAsByteArray().length);
+        assertNotEquals(plain.getHeader(HttpHeaders.ETAG), gzipped.getHeader(HttpHeaders.ETAG));
+
+        mockMvc.perform(get("/api/currency/rates").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+        mockMvc.perform(get("/api/currency/rates").header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, gzipped.getHeader(HttpHeaders.ETAG)))
+                .andExpect(status().isNotModified());
+        verify(rateRepository, times(1)).findAll();
+
+        mockMvc.perform(post("/api/currency/rates").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"id\":9431,\"rate\":2.5,\"abbreviation\":\"GZ31\",\"date\":\"2024-04-01\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/currency/rates"))
+                .andExpect(jsonPath("$[?(@.id == 9431)].abbreviation").value("GZ31"));
+        verify(rateRepository, times(2)).findAll();
+    }
+
+    @Test
+    void lookupIsCachedAndMissingIdIsNotFound() throws Exception {
+        mockMvc.perform(post("/api/currency/info").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"id\":9451,\"abbreviation\":\"LKP\"}"))
+                .andExpect(status().isOk());
+
+        String first = mockMvc.perform(get("/api/currency/info/9451"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.abbreviation").value("LKP"))
+                .andReturn().getResponse().getContentAsString();
+        String second = mockMvc.perform(get("/api/currency/info/9451").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                // Тело меньше порога сжатия, поэтому отдаётся как есть.
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(first, second);
+
+        mockMvc.perform(get("/api/currency/info/9452")).andExpect(status().isNotFound());
+    }
+
+    private static byte[] gunzip(byte[] bytes) throws Exception {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readAllBytes();
+        }
+    }
+}
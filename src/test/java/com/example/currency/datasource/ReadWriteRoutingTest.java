@@ -0,0 +1,115 @@
+package com.example.currency.datasource;
+
+import com.example.currency.service.RateHistoryService;
+import com.example.currency.snapshot.RateSnapshot;
+import com.example.currency.snapshot.RateSnapshotHolder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.LocalDate;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Две встроенные базы: основная создаётся Hibernate, реплика — вручную и содержит строку, которой нет
+ * в основной, так что по ответу видно, откуда было чтение.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + ReadWriteRoutingTest.PRIMARY_URL,
+        "datasource.routing.enabled=true",
+        "datasource.replica.urls=" + ReadWriteRoutingTest.REPLICA_URL,
+        "datasource.routing.sticky-window=1s"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ReadWriteRoutingTest {
+    static final String PRIMARY_URL = "jdbc:h2:mem:routing_primary;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_URL = "jdbc:h2:mem:routing_replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ReadWriteRoutingDataSource routingDataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private RateSnapshotHolder rateSnapshotHolder;
+
+    @Autowired
+    private RateHistoryService rateHistoryService;
+
+    @BeforeAll
+    static void createReplica() throws Exception {
+        try (Connection connection = DriverManager.getConnection(REPLICA_URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE currency_info (id INT PRIMARY KEY, abbreviation VARCHAR(255))");
+            statement.execute("CREATE TABLE currency_rate (id BIGINT PRIMARY KEY, rate DECIMAL(19, 6), "
+                    + "abbreviation VARCHAR(255), date DATE)");
+            statement.execute("CREATE TABLE rate_history (id BIGINT AUTO_INCREMENT PRIMARY KEY, currency_id BIGINT, "
+                    + "abbreviation VARCHAR(16) NOT NULL, date DATE NOT NULL, rate DECIMAL(19, 6))");
+            statement.execute("INSERT INTO currency_info VALUES (7001, 'REP')");
+            statement.execute("INSERT INTO currency_rate VALUES (7101, 2.5, 'REP', DATE '2024-03-01')");
+            statement.execute("INSERT INTO rate_history (currency_id, abbreviation, date, rate) "
+                    + "VALUES (7101, 'REP', DATE '2024-03-01', 2.5)");
+        }
+    }
+
+    @Test
+    void readsGoToReplicaExceptRightAfterWrite() throws Exception {
+        readAll().andExpect(jsonPath("$[*].abbreviation", hasItem("REP")));
+
+        mockMvc.perform(post("/api/currency/info").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"id\":7002,\"abbreviation\":\"PRI\"}"))
+                .andExpect(status().is2xxSuccessful());
+        long stickyBefore = routingDataSource.getStickyReadCount();
+        readAll()
+                .andExpect(jsonPath("$[*].abbreviation", hasItem("PRI")))
+                .andExpect(jsonPath("$[*].abbreviation", not(hasItem("REP"))));
+        assertEquals(stickyBefore + 1, routingDataSource.getStickyReadCount());
+
+        Thread.sleep(1200);
+        readAll()
+                .andExpect(jsonPath("$[*].abbreviation", hasItem("REP")))
+                .andExpect(jsonPath("$[*].abbreviation", not(hasItem("PRI"))));
+
+        assertNotNull(meterRegistry.find("hikaricp.connections").tag("pool", "primary").gauge());
+        assertNotNull(meterRegistry.find("hikaricp.connections").tag("pool", "replica-0").gauge());
+    }
+
+    @Test
+    void snapshotsAreLoadedFromReplica() throws Exception {
+        // Выходим из окна после записей при старте и в соседнем тесте.
+        Thread.sleep(1200);
+
+        RateSnapshot snapshot = rateSnapshotHolder.rebuild();
+        assertTrue(snapshot.indexOf(7101L) >= 0);
+        RateSnapshot historical = rateHistoryService.snapshotAsOf(LocalDate.of(2024, 3, 2));
+        assertTrue(historical.indexOfAbbreviation("REP") >= 0);
+    }
+
+    private ResultActions readAll() throws Exception {
+        return mockMvc.perform(get("/api/currency/info/db")).andExpect(status().isOk());
+    }
+}
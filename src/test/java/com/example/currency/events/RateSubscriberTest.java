@@ -0,0 +1,185 @@
+package com.example.currency.events;
+
+import com.example.currency.models.CurrencyRate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.example.currency.TestRates.rate;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateSubscriberTest {
+    private final Queue<Runnable> dispatcher = new ArrayDeque<>();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final AtomicInteger stallsEnded = new AtomicInteger();
+    private CapturingEmitter emitter;
+
+    @BeforeEach
+    void setUp() {
+        emitter = new CapturingEmitter();
+    }
+
+    @Test
+    void filtersByAbbreviation() {
+        RateSubscriber subscriber = subscriber(Set.of("USD"), 16);
+
+        subscriber.offer(RateChangeEvent.of(RateChangeEvent.Type.UPDATED, rate(1L, "EUR", "3.5")));
+        subscriber.offer(RateChangeEvent.of(RateChangeEvent.Type.UPDATED, rate(2L, "usd", "3.2")));
+        runDispatcher();
+
+        assertEquals(List.of("updated:2"), emitter.events);
+        assertEquals(1, sent.sum());
+    }
+
+    @Test
+    void coalescesPendingChangesOfOneRate() {
+        RateSubscriber subscriber = subscriber(Set.of(), 16);
+
+        subscriber.offer(RateChangeEvent.of(RateChangeEvent.Type.CREATED, rate(1L, "USD", "3.1")));
+        subscriber.offer(RateChangeEvent.of(RateChangeEvent.Type.UPDATED, rate(2L, "EUR", "3.5")));
+        subscriber.offer(RateChangeEvent.of(RateChangeEvent.Type.UPDATED, rate(1L, "USD", "3.2")));
+        subscriber.offer(new RateChangeEvent(RateChangeEvent.Type.SYNC_COMPLETED, List.of(rate(2L, "EUR", "3.6"))));
+        runDispatcher();
+
+        assertEquals(List.of("created:1", "updated:2", "sync"), emitter.events);
+        assertTrue(emitter.payloads.get(0).contains("3.2"));
+        assertTrue(emitter.payloads.get(1).contains("3.6"));
+        assertEquals(0, dropped.sum());
+    }
+
+    @Test
+    void evictsEldestAndReportsOverflow() {
+        RateSubscriber subscriber = subscriber(Set.of(), 2);
+
+        for (long id = 1; id <= 5; id++) {
+            subscriber.offer(RateChangeEvent.of(RateChangeEvent.Type.UPDATED, rate(id, "C" + id, "1.0")));
+        }
+        runDispatcher();
+
+        assertEquals(List.of("overflow", "updated:4", "updated:5"), emitter.events);
+        assertEquals(3, dropped.sum());
+    }
+
+    @Test
+    void stopsSendingAfterClientDisconnects() {
+        RateSubscriber subscriber = subscriber(Set.of(), 16);
+        emitter.failing = true;
+
+        subscriber.offer(RateChangeEvent.of(RateChangeEvent.Type.UPDATED, rate(1L, "USD", "3.1")));
+        runDispatcher();
+        subscriber.offer(RateChangeEvent.of(RateChangeEvent.Type.UPDATED, rate(1L, "USD", "3.2")));
+
+        assertTrue(dispatcher.isEmpty());
+        assertEquals(0, sent.sum());
+    }
+
+    @Test
+    void evictsSubscriberWhoseSendStaysBlocked() throws Exception {
+        RateSubscriber subscriber = subscriber(Set.of(), 16);
+        emitter.blocked = new CountDownLatch(1);
+        subscriber.offer(RateChangeEvent.of(RateChangeEvent.Type.UPDATED, rate(1L, "USD", "3.1")));
+        Thread sender = new Thread(this::runDispatcher);
+        sender.start();
+        assertTrue(emitter.sending.await(5, TimeUnit.SECONDS));
+
+        assertFalse(subscriber.evictIfStalled(System.nanoTime(), TimeUnit.MINUTES.toNanos(1)));
+        assertTrue(subscriber.evictIfStalled(System.nanoTime(), 0));
+        assertFalse(subscriber.evictIfStalled(System.nanoTime(), 0));
+
+        // Новые изменения уже не ставятся в очередь; после возврата записи эмиттер завершается ошибкой.
+        subscriber.offer(RateChangeEvent.of(RateChangeEvent.Type.UPDATED, rate(2L, "EUR", "3.5")));
+        emitter.blocked.countDown();
+        sender.join(5000);
+
+        assertTrue(dispatcher.isEmpty());
+        assertEquals(1, stallsEnded.get());
+        assertTrue(emitter.completedWithError);
+        assertEquals(List.of("updated:1"), emitter.events);
+    }
+
+    @Test
+    void idleSubscriberIsNotStalled() {
+        RateSubscriber subscriber = subscriber(Set.of(), 16);
+        subscriber.offer(RateChangeEvent.of(RateChangeEvent.Type.UPDATED, rate(1L, "USD", "3.1")));
+        runDispatcher();
+
+        assertFalse(subscriber.evictIfStalled(System.nanoTime(), 0));
+        assertEquals(0, stallsEnded.get());
+    }
+
+    private RateSubscriber subscriber(Set<String> abbreviations, int capacity) {
+        return new RateSubscriber(emitter, abbreviations, capacity, dispatcher::add, sent, dropped,
+                stallsEnded::incrementAndGet);
+    }
+
+    private void runDispatcher() {
+        Runnable task;
+        while ((task = dispatcher.poll()) != null) {
+            task.run();
+        }
+    }
+
+    /**
+     * Эмиттер, который вместо записи в ответ запоминает имя события и ID курса.
+     */
+    private static final class CapturingEmitter extends SseEmitter {
+        private final List<String> events = new ArrayList<>();
+        private final List<String> payloads = new ArrayList<>();
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private boolean failing;
+        private volatile CountDownLatch blocked;
+        private volatile boolean completedWithError;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+            if (blocked != null) {
+                // Клиент не читает: запись висит, пока тест её не отпустит.
+                sending.countDown();
+                try {
+                    blocked.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            Set<DataWithMediaType> parts = builder.build();
+            String name = null;
+            Object data = null;
+            for (DataWithMediaType part : parts) {
+                if (part.getData() instanceof String text && text.startsWith("event:")) {
+                    name = text.substring("event:".length(), text.indexOf('\n'));
+                } else if (!(part.getData() instanceof String)) {
+                    data = part.getData();
+                }
+            }
+            if (name == null) {
+                return;
+            }
+            events.add(data instanceof CurrencyRate rate ? name + ":" + rate.getId() : name);
+            if (data instanceof CurrencyRate rate) {
+                payloads.add(rate.getRate().toPlainString());
+            }
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            completedWithError = true;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.currency.exception;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ErrorPathTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void clientErrorsAreStacklessServerErrorsAreNot() {
+        assertEquals(0, new ApiException("Не найдено", HttpStatus.NOT_FOUND).getStackTrace().length);
+        Exception cause = new IllegalStateException("upstream");
+        ApiException wrapped = new ApiException("Ошибка запроса", cause, HttpStatus.BAD_REQUEST);
+        assertEquals(0, wrapped.getStackTrace().length);
+        assertEquals(cause, wrapped.getCause());
+        assertTrue(new ApiException("Сбой", HttpStatus.INTERNAL_SERVER_ERROR).getStackTrace().length > 0);
+    }
+
+    @Test
+    void errorResponsesAreCountedByStatus() throws Exception {
+        double before = count("400");
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/api/currency/rates/convert")
+                            .param("from", "1").param("to", "2").param("amount", "-5"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.details").value("Сумма должна быть больше нуля"));
+        }
+        assertEquals(before + 3, count("400"));
+    }
+
+    private double count(String status) {
+        Counter counter = meterRegistry.find("api.errors").tag("status", status).counter();
+        return counter != null ? counter.count() : 0;
+    }
+}
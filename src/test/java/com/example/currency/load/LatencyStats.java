@@ -0,0 +1,52 @@
+package com.example.currency.load;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * Итоги одного сценария нагрузочного теста: пропускная способность, перцентили задержки и число ошибок.
+ */
+@Getter
+class LatencyStats {
+    private final String scenario;
+    private final int concurrency;
+    private final long requests;
+    private final long errors;
+    private final double durationMs;
+    private final double throughputPerSec;
+    private final double p50Ms;
+    private final double p95Ms;
+    private final double p99Ms;
+    private final double maxMs;
+
+    LatencyStats(String scenario, int concurrency, long[] latenciesNanos, long errors, long durationNanos) {
+        long[] sorted = latenciesNanos.clone();
+        Arrays.sort(sorted);
+        this.scenario = scenario;
+        this.concurrency = concurrency;
+        this.requests = sorted.length;
+        this.errors = errors;
+        this.durationMs = durationNanos / 1e6;
+        this.throughputPerSec = durationNanos > 0 ? sorted.length * 1e9 / durationNanos : 0;
+        this.p50Ms = percentile(sorted, 0.50);
+        this.p95Ms = percentile(sorted, 0.95);
+        this.p99Ms = percentile(sorted, 0.99);
+        this.maxMs = sorted.length > 0 ? sorted[sorted.length - 1] / 1e6 : 0;
+    }
+
+    // Перцентиль по ближайшему рангу: без интерполяции, чтобы значения совпадали с реально наблюдёнными.
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(quantile * sorted.length);
+        return sorted[Math.max(rank - 1, 0)] / 1e6;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-22s n=%-6d err=%-5d %8.1f req/s  p50=%.2fms p95=%.2fms p99=%.2fms max=%.2fms",
+                scenario, requests, errors, throughputPerSec, p50Ms, p95Ms, p99Ms, maxMs);
+    }
+}
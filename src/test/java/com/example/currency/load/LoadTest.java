@@ -0,0 +1,254 @@
+package com.example.currency.load;
+
+import com.example.currency.models.CurrencyInfo;
+import com.example.currency.models.CurrencyRate;
+import com.example.currency.repository.CurrencyInfoRepository;
+import com.example.currency.repository.CurrencyRateRepository;
+import com.example.currency.snapshot.RateSnapshotHolder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Сквозной нагрузочный тест: приложение на встроенной H2 и локальной заглушке НБРБ.
+ * Исключён из обычной сборки, запускается профилем load-test. Параметры задаются системными свойствами:
+ * load.concurrency, load.requests, load.warmup, load.currencies, load.seed,
+ * load.stub.latency-ms, load.stub.error-rate, load.nbrb.fresh-ttl, load.report.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class LoadTest {
+    static final int FIRST_ID = 1000;
+    private static final long CRUD_FIRST_ID = 1_000_000L;
+    private static final Logger logger = LoggerFactory.getLogger(LoadTest.class);
+
+    private static final int concurrency = Integer.getInteger("load.concurrency", 16);
+    private static final int requests = Integer.getInteger("load.requests", 2000);
+    private static final int warmup = Integer.getInteger("load.warmup", 500);
+    private static final int currencies = Integer.getInteger("load.currencies", 50);
+    private static final long seed = Long.getLong("load.seed", 42L);
+    private static final long stubLatencyMs = Long.getLong("load.stub.latency-ms", 20L);
+    private static final double stubErrorRate = Double.parseDouble(System.getProperty("load.stub.error-rate", "0.05"));
+    private static final String nbrbFreshTtl = System.getProperty("load.nbrb.fresh-ttl", "200ms");
+    private static final Path report = Path.of(System.getProperty("load.report", "target/load-test-report.json"));
+
+    private static final NbrbStub stub = new NbrbStub(stubLatencyMs, stubErrorRate, seed, currencies);
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private CurrencyInfoRepository currencyInfoRepository;
+
+    @Autowired
+    private CurrencyRateRepository rateRepository;
+
+    @Autowired
+    private RateSnapshotHolder rateSnapshotHolder;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @DynamicPropertySource
+    static void loadProperties(DynamicPropertyRegistry registry) {
+        registry.add("nbrb.api.base-url", stub::baseUrl);
+        registry.add("nbrb.resilience.fresh-ttl", () -> nbrbFreshTtl);
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.close();
+    }
+
+    static String abbreviation(int index) {
+        return String.format("L%02d", index);
+    }
+
+    static BigDecimal officialRate(int index) {
+        return BigDecimal.valueOf(100_000L + index * 7_919L, 4);
+    }
+
+    @Test
+    void fullStackLoad() throws Exception {
+        seedData();
+
+        Map<String, Scenario> scenarios = new LinkedHashMap<>();
+        scenarios.put("rates.convert", i -> get("/api/currency/rates/convert?from=" + currencyId(i * 7)
+                + "&to=" + currencyId(i * 13 + 1) + "&amount=" + (100 + i % 900) + ".25"));
+        scenarios.put("info.list", i -> get("/api/currency/info"));
+        scenarios.put("info.byId", i -> get("/api/currency/info/" + currencyId(i)));
+        scenarios.put("rates.byId", i -> get("/api/currency/rates/" + currencyId(i * 3)));
+        scenarios.put("nbrb.rate", i -> get("/api/nbrb/rates/" + currencyId(i)));
+
+        // Прогрев тем же набором запросов; CRUD греется на отдельном диапазоне идентификаторов.
+        for (Map.Entry<String, Scenario> scenario : scenarios.entrySet()) {
+            run(scenario.getKey(), warmup, scenario.getValue());
+        }
+        runCrud(CRUD_FIRST_ID * 2, warmup / 4);
+
+        List<LatencyStats> results = new ArrayList<>();
+        for (Map.Entry<String, Scenario> scenario : scenarios.entrySet()) {
+            results.add(run(scenario.getKey(), requests, scenario.getValue()));
+        }
+        results.addAll(runCrud(CRUD_FIRST_ID, requests / 4));
+
+        results.forEach(stats -> logger.info("{}", stats));
+        writeReport(results);
+
+        for (LatencyStats stats : results) {
+            assertTrue(stats.getRequests() > 0, stats.getScenario());
+            if (!stats.getScenario().startsWith("nbrb.")) {
+                assertEquals(0, stats.getErrors(), "Ошибки в сценарии " + stats.getScenario());
+            }
+        }
+    }
+
+    private void seedData() {
+        List<CurrencyInfo> infos = new ArrayList<>(currencies);
+        List<CurrencyRate> rates = new ArrayList<>(currencies);
+        for (int i = 0; i < currencies; i++) {
+            CurrencyInfo info = new CurrencyInfo();
+            info.setId(FIRST_ID + i);
+            info.setAbbreviation(abbreviation(i));
+            infos.add(info);
+
+            CurrencyRate rate = new CurrencyRate();
+            rate.setId((long) FIRST_ID + i);
+            rate.setAbbreviation(abbreviation(i));
+            rate.setRate(officialRate(i));
+            rate.setDate(LocalDate.of(2024, 5, 10));
+            rates.add(rate);
+        }
+        currencyInfoRepository.saveAll(infos);
+        rateRepository.saveAll(rates);
+        rateSnapshotHolder.rebuild();
+    }
+
+    private List<LatencyStats> runCrud(long firstId, int count) throws InterruptedException {
+        List<LatencyStats> results = new ArrayList<>(4);
+        results.add(run("rates.create", count, i -> send(HttpRequest.newBuilder(uri("/api/currency/rates"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(rateJson(firstId + i, "1.2345"))))));
+        results.add(run("rates.get", count, i -> get("/api/currency/rates/" + (firstId + i))));
+        results.add(run("rates.update", count, i -> send(HttpRequest.newBuilder(uri("/api/currency/rates/" + (firstId + i)))
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString(rateJson(firstId + i, "1.5432"))))));
+        results.add(run("rates.delete", count, i -> send(HttpRequest.newBuilder(uri("/api/currency/rates/" + (firstId + i)))
+                .DELETE())));
+        return results;
+    }
+
+    // Замкнутая модель нагрузки: concurrency потоков выбирают следующий номер запроса, пока не выполнят count.
+    private LatencyStats run(String name, int count, Scenario scenario) throws InterruptedException {
+        long[] latencies = new long[count];
+        AtomicInteger next = new AtomicInteger();
+        AtomicLong errors = new AtomicLong();
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        long start = System.nanoTime();
+        for (int w = 0; w < concurrency; w++) {
+            workers.execute(() -> {
+                for (int i = next.getAndIncrement(); i < count; i = next.getAndIncrement()) {
+                    long begin = System.nanoTime();
+                    try {
+                        int status = scenario.call(i);
+                        if (status < 200 || status >= 300) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                    latencies[i] = System.nanoTime() - begin;
+                }
+            });
+        }
+        workers.shutdown();
+        assertTrue(workers.awaitTermination(10, TimeUnit.MINUTES), "Сценарий " + name + " не завершился");
+        return new LatencyStats(name, concurrency, latencies, errors.get(), System.nanoTime() - start);
+    }
+
+    private void writeReport(List<LatencyStats> results) throws Exception {
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("concurrency", concurrency);
+        config.put("requests", requests);
+        config.put("warmup", warmup);
+        config.put("currencies", currencies);
+        config.put("seed", seed);
+        config.put("stubLatencyMs", stubLatencyMs);
+        config.put("stubErrorRate", stubErrorRate);
+        config.put("nbrbFreshTtl", nbrbFreshTtl);
+        config.put("javaVersion", System.getProperty("java.version"));
+        config.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("config", config);
+        document.put("scenarios", results);
+        document.put("stub", Map.of("requests", stub.getRequests(), "injectedErrors", stub.getErrors()));
+
+        Files.createDirectories(report.toAbsolutePath().getParent());
+        objectMapper.writer(SerializationFeature.INDENT_OUTPUT).writeValue(report.toFile(), document);
+        logger.info("Load test report written to {}", report.toAbsolutePath());
+    }
+
+    private int currencyId(int i) {
+        return FIRST_ID + Math.floorMod(i, currencies);
+    }
+
+    private String rateJson(long id, String rate) {
+        return "{\"id\":" + id + ",\"rate\":" + rate + ",\"abbreviation\":\"T" + id + "\",\"date\":\"2024-05-10\"}";
+    }
+
+    private int get(String path) throws Exception {
+        return send(HttpRequest.newBuilder(uri(path)).GET());
+    }
+
+    private int send(HttpRequest.Builder request) throws Exception {
+        return http.send(request.timeout(Duration.ofSeconds(30)).build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    @FunctionalInterface
+    private interface Scenario {
+        int call(int i) throws Exception;
+    }
+}
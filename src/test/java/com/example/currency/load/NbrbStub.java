@@ -0,0 +1,126 @@
+package com.example.currency.load;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Локальная замена https://api.nbrb.by/exrates/ с настраиваемой задержкой и долей ошибок.
+ * Ошибки выбираются генератором с фиксированным зерном, чтобы прогоны были воспроизводимы.
+ */
+class NbrbStub implements AutoCloseable {
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final long latencyMillis;
+    private final double errorRate;
+    private final Random random;
+    private final int currencyCount;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    NbrbStub(long latencyMillis, double errorRate, long seed, int currencyCount) {
+        this.latencyMillis = latencyMillis;
+        this.errorRate = errorRate;
+        this.random = new Random(seed);
+        this.currencyCount = currencyCount;
+        try {
+            server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        server.createContext("/exrates/currencies", exchange -> respond(exchange, currencies()));
+        server.createContext("/exrates/rates", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            if (path.startsWith("/exrates/rates/")) {
+                respond(exchange, rate(Integer.parseInt(path.substring("/exrates/rates/".length()))));
+            } else {
+                respond(exchange, allRates());
+            }
+        });
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + "/exrates/";
+    }
+
+    long getRequests() {
+        return requests.get();
+    }
+
+    long getErrors() {
+        return errors.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void respond(HttpExchange exchange, String json) throws IOException {
+        requests.incrementAndGet();
+        if (latencyMillis > 0) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        boolean fail;
+        synchronized (random) {
+            fail = random.nextDouble() < errorRate;
+        }
+        int status = 200;
+        if (fail) {
+            errors.incrementAndGet();
+            status = 503;
+            json = "{\"error\":\"injected\"}";
+        }
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private String currencies() {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < currencyCount; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"Cur_ID\":").append(LoadTest.FIRST_ID + i)
+                    .append(",\"Cur_Abbreviation\":\"").append(LoadTest.abbreviation(i)).append("\"}");
+        }
+        return json.append(']').toString();
+    }
+
+    private String allRates() {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < currencyCount; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(rate(LoadTest.FIRST_ID + i));
+        }
+        return json.append(']').toString();
+    }
+
+    private String rate(int curId) {
+        int index = Math.floorMod(curId - LoadTest.FIRST_ID, Math.max(currencyCount, 1));
+        return "{\"Cur_ID\":" + curId + ",\"Date\":\"2024-05-10T00:00:00\",\"Cur_Abbreviation\":\""
+                + LoadTest.abbreviation(index) + "\",\"Cur_Scale\":1,\"Cur_OfficialRate\":" + LoadTest.officialRate(index) + "}";
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.currency.logging;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ErrorLogLimiterTest {
+
+    @Test
+    void logsOncePerIntervalAndReportsSkipped() throws Exception {
+        ErrorLogLimiter limiter = new ErrorLogLimiter(Duration.ofMillis(200));
+        assertEquals(0, limiter.tryAcquire("400:a"));
+        assertEquals(ErrorLogLimiter.SUPPRESSED, limiter.tryAcquire("400:a"));
+        assertEquals(ErrorLogLimiter.SUPPRESSED, limiter.tryAcquire("400:a"));
+        // Другой ключ прореживается независимо.
+        assertEquals(0, limiter.tryAcquire("404:a"));
+
+        Thread.sleep(250);
+        assertEquals(2, limiter.tryAcquire("400:a"));
+        assertEquals(ErrorLogLimiter.SUPPRESSED, limiter.tryAcquire("400:a"));
+    }
+
+    @Test
+    void zeroIntervalLogsEverything() {
+        ErrorLogLimiter limiter = new ErrorLogLimiter(Duration.ZERO);
+        assertEquals(0, limiter.tryAcquire("500:a"));
+        assertEquals(0, limiter.tryAcquire("500:a"));
+    }
+}
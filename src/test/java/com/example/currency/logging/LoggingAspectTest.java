@@ -0,0 +1,72 @@
+package com.example.currency.logging;
+
+import com.example.currency.cache.BoundedCache;
+import com.example.currency.cache.DataVersions;
+import com.example.currency.exception.ApiException;
+import com.example.currency.repository.CurrencyInfoRepository;
+import com.example.currency.service.CurrencyService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LoggingAspectTest {
+
+    @Test
+    void recordsOneTimerAndOneErrorCounterPerMethod() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        CurrencyInfoRepository repository = mock(CurrencyInfoRepository.class);
+        when(repository.findByIdGreaterThanOrderByIdAsc(anyInt(), any())).thenReturn(List.of());
+        when(repository.findAll()).thenReturn(List.of());
+        CurrencyService service = proxy(new CurrencyService(repository,
+                new BoundedCache<>("info", 10, Duration.ofMinutes(1)),
+                new BoundedCache<>("list", 10, Duration.ofMinutes(1)),
+                mock(EntityManager.class), new DataVersions(), 1000), registry);
+
+        service.getCurrenciesPage(null, 10);
+        service.getCurrenciesPage(5, 10);
+        service.getCurrenciesPage(null, 10);
+        assertThrows(ApiException.class, () -> service.getCurrenciesPage(null, 0));
+        service.getAllCurrenciesFromDb();
+
+        // Успешные и упавшие вызовы попадают в один таймер метода, исключения — ещё и в его счётчик ошибок.
+        Collection<Timer> pageTimers = registry.find("app.method.duration")
+                .tags("class", "CurrencyService", "method", "getCurrenciesPage").timers();
+        assertEquals(1, pageTimers.size());
+        assertEquals(4, pageTimers.iterator().next().count());
+        assertEquals(1.0, errors(registry, "getCurrenciesPage").count());
+
+        Timer dbTimer = registry.get("app.method.duration")
+                .tags("class", "CurrencyService", "method", "getAllCurrenciesFromDb").timer();
+        assertEquals(1, dbTimer.count());
+        assertEquals(0.0, errors(registry, "getAllCurrenciesFromDb").count());
+
+        assertEquals(2, registry.find("app.method.duration").timers().size());
+        assertEquals(2, registry.find("app.method.errors").counters().size());
+    }
+
+    private static Counter errors(MeterRegistry registry, String method) {
+        return registry.get("app.method.errors").tags("class", "CurrencyService", "method", method).counter();
+    }
+
+    private static CurrencyService proxy(CurrencyService target, MeterRegistry registry) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new LoggingAspect(registry));
+        return factory.getProxy();
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.currency.service;
+
+import com.example.currency.dto.SyncReport;
+import com.example.currency.events.RateChangeEvent;
+import com.example.currency.models.RateHistory;
+import com.example.currency.repository.CurrencyRateRepository;
+import com.example.currency.repository.RateHistoryRepository;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@RecordApplicationEvents
+class RateSyncServiceTest {
+    private static final String USD = "{\"Cur_ID\":431,\"Date\":\"2024-05-10T00:00:00\",\"Cur_Abbreviation\":\"USD\","
+            + "\"Cur_Scale\":1,\"Cur_Name\":\"Доллар США\",\"Cur_OfficialRate\":3.2512}";
+    private static final String RUB = "{\"Cur_ID\":456,\"Date\":\"2024-05-10T00:00:00\",\"Cur_Abbreviation\":\"RUB\","
+            + "\"Cur_Scale\":100,\"Cur_Name\":\"Российских рублей\",\"Cur_OfficialRate\":3.5210}";
+    private static final String RUB_CHANGED = RUB.replace("3.5210", "3.6000");
+
+    private static final HttpServer stub = startStub();
+    private static volatile String ratesBody = "[]";
+    private static volatile int ratesStatus = 200;
+
+    @Autowired
+    private RateSyncService rateSyncService;
+
+    @Autowired
+    private CurrencyConversionService conversionService;
+
+    @Autowired
+    private CurrencyRateRepository rateRepository;
+
+    @Autowired
+    private RateHistoryRepository rateHistoryRepository;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @DynamicPropertySource
+    static void nbrbProperties(DynamicPropertyRegistry registry) {
+        registry.add("nbrb.api.base-url", () -> "http://localhost:" + stub.getAddress().getPort() + "/exrates/");
+        registry.add("nbrb.sync.batch-size", () -> "1");
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.stop(0);
+    }
+
+    @BeforeEach
+    void resetState() {
+        rateRepository.deleteAll();
+        rateHistoryRepository.deleteAll();
+        ratesStatus = 200;
+    }
+
+    @Test
+    void syncWritesOnlyChangedRows() {
+        ratesBody = "[" + USD + "," + RUB + "]";
+        SyncReport first = rateSyncService.sync();
+        assertTrue(first.isSuccessful());
+        assertEquals(2, first.getFetched());
+        assertEquals(2, first.getInserted());
+        assertEquals(0, first.getUpdated());
+        assertEquals(0, new BigDecimal("0.03521").compareTo(rateRepository.findById(456L).orElseThrow().getRate()));
+
+        SyncReport unchanged = rateSyncService.sync();
+        assertEquals(2, unchanged.getFetched());
+        assertEquals(0, unchanged.getChanged());
+        // Событие синхронизации публикуется только при изменениях.
+        assertEquals(List.of(2), syncCompletedSizes());
+
+        ratesBody = "[" + USD + "," + RUB_CHANGED + "]";
+        SyncReport second = rateSyncService.sync();
+        assertEquals(0, second.getInserted());
+        assertEquals(1, second.getUpdated());
+        assertEquals(0, new BigDecimal("0.036").compareTo(conversionService.getRateSnapshot()
+                .rateAt(conversionService.getRateSnapshot().indexOf(456L))));
+        assertEquals(List.of(2, 1), syncCompletedSizes());
+
+        LocalDate day = LocalDate.of(2024, 5, 10);
+        List<RateHistory> history = rateHistoryRepository.findByAbbreviationAndDateBetweenOrderByDateAsc("RUB", day, day);
+        assertEquals(1, history.size());
+        assertEquals(0, new BigDecimal("0.036").compareTo(history.get(0).getRate()));
+        assertEquals(2, rateHistoryRepository.count());
+    }
+
+    @Test
+    void upstreamFailureIsReported() {
+        ratesStatus = 503;
+        SyncReport report = rateSyncService.sync();
+        assertEquals(0, report.getFetched());
+        assertTrue(report.getError() != null && !report.getError().isEmpty());
+        assertNull(rateRepository.findById(431L).orElse(null));
+    }
+
+    private List<Integer> syncCompletedSizes() {
+        return events.stream(RateChangeEvent.class)
+                .filter(event -> event.getType() == RateChangeEvent.Type.SYNC_COMPLETED)
+                .map(event -> event.getRates().size())
+                .toList();
+    }
+
+    private static HttpServer startStub() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/exrates/rates", exchange -> {
+                byte[] body = ratesBody.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+                exchange.sendResponseHeaders(ratesStatus, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.currency.service;
+
+import com.example.currency.cache.BoundedCache;
+import com.example.currency.cache.DataVersions;
+import com.example.currency.models.CurrencyInfo;
+import com.example.currency.models.CurrencyRate;
+import com.example.currency.repository.CurrencyInfoJdbcRepository;
+import com.example.currency.repository.CurrencyRateJdbcRepository;
+import com.example.currency.repository.CurrencyRateRepository;
+import com.example.currency.snapshot.RateSnapshot;
+import com.example.currency.snapshot.RateSnapshotHolder;
+import com.example.currency.snapshot.SnapshotFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.example.currency.TestRates.rate;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class WarmStartServiceTest {
+    private static final LocalDate DATE = LocalDate.of(2024, 5, 10);
+
+    @TempDir
+    Path dir;
+
+    private final CurrencyRateJdbcRepository rateJdbcRepository = mock(CurrencyRateJdbcRepository.class);
+    private final CurrencyInfoJdbcRepository currencyInfoJdbcRepository = mock(CurrencyInfoJdbcRepository.class);
+    private final CurrencyRateRepository rateRepository = mock(CurrencyRateRepository.class);
+    private final RateSnapshotHolder rateSnapshotHolder = new RateSnapshotHolder(rateRepository);
+    private final BoundedCache<Long, CurrencyRate> rateCache = new BoundedCache<>("rates", 100, Duration.ZERO);
+    private final BoundedCache<Integer, CurrencyInfo> currencyCache = new BoundedCache<>("info", 100, Duration.ZERO);
+    private final BoundedCache<String, List<CurrencyInfo>> listCache = new BoundedCache<>("list", 10, Duration.ZERO);
+    private final DataVersions dataVersions = new DataVersions();
+    private WarmStartService service;
+
+    @BeforeEach
+    void writeFile() throws IOException {
+        Path path = dir.resolve("snapshot.bin");
+        SnapshotFile.write(path, List.of(currency(431, "USD"), currency(451, "EUR")),
+                List.of(rate(431L, "USD", "3.2512", DATE), rate(451L, "EUR", "3.5210", DATE),
+                        rate(456L, "RUB", "3.6000", DATE)));
+        service = new WarmStartService(rateJdbcRepository, currencyInfoJdbcRepository, rateSnapshotHolder,
+                rateCache, currencyCache, listCache, dataVersions, true, path, Duration.ofHours(1));
+    }
+
+    @Test
+    void loadServesFileContentsWithoutDatabase() {
+        service.load();
+
+        assertEquals(3, rateSnapshotHolder.peek().size());
+        assertEquals(new BigDecimal("3.5210"), rateCache.getIfPresent(451L).getRate());
+        assertEquals("EUR", currencyCache.getIfPresent(451).getAbbreviation());
+        assertEquals(2, listCache.getIfPresent(CurrencyService.ALL_CURRENCIES_KEY).size());
+    }
+
+    @Test
+    void reconcileDropsRowsChangedOrDeletedAfterFileWasWritten() {
+        service.load();
+        long ratesVersion = dataVersions.rates().current().version();
+        long currenciesVersion = dataVersions.currencies().current().version();
+        // После записи файла EUR изменился, RUB удалён, добавлен PLN; из валют удалён EUR.
+        List<CurrencyRate> current = List.of(rate(431L, "USD", "3.2512", DATE), rate(451L, "EUR", "3.6000", DATE),
+                rate(452L, "PLN", "0.8000", DATE));
+        when(rateJdbcRepository.findAll()).thenReturn(current);
+        when(rateRepository.findAll()).thenReturn(current);
+        when(currencyInfoJdbcRepository.findAll()).thenReturn(List.of(currency(431, "USD")));
+
+        service.reconcile();
+
+        assertNotNull(rateCache.getIfPresent(431L));
+        assertNull(rateCache.getIfPresent(451L));
+        assertNull(rateCache.getIfPresent(456L));
+        assertNotNull(currencyCache.getIfPresent(431));
+        assertNull(currencyCache.getIfPresent(451));
+        assertNull(listCache.getIfPresent(CurrencyService.ALL_CURRENCIES_KEY));
+
+        RateSnapshot snapshot = rateSnapshotHolder.peek();
+        assertEquals(3, snapshot.size());
+        assertTrue(snapshot.indexOf(456L) < 0);
+        assertEquals(0, new BigDecimal("3.6").compareTo(snapshot.rateAt(snapshot.indexOf(451L))));
+        assertEquals(ratesVersion + 1, dataVersions.rates().current().version());
+        assertEquals(currenciesVersion + 1, dataVersions.currencies().current().version());
+    }
+
+    @Test
+    void reconcileKeepsCachesWhenDatabaseMatchesFile() {
+        service.load();
+        long ratesVersion = dataVersions.rates().current().version();
+        List<CurrencyRate> current = List.of(rate(431L, "USD", "3.2512", DATE), rate(451L, "EUR", "3.5210", DATE),
+                rate(456L, "RUB", "3.6000", DATE));
+        when(rateJdbcRepository.findAll()).thenReturn(current);
+        when(rateRepository.findAll()).thenReturn(current);
+        when(currencyInfoJdbcRepository.findAll()).thenReturn(List.of(currency(431, "USD"), currency(451, "EUR")));
+
+        service.reconcile();
+
+        assertNotNull(rateCache.getIfPresent(451L));
+        assertNotNull(currencyCache.getIfPresent(451));
+        assertEquals(2, listCache.getIfPresent(CurrencyService.ALL_CURRENCIES_KEY).size());
+        assertEquals(ratesVersion, dataVersions.rates().current().version());
+    }
+
+    @Test
+    void failedReconcileClearsCaches() {
+        service.load();
+        when(rateJdbcRepository.findAll()).thenThrow(new DataAccessResourceFailureException("connection refused"));
+
+        service.reconcile();
+
+        assertEquals(0, rateCache.size());
+        assertEquals(0, currencyCache.size());
+        assertEquals(0, listCache.size());
+    }
+
+    private static CurrencyInfo currency(int id, String abbreviation) {
+        CurrencyInfo currency = new CurrencyInfo();
+        currency.setId(id);
+        currency.setAbbreviation(abbreviation);
+        return currency;
+    }
+}
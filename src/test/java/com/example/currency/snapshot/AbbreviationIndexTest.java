@@ -0,0 +1,53 @@
+package com.example.currency.snapshot;
+
+import com.example.currency.models.CurrencyRate;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.currency.TestRates.rate;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AbbreviationIndexTest {
+
+    @Test
+    void resolvesCodesIgnoringCase() {
+        RateSnapshot snapshot = RateSnapshot.build(1,
+                List.of(rate(431L, "USD", "1"), rate(451L, "eur", "1"), rate(456L, "RUB", "1")));
+
+        assertEquals(431L, snapshot.idAt(snapshot.indexOfAbbreviation("usd")));
+        assertEquals(451L, snapshot.idAt(snapshot.indexOfAbbreviation("EUR")));
+        assertEquals(456L, snapshot.idAt(snapshot.indexOfAbbreviation(new StringBuilder("RuB"))));
+        assertTrue(snapshot.indexOfAbbreviation("GBP") < 0);
+        assertTrue(snapshot.indexOfAbbreviation("US") < 0);
+        assertTrue(snapshot.indexOfAbbreviation(null) < 0);
+        assertTrue(RateSnapshot.EMPTY.indexOfAbbreviation("USD") < 0);
+    }
+
+    @Test
+    void duplicateCodeResolvesToHighestId() {
+        RateSnapshot snapshot = RateSnapshot.build(1,
+                List.of(rate(456L, "RUB", "1"), rate(298L, "RUB", "1"), rate(1L, null, "1")));
+
+        assertEquals(456L, snapshot.idAt(snapshot.indexOfAbbreviation("rub")));
+    }
+
+    @Test
+    void everyCodeOfALargeSnapshotIsFound() {
+        List<CurrencyRate> rates = new ArrayList<>();
+        for (int i = 0; i < 26 * 26; i++) {
+            rates.add(rate(1000L + i, "X" + (char) ('A' + i / 26) + (char) ('A' + i % 26), "1"));
+        }
+        RateSnapshot snapshot = RateSnapshot.build(1, rates);
+
+        for (CurrencyRate rate : rates) {
+            assertEquals(rate.getId(), snapshot.idAt(snapshot.indexOfAbbreviation(rate.getAbbreviation().toLowerCase())));
+        }
+        RateSnapshot withNew = snapshot.withRate(2, rate(5000L, "NEW", "1"));
+        assertEquals(5000L, withNew.idAt(withNew.indexOfAbbreviation("new")));
+        RateSnapshot without = withNew.withoutRate(3, 5000L);
+        assertTrue(without.indexOfAbbreviation("NEW") < 0);
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.currency.snapshot;
+
+import net.jqwik.api.Arbitraries;
+import net.jqwik.api.Arbitrary;
+import net.jqwik.api.Combinators;
+import net.jqwik.api.Example;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.Provide;
+import net.jqwik.api.statistics.Statistics;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+import static com.example.currency.TestRates.rate;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class RateSnapshotConversionTest {
+    private static final int SCALE = 4;
+
+    @Property(tries = 5000)
+    void matchesBigDecimalForTypicalValues(@ForAll("amounts") BigDecimal amount,
+                                           @ForAll("nbrbRates") BigDecimal fromRate,
+                                           @ForAll("nbrbRates") BigDecimal toRate) {
+        assertEquals(reference(amount, fromRate, toRate), convert(amount, fromRate, toRate));
+    }
+
+    @Property(tries = 5000)
+    void matchesBigDecimalForExtremeValues(@ForAll("extremes") BigDecimal amount,
+                                           @ForAll("extremes") BigDecimal fromRate,
+                                           @ForAll("extremes") BigDecimal toRate) {
+        assertEquals(reference(amount, fromRate, toRate), convert(amount, fromRate, toRate));
+    }
+
+    @Property(tries = 10000)
+    void fixedPointResultIsExactWheneverItFits(@ForAll("wide") BigDecimal amount,
+                                               @ForAll("wide") BigDecimal fromRate,
+                                               @ForAll("wide") BigDecimal toRate) {
+        long result = FixedPoint.multiplyDivide(FixedPoint.unscaled(amount), amount.scale(),
+                FixedPoint.unscaled(toRate), toRate.scale(), FixedPoint.unscaled(fromRate), fromRate.scale(), SCALE);
+        Statistics.label("path").collect(result == FixedPoint.OVERFLOW ? "fallback" : "fixed-point");
+        if (result != FixedPoint.OVERFLOW) {
+            assertEquals(reference(amount, fromRate, toRate), BigDecimal.valueOf(result, SCALE));
+        }
+    }
+
+    @Property(tries = 2000)
+    void typicalValuesStayOnFixedPointPath(@ForAll("amounts") BigDecimal amount,
+                                           @ForAll("nbrbRates") BigDecimal fromRate,
+                                           @ForAll("nbrbRates") BigDecimal toRate) {
+        long result = FixedPoint.multiplyDivide(FixedPoint.unscaled(amount), amount.scale(),
+                FixedPoint.unscaled(toRate), toRate.scale(), FixedPoint.unscaled(fromRate), fromRate.scale(), SCALE);
+        assertNotEquals(FixedPoint.OVERFLOW, result);
+    }
+
+    @Example
+    void roundsHalfUp() {
+        assertEquals(new BigDecimal("0.0001"), convert(new BigDecimal("0.00005"), BigDecimal.ONE, BigDecimal.ONE));
+        assertEquals(new BigDecimal("0.0000"), convert(new BigDecimal("0.00004999"), BigDecimal.ONE, BigDecimal.ONE));
+        assertEquals(new BigDecimal("0.6667"), convert(new BigDecimal("2"), new BigDecimal("3"), BigDecimal.ONE));
+    }
+
+    @Example
+    void fallsBackToBigDecimalOnOverflow() {
+        BigDecimal amount = new BigDecimal("999999999999999999.99");
+        BigDecimal fromRate = new BigDecimal("0.000001");
+        BigDecimal toRate = new BigDecimal("12345678.123456");
+        assertEquals(reference(amount, fromRate, toRate), convert(amount, fromRate, toRate));
+    }
+
+    // Суммы до миллиона единиц с точностью до 4 знаков.
+    @Provide
+    Arbitrary<BigDecimal> amounts() {
+        return Arbitraries.integers().between(0, 4).flatMap(scale -> Arbitraries.longs()
+                .between(1, 1_000_000L * (long) Math.pow(10, scale))
+                .map(unscaled -> BigDecimal.valueOf(unscaled, scale)));
+    }
+
+    // Курсы так, как их хранит NbrbRate: официальный курс с 4 знаками, делённый на Cur_Scale.
+    @Provide
+    Arbitrary<BigDecimal> nbrbRates() {
+        return Combinators.combine(Arbitraries.longs().between(1_000, 1_000_000), Arbitraries.integers().between(0, 5))
+                .as((official, curScale) -> BigDecimal.valueOf(official, 4 + curScale).stripTrailingZeros());
+    }
+
+    // Произвольные 18-значные значения: проверяют 128-битный числитель и деление в обход типичных диапазонов.
+    @Provide
+    Arbitrary<BigDecimal> wide() {
+        return decimals(Arbitraries.longs().between(1, 999_999_999_999_999_999L), Arbitraries.integers().between(-4, 16));
+    }
+
+    @Provide
+    Arbitrary<BigDecimal> extremes() {
+        return decimals(Arbitraries.longs().between(1, Long.MAX_VALUE), Arbitraries.integers().between(-20, 30));
+    }
+
+    private static Arbitrary<BigDecimal> decimals(Arbitrary<Long> unscaled, Arbitrary<Integer> scales) {
+        return Combinators.combine(unscaled, scales).as(BigDecimal::valueOf);
+    }
+
+    private static BigDecimal reference(BigDecimal amount, BigDecimal fromRate, BigDecimal toRate) {
+        return amount.multiply(toRate).divide(fromRate, SCALE, RoundingMode.HALF_UP);
+    }
+
+    private static BigDecimal convert(BigDecimal amount, BigDecimal fromRate, BigDecimal toRate) {
+        RateSnapshot snapshot = RateSnapshot.build(1, List.of(rate(1L, null, fromRate), rate(2L, null, toRate)));
+        return snapshot.convert(snapshot.indexOf(1L), snapshot.indexOf(2L), amount, SCALE);
+    }
+}
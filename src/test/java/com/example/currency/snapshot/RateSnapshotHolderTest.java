@@ -0,0 +1,122 @@
+package com.example.currency.snapshot;
+
+import com.example.currency.models.CurrencyRate;
+import com.example.currency.repository.CurrencyRateRepository;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.example.currency.TestRates.rate;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RateSnapshotHolderTest {
+    private final CurrencyRateRepository repository = mock(CurrencyRateRepository.class);
+    private final RateSnapshotHolder holder = new RateSnapshotHolder(repository);
+
+    @Test
+    void applyAndRemoveMatchSnapshotBuiltFromScratch() {
+        TreeMap<Long, CurrencyRate> expected = new TreeMap<>();
+        holder.install(List.of());
+        Random random = new Random(42);
+        for (int step = 0; step < 500; step++) {
+            RateSnapshot before = holder.current();
+            int sizeBefore = before.size();
+            long id = 1 + random.nextInt(40);
+            if (random.nextInt(3) == 0) {
+                holder.remove(id);
+                expected.remove(id);
+            } else {
+                BigDecimal value = BigDecimal.valueOf(1 + random.nextInt(5000), 4);
+                CurrencyRate rate = rate(id, "C" + random.nextInt(30), value);
+                holder.apply(rate);
+                expected.put(id, rate);
+            }
+            RateSnapshot after = holder.current();
+            assertEquals(before.getVersion() + 1, after.getVersion());
+            // Прежний снимок, который мог держать читатель, не меняется.
+            assertEquals(sizeBefore, before.size());
+            assertSameContents(RateSnapshot.build(0, expected.values()), after);
+        }
+    }
+
+    @Test
+    void removingUnknownIdKeepsContentsAndBumpsVersion() {
+        holder.install(List.of(rate(1L, "USD", new BigDecimal("3.2")), rate(2L, "EUR", new BigDecimal("3.5"))));
+        RateSnapshot before = holder.current();
+        holder.remove(99);
+
+        assertEquals(before.getVersion() + 1, holder.current().getVersion());
+        assertSameContents(before, holder.current());
+    }
+
+    @Test
+    void writesBeforeFirstSnapshotRebuildFromDatabase() {
+        when(repository.findAll()).thenReturn(List.of(rate(7L, "USD", new BigDecimal("3.2"))));
+        assertNull(holder.peek());
+
+        // Курс уже сохранён в базе, поэтому снимок строится из неё, а не из одного изменения.
+        holder.apply(rate(7L, "USD", new BigDecimal("3.2")));
+        verify(repository).findAll();
+        assertEquals(1, holder.current().size());
+        assertEquals(0, holder.current().indexOfAbbreviation("usd"));
+    }
+
+    @Test
+    void readersAlwaysSeeConsistentSnapshot() throws Exception {
+        holder.install(List.of(rate(1L, "USD", new BigDecimal("3.2"))));
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> failure = new AtomicReference<>();
+        List<Thread> readers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread reader = new Thread(() -> {
+                while (!done.get() && failure.get() == null) {
+                    RateSnapshot snapshot = holder.current();
+                    for (int index = 0; index < snapshot.size(); index++) {
+                        if (snapshot.indexOf(snapshot.idAt(index)) != index || snapshot.rateAt(index) == null) {
+                            failure.set("broken index " + index + " in v" + snapshot.getVersion());
+                        }
+                    }
+                }
+            });
+            reader.start();
+            readers.add(reader);
+        }
+        for (long id = 2; id <= 500; id++) {
+            holder.apply(rate(id, "C" + id, BigDecimal.ONE));
+            if (id % 3 == 0) {
+                holder.remove(id - 1);
+            }
+        }
+        done.set(true);
+        for (Thread reader : readers) {
+            reader.join(5000);
+        }
+        assertNull(failure.get());
+    }
+
+    private static void assertSameContents(RateSnapshot expected, RateSnapshot actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.idAt(i), actual.idAt(i));
+            assertEquals(expected.rateAt(i), actual.rateAt(i));
+            assertEquals(expected.abbreviationAt(i), actual.abbreviationAt(i));
+            String code = expected.abbreviationAt(i);
+            assertEquals(expected.indexOfAbbreviation(code), actual.indexOfAbbreviation(code));
+        }
+        assertTrue(actual.indexOfAbbreviation("missing") < 0);
+        if (expected.size() > 1) {
+            assertEquals(expected.convert(0, 1, BigDecimal.TEN, 4), actual.convert(0, 1, BigDecimal.TEN, 4));
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.currency.snapshot;
+
+import com.example.currency.models.CurrencyInfo;
+import com.example.currency.models.CurrencyRate;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static com.example.currency.TestRates.rate;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnapshotFileTest {
+    private static final Duration MAX_AGE = Duration.ofHours(1);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTripPreservesRecords() throws IOException {
+        Path file = dir.resolve("snapshot.bin");
+        List<CurrencyInfo> currencies = List.of(currency(431, "USD"), currency(451, "EUR"), currency(1, null));
+        List<CurrencyRate> rates = List.of(
+                rate(431L, "USD", "3.274500", LocalDate.of(2024, 5, 10)),
+                rate(456L, "RUB", "12345678901234567890.123456", null),
+                rate(1L, null, null, LocalDate.of(1970, 1, 1)));
+
+        SnapshotFile.write(file, currencies, rates);
+        SnapshotFile.Contents contents = SnapshotFile.read(file, MAX_AGE);
+
+        assertEquals(currencies, contents.currencies());
+        assertEquals(rates, contents.rates());
+        assertEquals(6, contents.rates().get(0).getRate().scale());
+    }
+
+    @Test
+    void rejectsCorruptedFile() throws IOException {
+        Path file = dir.resolve("snapshot.bin");
+        SnapshotFile.write(file, List.of(currency(431, "USD")), List.of(rate(431L, "USD", "3.2745", null)));
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 0x10;
+        Files.write(file, bytes);
+
+        SnapshotFile.InvalidSnapshotException e = assertThrows(SnapshotFile.InvalidSnapshotException.class,
+                () -> SnapshotFile.read(file, MAX_AGE));
+        assertTrue(e.getMessage().contains("Checksum"));
+    }
+
+    @Test
+    void rejectsTruncatedFile() throws IOException {
+        Path file = dir.resolve("snapshot.bin");
+        Files.write(file, new byte[]{0x43, 0x55});
+
+        assertThrows(SnapshotFile.InvalidSnapshotException.class, () -> SnapshotFile.read(file, MAX_AGE));
+    }
+
+    @Test
+    void rejectsOtherFormatVersion() throws IOException {
+        Path file = dir.resolve("snapshot.bin");
+        SnapshotFile.write(file, List.of(), List.of());
+        byte[] bytes = Files.readAllBytes(file);
+        ByteBuffer.wrap(bytes).putShort(Integer.BYTES, (short) (SnapshotFile.FORMAT_VERSION + 1));
+        rewriteChecksum(bytes);
+        Files.write(file, bytes);
+
+        SnapshotFile.InvalidSnapshotException e = assertThrows(SnapshotFile.InvalidSnapshotException.class,
+                () -> SnapshotFile.read(file, MAX_AGE));
+        assertTrue(e.getMessage().contains("version"));
+    }
+
+    @Test
+    void rejectsStaleFile() throws IOException {
+        Path file = dir.resolve("snapshot.bin");
+        SnapshotFile.write(file, List.of(), List.of());
+        byte[] bytes = Files.readAllBytes(file);
+        ByteBuffer.wrap(bytes).putLong(Integer.BYTES + Short.BYTES, System.currentTimeMillis() - MAX_AGE.toMillis() - 1000);
+        rewriteChecksum(bytes);
+        Files.write(file, bytes);
+
+        SnapshotFile.InvalidSnapshotException e = assertThrows(SnapshotFile.InvalidSnapshotException.class,
+                () -> SnapshotFile.read(file, MAX_AGE));
+        assertTrue(e.getMessage().contains("older"));
+    }
+
+    private static void rewriteChecksum(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - Integer.BYTES);
+        ByteBuffer.wrap(bytes).putInt(bytes.length - Integer.BYTES, (int) crc.getValue());
+    }
+
+    private static CurrencyInfo currency(Integer id, String abbreviation) {
+        CurrencyInfo currency = new CurrencyInfo();
+        currency.setId(id);
+        currency.setAbbreviation(abbreviation);
+        return currency;
+    }
+}
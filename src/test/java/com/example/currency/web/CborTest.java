@@ -0,0 +1,74 @@
+package com.example.currency.web;
+
+import com.example.currency.dto.ConversionRequest;
+import com.example.currency.dto.ConversionResult;
+import com.example.currency.models.CurrencyRate;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.currency.TestRates.rate;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CborTest {
+    private final ObjectMapper mapper = Cbor.objectMapper(Jackson2ObjectMapperBuilder.json());
+    private final CBORMapper raw = new CBORMapper();
+
+    @Test
+    void writesRatesFixedPointWhenExactAndDecimalOtherwise() throws Exception {
+        List<BigDecimal> values = List.of(new BigDecimal("3.2"), new BigDecimal("-0.000001"),
+                new BigDecimal("0.1234567"), new BigDecimal("1e30"));
+        List<CurrencyRate> rates = values.stream().map(value -> rate(1L, null, value)).toList();
+        JsonNode encoded = raw.readTree(mapper.writeValueAsBytes(rates));
+        assertEquals(3_200_000L, encoded.get(0).get("rate").longValue());
+        assertEquals(-1L, encoded.get(1).get("rate").longValue());
+        assertTrue(encoded.get(2).get("rate").isFloatingPointNumber());
+        assertTrue(encoded.get(3).get("rate").isFloatingPointNumber());
+
+        CurrencyRate[] decoded = mapper.readValue(mapper.writeValueAsBytes(rates), CurrencyRate[].class);
+        for (int i = 0; i < values.size(); i++) {
+            assertEquals(0, values.get(i).compareTo(decoded[i].getRate()));
+        }
+    }
+
+    @Test
+    void otherDecimalsStayPlainNumbers() throws Exception {
+        byte[] request = raw.writeValueAsBytes(Map.of("from", 1, "to", 2, "amount", 100));
+        BigDecimal amount = mapper.readValue(request, ConversionRequest.class).getAmount();
+        assertEquals(0, new BigDecimal("100").compareTo(amount));
+
+        ConversionResult result = ConversionResult.success(1, 2, new BigDecimal("100"), new BigDecimal("12.5"));
+        JsonNode encoded = raw.readTree(mapper.writeValueAsBytes(result));
+        assertEquals(100, encoded.get("amount").intValue());
+        assertEquals(0, new BigDecimal("12.5").compareTo(encoded.get("result").decimalValue()));
+    }
+
+    @Test
+    void writesDatesAsEpochDays() throws Exception {
+        LocalDate date = LocalDate.of(2024, 2, 29);
+        byte[] encoded = mapper.writeValueAsBytes(date);
+        assertEquals(date.toEpochDay(), raw.readTree(encoded).longValue());
+        assertEquals(date, mapper.readValue(encoded, LocalDate.class));
+        assertEquals(date, mapper.readValue(raw.writeValueAsBytes("2024-02-29"), LocalDate.class));
+    }
+
+    @Test
+    void negotiatesCborOnlyWhenPreferred() {
+        assertEquals(MediaType.APPLICATION_JSON, ConditionalGet.negotiate(null));
+        assertEquals(MediaType.APPLICATION_JSON, ConditionalGet.negotiate("*/*"));
+        assertEquals(MediaType.APPLICATION_JSON, ConditionalGet.negotiate("application/json, application/cbor"));
+        assertEquals(MediaType.APPLICATION_JSON, ConditionalGet.negotiate("application/cbor;q=0"));
+        assertEquals(MediaType.APPLICATION_JSON, ConditionalGet.negotiate("not a media type"));
+        assertEquals(MediaType.APPLICATION_CBOR, ConditionalGet.negotiate("application/cbor, */*"));
+        assertEquals(MediaType.APPLICATION_CBOR, ConditionalGet.negotiate("application/json;q=0.5, application/cbor"));
+    }
+}